@@ -1,6 +1,9 @@
 package engine;
 
+import engine.heavyhitter.ClientCountingFilter;
+import engine.service.HeavyHitterService;
 import engine.service.UserService;
+import engine.timing.PhaseTimer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
@@ -10,6 +13,7 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
 
 /**
@@ -24,24 +28,38 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
      * Providing methods for interaction with User objects.
      */
     UserService userService;
+    /**
+     * Counting requests of clients for heavy hitter detection.
+     */
+    private HeavyHitterService heavyHitterService;
 
 
     /**
-     * @return Bean with implementation of PasswordEncoder that uses BCrypt.
+     * @return Bean with implementation of PasswordEncoder that uses BCrypt. Checking of passwords is timed
+     * as "auth" phase of the request.
      */
     @Bean
     public BCryptPasswordEncoder bCryptPasswordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder() {
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                try (PhaseTimer.Phase ignored = PhaseTimer.start("auth")) {
+                    return super.matches(rawPassword, encodedPassword);
+                }
+            }
+        };
     }
 
     /**
      * Configures Spring Security. Sets permissions for endpoints access, enables basic authentication.
+     * Requests are counted by client for heavy hitter detection, including ones with bad credentials.
      */
     @Override
     protected void configure(HttpSecurity http) throws Exception {
         http.csrf().disable().headers().frameOptions().disable();
         http.authorizeRequests()
                 .antMatchers("/api/register/**").permitAll()
+                .antMatchers("/actuator/health/liveness", "/actuator/health/readiness").permitAll()
 //                Uncomment next line for access to h2-console and actuator without authentication
 //                .antMatchers("/actuator/**", "/h2-console/**").permitAll()
                 .antMatchers("/actuator/**", "/h2-console/**").hasRole("ADMIN")
@@ -50,6 +68,7 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
                 .httpBasic()
                 .and()
                 .sessionManagement().disable();
+        http.addFilterBefore(new ClientCountingFilter(heavyHitterService), BasicAuthenticationFilter.class);
     }
 
     @Autowired
@@ -57,6 +76,11 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
         this.userService = userService;
     }
 
+    @Autowired
+    public void setHeavyHitterService(HeavyHitterService heavyHitterService) {
+        this.heavyHitterService = heavyHitterService;
+    }
+
     /**
      * Sets BCrypt encoder for passwords.
      */
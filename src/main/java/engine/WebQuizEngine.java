@@ -1,16 +1,21 @@
 package engine;
 
+import engine.snapshot.SnapshotRestorer;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 
 /**
  * Entry point of application.
  */
 @SpringBootApplication
+@EnableScheduling
 public class WebQuizEngine {
 
     public static void main(String[] args) {
-        SpringApplication.run(WebQuizEngine.class, args);
+        SpringApplication application = new SpringApplication(WebQuizEngine.class);
+        application.addListeners(new SnapshotRestorer());
+        application.run(args);
     }
 }
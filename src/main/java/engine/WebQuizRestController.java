@@ -1,26 +1,53 @@
 package engine;
 
+import engine.bulkhead.BulkheadGroup;
+import engine.bulkhead.Bulkheads;
 import engine.dataobject.*;
+import engine.format.ResponseFormat;
+import engine.leaderboard.LeaderboardWindow;
+import engine.service.DailyActivityService;
+import engine.service.LeaderboardService;
 import engine.service.QuizCompletionService;
+import engine.service.QuizSearchService;
 import engine.service.QuizService;
+import engine.service.QuizStreamService;
 import engine.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
 
 
 /**
- * Controller class for processing REST requests.
+ * Controller class for processing REST requests. Requests are processed by bulkheads of their endpoint groups,
+ * so container threads are released while requests are processed.
  */
 @RestController
 public class WebQuizRestController {
 
+    /**
+     * Maximum number of days of requested activity.
+     */
+    private static final int MAX_ACTIVITY_DAYS = 366;
+
     /**
      * Providing methods for interaction with User objects
      */
@@ -33,6 +60,31 @@ public class WebQuizRestController {
      * providing methods for interaction with QuizCompletion objects.
      */
     private QuizCompletionService quizCompletionService;
+    /**
+     * Providing full-text search over quizzes.
+     */
+    private QuizSearchService quizSearchService;
+    /**
+     * Providing leaderboards of users by number of solved quizzes.
+     */
+    private LeaderboardService leaderboardService;
+    /**
+     * Providing numbers of quizzes solved by users per day.
+     */
+    private DailyActivityService dailyActivityService;
+    /**
+     * Streaming created and deleted quizzes to subscribers.
+     */
+    private QuizStreamService quizStreamService;
+    /**
+     * Processing requests of every endpoint group on separate threads.
+     */
+    private Bulkheads bulkheads;
+    /**
+     * Time in seconds for which clients and proxies may cache a quiz without revalidation.
+     */
+    @Value("${quiz.cache.max-age-seconds:86400}")
+    private long quizMaxAge;
 
 
     /**
@@ -43,31 +95,141 @@ public class WebQuizRestController {
      * @return Same quiz that was submitted but wit generated ID and without answers.
      */
     @PostMapping(path = "/api/quizzes")
-    public Quiz addQuiz(@Valid @RequestBody Quiz quiz, HttpServletRequest httpServletRequest) {
-        return quizService.addQuiz(quiz, httpServletRequest);
+    public WebAsyncTask<Quiz> addQuiz(@Valid @RequestBody Quiz quiz, HttpServletRequest httpServletRequest) {
+        return bulkheads.submit(BulkheadGroup.WRITE, () -> quizService.addQuiz(quiz, httpServletRequest));
     }
 
     /**
-     * Handles HTTP GET request to /api/quizzes/{id}. Retrieves quiz by its ID.
+     * Handles HTTP GET request to /api/quizzes/{id}. Retrieves quiz by its ID. Quizzes are never modified,
+     * so response is cacheable and request with matching If-None-Match header is answered without reading DB.
+     * JSON of the quiz is served from cache, so DB is read and the quiz is serialized only once. CBOR or Smile
+     * representation is served instead if Accept header prefers it.
      *
-     * @param id ID of the quiz that requested.
-     * @return Quiz from DB if present or response "404 Not Found" if not.
+     * @param id         ID of the quiz that requested.
+     * @param accept     Accept header of the request.
+     * @param webRequest Request for checking If-None-Match header.
+     * @return The quiz if present, response "304 Not Modified" if client has actual copy of the quiz
+     * or response "404 Not Found" if quiz cannot be found.
      */
     @GetMapping(path = "/api/quizzes/{id}")
-    public Quiz getQuizById(@PathVariable int id) {
-        return quizService.getQuizByIdOrThrow(id);
+    public WebAsyncTask<ResponseEntity<?>> getQuizById(@PathVariable int id,
+                                                       @RequestHeader(value = HttpHeaders.ACCEPT, required = false)
+                                                               String accept,
+                                                       WebRequest webRequest) {
+        ResponseFormat format = ResponseFormat.of(accept);
+        String eTag = format.tag(quizService.getQuizETag(id));
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        return bulkheads.submit(BulkheadGroup.READ, () -> {
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .eTag(eTag)
+                    .cacheControl(CacheControl.maxAge(quizMaxAge, TimeUnit.SECONDS).cachePublic())
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .contentType(format.getMediaType());
+            if (format == ResponseFormat.JSON) {
+                return response.body(quizService.getQuizJsonByIdOrThrow(id));
+            }
+            return response.body(quizService.getQuizByIdOrThrow(id));
+        });
     }
 
     /**
      * Handles HTTP GET request to /api/quizzes.
      * Retrieves one page from all quizzes stored in DB corresponding to page number.
+     * Request with matching If-None-Match header is answered without reading DB. CBOR or Smile representation
+     * is served instead of JSON if Accept header prefers it, parameter envelope=slim leaves only content
+     * and counts in the page.
      *
-     * @param page Page number for return.
-     * @return One page from all quizzes stored in DB.
+     * @param page       Page number for return.
+     * @param accept     Accept header of the request.
+     * @param webRequest Request for checking If-None-Match header.
+     * @return One page from all quizzes stored in DB or response "304 Not Modified" if client has actual copy.
      */
     @GetMapping(path = "/api/quizzes")
-    public Page<Quiz> getAllQuizzes(@RequestParam int page) {
-        return quizService.getAllQuizzes(page);
+    public WebAsyncTask<ResponseEntity<Page<?>>> getAllQuizzes(@RequestParam int page,
+                                                               @RequestHeader(value = HttpHeaders.ACCEPT,
+                                                                       required = false) String accept,
+                                                               WebRequest webRequest) {
+        ResponseFormat format = ResponseFormat.of(accept);
+        String eTag = format.tag(quizService.getQuizzesETag(page));
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        return bulkheads.submit(BulkheadGroup.READ, () -> {
+            Page<?> quizzes = format == ResponseFormat.JSON ? quizService.getAllQuizzesJson(page)
+                    : quizService.getAllQuizzes(page);
+            return ResponseEntity.ok()
+                    .eTag(eTag)
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .body(quizzes);
+        });
+    }
+
+    /**
+     * Handles HTTP GET request to /api/quizzes/search. Searches quizzes by words of their title, text and options.
+     *
+     * @param q    Words to search for.
+     * @param page Page number for return.
+     * @return One page of found quizzes, from the most relevant to the least one.
+     */
+    @GetMapping(path = "/api/quizzes/search")
+    public WebAsyncTask<Page<Quiz>> searchQuizzes(@RequestParam String q,
+                                                  @RequestParam(defaultValue = "0") int page) {
+        return bulkheads.submit(BulkheadGroup.READ, () -> quizSearchService.search(q, page));
+    }
+
+    /**
+     * Handles HTTP GET request to /api/quizzes/stream. Streams created and deleted quizzes as server-sent events.
+     * The connection is processed asynchronously outside of bulkheads, as it lasts until the client disconnects.
+     *
+     * @param lastEventId ID of the last event received by the client before reconnecting.
+     * @return Emitter of events, starting after the last received event.
+     */
+    @GetMapping(path = QuizStreamService.PATH, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamQuizzes(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return quizStreamService.subscribe(lastEventId);
+    }
+
+    /**
+     * Handles HTTP GET request to /api/quizzes/random. Picks random quizzes without replacement.
+     *
+     * @param n                  Number of requested quizzes.
+     * @param excludeSolved      True if quizzes solved by current user are never picked.
+     * @param accept             Accept header of the request.
+     * @param httpServletRequest HTTP request of the user.
+     * @return Picked quizzes in random order, fewer than requested if there are not enough quizzes.
+     */
+    @GetMapping(path = "/api/quizzes/random")
+    public WebAsyncTask<List<?>> getRandomQuizzes(@RequestParam int n,
+                                                  @RequestParam(defaultValue = "false") boolean excludeSolved,
+                                                  @RequestHeader(value = HttpHeaders.ACCEPT, required = false)
+                                                          String accept,
+                                                  HttpServletRequest httpServletRequest) {
+        ResponseFormat format = ResponseFormat.of(accept);
+        return bulkheads.submit(BulkheadGroup.READ, () -> {
+            List<Integer> ids = quizService.getRandomQuizIds(n, excludeSolved, httpServletRequest);
+            return format == ResponseFormat.JSON ? quizService.getQuizzesByIds(ids).getQuizzes()
+                    : quizService.getQuizObjectsByIds(ids).getQuizzes();
+        });
+    }
+
+    /**
+     * Handles HTTP GET request to /api/quizzes with parameter ids. Retrieves quizzes by list of IDs.
+     * JSON of quizzes is served from cache, CBOR or Smile representation is serialized from quizzes read from DB.
+     *
+     * @param ids    IDs of requested quizzes.
+     * @param accept Accept header of the request.
+     * @return Found quizzes in requested order and IDs for which no quiz was found.
+     */
+    @GetMapping(path = "/api/quizzes", params = "ids")
+    public WebAsyncTask<QuizBatch<?>> getQuizzesByIds(@RequestParam List<Integer> ids,
+                                                      @RequestHeader(value = HttpHeaders.ACCEPT, required = false)
+                                                              String accept) {
+        ResponseFormat format = ResponseFormat.of(accept);
+        return bulkheads.submit(BulkheadGroup.READ, () -> format == ResponseFormat.JSON
+                ? quizService.getQuizzesByIds(ids) : quizService.getQuizObjectsByIds(ids));
     }
 
     /**
@@ -80,9 +242,23 @@ public class WebQuizRestController {
      * Returns "404 Not Found" if there's no quiz with provided ID.
      */
     @PostMapping(path = "/api/quizzes/{id}/solve")
-    public QuizResult answerQuiz(@Valid @RequestBody Answer answer, @PathVariable int id,
-                                 HttpServletRequest httpServletRequest) {
-        return quizService.answerQuiz(answer, id, httpServletRequest);
+    public WebAsyncTask<QuizResult> answerQuiz(@Valid @RequestBody Answer answer, @PathVariable int id,
+                                               HttpServletRequest httpServletRequest) {
+        return bulkheads.submit(BulkheadGroup.SOLVE, () -> quizService.answerQuiz(answer, id, httpServletRequest));
+    }
+
+    /**
+     * Handles HTTP POST request to /api/quizzes/solve. Accepts batch of answers for quizzes from user.
+     *
+     * @param answers            Answers that were submitted, each one with ID of the quiz to which it is submitted.
+     * @param httpServletRequest HTTP request with which answers were submitted.
+     * @return Results of answers in the same order as answers were submitted.
+     * Returns "404 Not Found" if there's no quiz for any of provided IDs.
+     */
+    @PostMapping(path = "/api/quizzes/solve")
+    public WebAsyncTask<List<QuizResult>> answerQuizzes(@RequestBody List<QuizAnswer> answers,
+                                                        HttpServletRequest httpServletRequest) {
+        return bulkheads.submit(BulkheadGroup.SOLVE, () -> quizService.answerQuizzes(answers, httpServletRequest));
     }
 
     /**
@@ -95,8 +271,9 @@ public class WebQuizRestController {
      * or "404 Not Found" if quiz cannot be found.
      */
     @DeleteMapping(path = "/api/quizzes/{id}")
-    public ResponseEntity<String> deleteQuiz(@PathVariable int id, HttpServletRequest httpServletRequest) {
-        return quizService.deleteQuiz(id, httpServletRequest);
+    public WebAsyncTask<ResponseEntity<String>> deleteQuiz(@PathVariable int id,
+                                                           HttpServletRequest httpServletRequest) {
+        return bulkheads.submit(BulkheadGroup.WRITE, () -> quizService.deleteQuiz(id, httpServletRequest));
     }
 
     /**
@@ -108,8 +285,63 @@ public class WebQuizRestController {
      * @return One page from all quiz completions of current user.
      */
     @GetMapping(path = "/api/quizzes/completed")
-    public Page<QuizCompletion> getQuizCompletions(@RequestParam Integer page, HttpServletRequest httpServletRequest) {
-        return quizCompletionService.getQuizCompletions(page, httpServletRequest);
+    public WebAsyncTask<Page<QuizCompletion>> getQuizCompletions(@RequestParam Integer page,
+                                                                 HttpServletRequest httpServletRequest) {
+        return bulkheads.submit(BulkheadGroup.READ,
+                () -> quizCompletionService.getQuizCompletions(page, httpServletRequest));
+    }
+
+    /**
+     * Handles HTTP GET request to /api/users/me/activity. Retrieves numbers of quizzes solved by current user
+     * per day or week, read from daily rollups.
+     *
+     * @param from               First day of the range, 29 days before the last one by default.
+     * @param to                 Last day of the range, today by default.
+     * @param period             Period of activity: day or week.
+     * @param httpServletRequest HTTP request with which activity was requested.
+     * @return Days or first days of weeks during which the user solved at least one quiz, with number of solves.
+     */
+    @GetMapping(path = "/api/users/me/activity")
+    public WebAsyncTask<List<DailyActivity>> getActivity(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "day") String period,
+            HttpServletRequest httpServletRequest) {
+        if (!"day".equals(period) && !"week".equals(period)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Period should be one of: day, week.");
+        }
+        LocalDate last = to == null ? LocalDate.now() : to;
+        LocalDate first = from == null ? last.minusDays(29) : from;
+        if (first.isAfter(last) || ChronoUnit.DAYS.between(first, last) >= MAX_ACTIVITY_DAYS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    String.format("Range should be from 1 to %d days.", MAX_ACTIVITY_DAYS));
+        }
+        return bulkheads.submit(BulkheadGroup.READ, () -> dailyActivityService.getActivity(
+                userService.loadUserByUsername(httpServletRequest.getUserPrincipal().getName()),
+                first, last, "week".equals(period)));
+    }
+
+    /**
+     * Handles HTTP GET request to /api/leaderboard. Retrieves users with the most quizzes solved during current day,
+     * week or all the time.
+     *
+     * @param window Time window: day, week or all.
+     * @param size   Maximum number of returned users, from 1 to 100.
+     * @return Users with the most quizzes solved, starting from the best one.
+     */
+    @GetMapping(path = "/api/leaderboard")
+    public WebAsyncTask<List<LeaderboardEntry>> getLeaderboard(@RequestParam(defaultValue = "all") String window,
+                                                 @RequestParam(defaultValue = "10") int size) {
+        LeaderboardWindow leaderboardWindow;
+        try {
+            leaderboardWindow = LeaderboardWindow.valueOf(window.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Window should be one of: day, week, all.");
+        }
+        if (size < 1 || size > 100) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Size should be from 1 to 100.");
+        }
+        return bulkheads.submit(BulkheadGroup.READ, () -> leaderboardService.getTop(leaderboardWindow, size));
     }
 
     /**
@@ -119,11 +351,19 @@ public class WebQuizRestController {
      * @param newUser User provided for adding.
      */
     @PostMapping(path = "/api/register")
-    public void registerNewUser(@Valid @RequestBody User newUser) {
-        if (!userService.addUser(newUser)) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
-                    String.format("User %s is already registered.", newUser.getUsername()));
-        }
+    public WebAsyncTask<Void> registerNewUser(@Valid @RequestBody User newUser) {
+        return bulkheads.submit(BulkheadGroup.REGISTER, () -> {
+            if (!userService.addUser(newUser)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        String.format("User %s is already registered.", newUser.getUsername()));
+            }
+            return null;
+        });
+    }
+
+    @Autowired
+    public void setBulkheads(Bulkheads bulkheads) {
+        this.bulkheads = bulkheads;
     }
 
     @Autowired
@@ -136,6 +376,26 @@ public class WebQuizRestController {
         this.quizService = quizService;
     }
 
+    @Autowired
+    public void setDailyActivityService(DailyActivityService dailyActivityService) {
+        this.dailyActivityService = dailyActivityService;
+    }
+
+    @Autowired
+    public void setQuizStreamService(QuizStreamService quizStreamService) {
+        this.quizStreamService = quizStreamService;
+    }
+
+    @Autowired
+    public void setLeaderboardService(LeaderboardService leaderboardService) {
+        this.leaderboardService = leaderboardService;
+    }
+
+    @Autowired
+    public void setQuizSearchService(QuizSearchService quizSearchService) {
+        this.quizSearchService = quizSearchService;
+    }
+
     @Autowired
     public void setUserService(UserService userService) {
         this.userService = userService;
@@ -0,0 +1,69 @@
+package engine.archive;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+
+/**
+ * Quiz completion moved from DB into a segment file.
+ */
+public class ArchivedCompletion {
+
+    /**
+     * ID of the completion in DB.
+     */
+    private final int id;
+    /**
+     * ID of the user who solved the quiz.
+     */
+    private final int userId;
+    /**
+     * ID of the solved quiz.
+     */
+    private final int quizId;
+    /**
+     * Time of completion in milliseconds since the epoch, UTC.
+     */
+    private final long completedAt;
+
+
+    public ArchivedCompletion(int id, int userId, int quizId, long completedAt) {
+        this.id = id;
+        this.userId = userId;
+        this.quizId = quizId;
+        this.completedAt = completedAt;
+    }
+
+    /**
+     * @param time Date and time stored in DB.
+     * @return The same time in milliseconds since the epoch. Times are stored without zone, so UTC is used as is.
+     */
+    public static long toMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    /**
+     * @param millis Time in milliseconds since the epoch.
+     * @return Date and time as stored in DB.
+     */
+    public static LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000), (int) Math.floorMod(millis, 1000) * 1_000_000,
+                ZoneOffset.UTC);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public int getQuizId() {
+        return quizId;
+    }
+
+    public long getCompletedAt() {
+        return completedAt;
+    }
+}
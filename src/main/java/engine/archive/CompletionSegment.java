@@ -0,0 +1,271 @@
+package engine.archive;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+
+/**
+ * Immutable file of archived quiz completions, memory-mapped for reading. Completions are grouped by user, and
+ * completions of every user are stored newest first as three columns: completion IDs, quiz IDs and times of
+ * completion. Every column is delta encoded into variable-length integers, so a completion takes a few bytes.
+ * <p>
+ * Layout: magic, number of completions, number of users, ID of the first completion, then directory entry of every
+ * user in ascending order of user IDs (user ID, number of completions, offsets of three columns), then columns.
+ */
+public class CompletionSegment {
+
+    /**
+     * Marker written at the beginning of segment files.
+     */
+    private static final int MAGIC = 0x51435347;
+    /**
+     * Size of the header in bytes.
+     */
+    private static final int HEADER_SIZE = 16;
+    /**
+     * Size of a directory entry in bytes.
+     */
+    private static final int ENTRY_SIZE = 20;
+
+    /**
+     * File of the segment.
+     */
+    private final Path file;
+    /**
+     * Mapped content of the file. Only absolute reads are used, so the buffer is shared between threads.
+     */
+    private final MappedByteBuffer buffer;
+    /**
+     * IDs of users having completions in the segment, in ascending order.
+     */
+    private final int[] users;
+    /**
+     * Number of completions of every user, aligned with users array.
+     */
+    private final int[] counts;
+    /**
+     * Offsets of columns of every user, three per user.
+     */
+    private final int[] offsets;
+    /**
+     * ID of one of completions stored in the segment.
+     */
+    private final int sampleId;
+
+
+    private CompletionSegment(Path file, MappedByteBuffer buffer) throws IOException {
+        this.file = file;
+        this.buffer = buffer;
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a completion segment: " + file);
+        }
+        int userCount = buffer.getInt(8);
+        sampleId = buffer.getInt(12);
+        users = new int[userCount];
+        counts = new int[userCount];
+        offsets = new int[userCount * 3];
+        for (int i = 0; i < userCount; i++) {
+            int entry = HEADER_SIZE + i * ENTRY_SIZE;
+            users[i] = buffer.getInt(entry);
+            counts[i] = buffer.getInt(entry + 4);
+            offsets[i * 3] = buffer.getInt(entry + 8);
+            offsets[i * 3 + 1] = buffer.getInt(entry + 12);
+            offsets[i * 3 + 2] = buffer.getInt(entry + 16);
+        }
+    }
+
+    /**
+     * Maps segment file into memory.
+     *
+     * @param file File written by write method.
+     * @return Segment stored in the file.
+     * @throws IOException If file cannot be read or has wrong format.
+     */
+    public static CompletionSegment open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new CompletionSegment(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Writes completions into a new segment file.
+     *
+     * @param file        File to write into.
+     * @param completions Completions to store, not empty. The list is reordered.
+     * @throws IOException If file cannot be written.
+     */
+    public static void write(Path file, List<ArchivedCompletion> completions) throws IOException {
+        completions.sort(Comparator.comparingInt(ArchivedCompletion::getUserId)
+                .thenComparing(Comparator.comparingLong(ArchivedCompletion::getCompletedAt).reversed())
+                .thenComparing(Comparator.comparingInt(ArchivedCompletion::getId).reversed()));
+        ByteArrayOutputStream directory = new ByteArrayOutputStream();
+        ByteArrayOutputStream columns = new ByteArrayOutputStream();
+        DataOutputStream entries = new DataOutputStream(directory);
+        int userCount = 0;
+        for (int from = 0; from < completions.size(); ) {
+            int userId = completions.get(from).getUserId();
+            int to = from;
+            while (to < completions.size() && completions.get(to).getUserId() == userId) {
+                to++;
+            }
+            userCount++;
+            List<ArchivedCompletion> block = completions.subList(from, to);
+            entries.writeInt(userId);
+            entries.writeInt(block.size());
+            entries.writeInt(columns.size());
+            long previous = 0;
+            for (ArchivedCompletion completion : block) {
+                writeVarLong(columns, zigZag(completion.getId() - previous));
+                previous = completion.getId();
+            }
+            entries.writeInt(columns.size());
+            previous = 0;
+            for (ArchivedCompletion completion : block) {
+                writeVarLong(columns, zigZag(completion.getQuizId() - previous));
+                previous = completion.getQuizId();
+            }
+            entries.writeInt(columns.size());
+            previous = block.get(0).getCompletedAt();
+            writeVarLong(columns, zigZag(previous));
+            for (ArchivedCompletion completion : block.subList(1, block.size())) {
+                writeVarLong(columns, previous - completion.getCompletedAt());
+                previous = completion.getCompletedAt();
+            }
+            from = to;
+        }
+        int base = HEADER_SIZE + userCount * ENTRY_SIZE;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(file.toFile())))) {
+            out.writeInt(MAGIC);
+            out.writeInt(completions.size());
+            out.writeInt(userCount);
+            out.writeInt(completions.get(0).getId());
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(directory.toByteArray()));
+            for (int i = 0; i < userCount; i++) {
+                out.writeInt(in.readInt());
+                out.writeInt(in.readInt());
+                for (int column = 0; column < 3; column++) {
+                    out.writeInt(base + in.readInt());
+                }
+            }
+            columns.writeTo(out);
+        }
+    }
+
+    /**
+     * @return File of the segment.
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * @return ID of one of completions stored in the segment. All completions of a segment are archived at once,
+     * so if this completion is still present in DB all of them are.
+     */
+    public int getSampleId() {
+        return sampleId;
+    }
+
+    /**
+     * @param userId ID of the user.
+     * @return Number of completions of the user stored in the segment.
+     */
+    public int count(int userId) {
+        int index = Arrays.binarySearch(users, userId);
+        return index < 0 ? 0 : counts[index];
+    }
+
+    /**
+     * Passes completions of the user to the visitor, newest first, until the visitor stops.
+     *
+     * @param userId  ID of the user.
+     * @param visitor Visitor of completions.
+     * @return False if visitor stopped iteration.
+     */
+    public boolean forEach(int userId, Visitor visitor) {
+        int index = Arrays.binarySearch(users, userId);
+        return index < 0 || visitUser(index, visitor);
+    }
+
+    /**
+     * Passes all completions to the visitor, until the visitor stops.
+     *
+     * @param visitor Visitor of completions.
+     * @return False if visitor stopped iteration.
+     */
+    public boolean forEach(Visitor visitor) {
+        for (int index = 0; index < users.length; index++) {
+            if (!visitUser(index, visitor)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean visitUser(int index, Visitor visitor) {
+        int[] cursors = {offsets[index * 3], offsets[index * 3 + 1], offsets[index * 3 + 2]};
+        long id = 0;
+        long quizId = 0;
+        long completedAt = 0;
+        for (int i = 0; i < counts[index]; i++) {
+            id += unZigZag(readVarLong(cursors, 0));
+            quizId += unZigZag(readVarLong(cursors, 1));
+            completedAt = i == 0 ? unZigZag(readVarLong(cursors, 2)) : completedAt - readVarLong(cursors, 2);
+            if (!visitor.visit(users[index], (int) id, (int) quizId, completedAt)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long readVarLong(int[] cursors, int column) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get(cursors[column]++);
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    private static void writeVarLong(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Receives archived completions one by one.
+     */
+    @FunctionalInterface
+    public interface Visitor {
+
+        /**
+         * @param userId      ID of the user who solved the quiz.
+         * @param id          ID of the completion.
+         * @param quizId      ID of the solved quiz.
+         * @param completedAt Time of completion in milliseconds since the epoch, UTC.
+         * @return False to stop iteration.
+         */
+        boolean visit(int userId, int id, int quizId, long completedAt);
+    }
+}
@@ -0,0 +1,152 @@
+package engine.attempt;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+
+/**
+ * Format of attempt log segments, along with reading them. A segment is a preallocated file of the header (magic,
+ * version and reserved long) followed by fixed-size records: timestamp, answer mask, quiz ID, user ID, flags and
+ * checksum of the other fields. Unused tail of a segment is zeroed, so the first record with zero timestamp marks
+ * the end. A record torn by a crash while it was written doesn't match its checksum and marks the end as well.
+ * Segments of version 1 have no checksums. Reading doesn't depend on the rest of the application and can be used
+ * for offline aggregation.
+ */
+public final class AttemptLogFormat {
+
+    /**
+     * Marker written at the beginning of segment files.
+     */
+    static final int MAGIC = 0x5141544C;
+    /**
+     * Version of the format.
+     */
+    static final int VERSION = 2;
+    /**
+     * Size of the header in bytes.
+     */
+    static final int HEADER_SIZE = 16;
+    /**
+     * Size of a record in bytes.
+     */
+    static final int RECORD_SIZE = 32;
+    /**
+     * Prefix of names of segment files.
+     */
+    private static final String PREFIX = "attempts-";
+    /**
+     * Suffix of names of segment files.
+     */
+    private static final String SUFFIX = ".log";
+
+
+    private AttemptLogFormat() {
+    }
+
+    /**
+     * @param directory Directory of segment files.
+     * @return Segment files from the oldest to the newest.
+     * @throws IOException If directory cannot be listed.
+     */
+    public static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith(PREFIX)
+                    && file.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Passes attempts made within time range to the visitor, in order of writing.
+     *
+     * @param directory Directory of segment files.
+     * @param from      Earliest time of attempts in milliseconds since the epoch, inclusive.
+     * @param to        Latest time of attempts in milliseconds since the epoch, exclusive.
+     * @param visitor   Visitor of attempts.
+     * @throws IOException If segment files cannot be read or have wrong format.
+     */
+    public static void replay(Path directory, long from, long to, AttemptVisitor visitor) throws IOException {
+        for (Path segment : segments(directory)) {
+            replaySegment(segment, from, to, visitor);
+        }
+    }
+
+    /**
+     * Passes attempts of a single segment made within time range to the visitor, in order of writing.
+     *
+     * @param segment Segment file.
+     * @param from    Earliest time of attempts in milliseconds since the epoch, inclusive.
+     * @param to      Latest time of attempts in milliseconds since the epoch, exclusive.
+     * @param visitor Visitor of attempts.
+     * @throws IOException If segment file cannot be read or has wrong format.
+     */
+    public static void replaySegment(Path segment, long from, long to, AttemptVisitor visitor) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC
+                || buffer.getInt(4) < 1 || buffer.getInt(4) > VERSION) {
+            throw new IOException("Not an attempt log segment: " + segment);
+        }
+        boolean checked = buffer.getInt(4) >= 2;
+        for (int offset = HEADER_SIZE; offset + RECORD_SIZE <= buffer.limit(); offset += RECORD_SIZE) {
+            long timestamp = buffer.getLong(offset);
+            long answerMask = buffer.getLong(offset + 8);
+            int quizId = buffer.getInt(offset + 16);
+            int userId = buffer.getInt(offset + 20);
+            int flags = buffer.getInt(offset + 24);
+            if (timestamp == 0 || checked
+                    && buffer.getInt(offset + 28) != checksum(quizId, userId, timestamp, answerMask, flags)) {
+                break;
+            }
+            if (timestamp >= from && timestamp < to) {
+                visitor.visit(quizId, userId, timestamp, answerMask, flags);
+            }
+        }
+    }
+
+    /**
+     * @param quizId     ID of the quiz.
+     * @param userId     ID of the user.
+     * @param timestamp  Time of the attempt in milliseconds since the epoch.
+     * @param answerMask Bit mask of submitted answer.
+     * @param flags      Flags of the attempt.
+     * @return Checksum of the record, never zero, so a record with only its timestamp written doesn't match it.
+     */
+    static int checksum(int quizId, int userId, long timestamp, long answerMask, int flags) {
+        long hash = timestamp * 0x9E3779B97F4A7C15L;
+        hash = (hash ^ answerMask) * 0x9E3779B97F4A7C15L;
+        hash = (hash ^ ((long) quizId << 32 | userId & 0xFFFFFFFFL)) * 0x9E3779B97F4A7C15L;
+        hash = (hash ^ flags) * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ hash >>> 32) | 1;
+    }
+
+    /**
+     * @param sequence Sequence number of the segment.
+     * @return Name of the segment file.
+     */
+    static String fileName(long sequence) {
+        return String.format("%s%012d%s", PREFIX, sequence, SUFFIX);
+    }
+
+    /**
+     * @param segment Segment file.
+     * @return Sequence number of the segment.
+     */
+    static long sequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+}
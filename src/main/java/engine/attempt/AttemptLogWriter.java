@@ -0,0 +1,217 @@
+package engine.attempt;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+
+/**
+ * Single writer of the attempt log. Drains the ring buffer on its own thread into the current segment file, which
+ * is preallocated and memory-mapped, so writing an attempt is a few stores into memory. When the segment is full
+ * the writer rolls over to a new one. Every run of the writer starts a new segment. If a segment cannot be created,
+ * the writer keeps running and retries with growing pauses, attempts are kept in the buffer meanwhile and dropped
+ * once it is full.
+ */
+public class AttemptLogWriter implements Runnable, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(AttemptLogWriter.class);
+    /**
+     * Maximum time between forcing written attempts to disk.
+     */
+    private static final long FORCE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    /**
+     * Time to wait when there's nothing to write.
+     */
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    /**
+     * Pause before the first retry after a failure to write.
+     */
+    private static final long MIN_RETRY_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    /**
+     * Longest pause between retries after failures to write.
+     */
+    private static final long MAX_RETRY_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    /**
+     * Directory of segment files.
+     */
+    private final Path directory;
+    /**
+     * Size of every segment file in bytes.
+     */
+    private final int segmentSize;
+    /**
+     * Buffer of attempts to write.
+     */
+    private final AttemptRingBuffer ringBuffer;
+    /**
+     * Thread writing attempts.
+     */
+    private final Thread thread;
+    /**
+     * False once the writer is closed.
+     */
+    private volatile boolean running = true;
+    /**
+     * File of the current segment.
+     */
+    private volatile Path currentFile;
+    /**
+     * Mapped content of the current segment.
+     */
+    private MappedByteBuffer current;
+    /**
+     * Sequence number of the current segment.
+     */
+    private long sequence;
+    /**
+     * Number of failed attempts to write.
+     */
+    private final AtomicLong failures = new AtomicLong();
+
+
+    /**
+     * @param directory   Directory of segment files, created if missing.
+     * @param segmentSize Size of every segment file in bytes.
+     * @param ringBuffer  Buffer of attempts to write.
+     * @throws IOException If the first segment cannot be created.
+     */
+    public AttemptLogWriter(Path directory, int segmentSize, AttemptRingBuffer ringBuffer) throws IOException {
+        this.directory = directory;
+        this.segmentSize = Math.max(AttemptLogFormat.HEADER_SIZE + AttemptLogFormat.RECORD_SIZE, segmentSize);
+        this.ringBuffer = ringBuffer;
+        Files.createDirectories(directory);
+        List<Path> segments = AttemptLogFormat.segments(directory);
+        sequence = segments.isEmpty() ? 0 : AttemptLogFormat.sequence(segments.get(segments.size() - 1));
+        roll();
+        thread = new Thread(this, "attempt-log-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void run() {
+        long forcedAt = System.nanoTime();
+        boolean dirty = false;
+        long retryNanos = 0;
+        while (running) {
+            int written;
+            try {
+                written = ringBuffer.drain(this::write, 1024);
+                dirty |= written > 0;
+                if (dirty && System.nanoTime() - forcedAt > FORCE_INTERVAL_NANOS) {
+                    current.force();
+                    forcedAt = System.nanoTime();
+                    dirty = false;
+                }
+            } catch (RuntimeException e) {
+                failures.incrementAndGet();
+                if (retryNanos == 0) {
+                    log.error("Failed to write attempt log, retrying", e);
+                }
+                retryNanos = retryNanos == 0 ? MIN_RETRY_NANOS : Math.min(retryNanos * 2, MAX_RETRY_NANOS);
+                LockSupport.parkNanos(retryNanos);
+                continue;
+            }
+            if (retryNanos != 0) {
+                log.info("Attempt log writing resumed after {} failures", failures.get());
+                retryNanos = 0;
+            }
+            if (written == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        try {
+            ringBuffer.drain(this::write, Integer.MAX_VALUE);
+            current.force();
+        } catch (RuntimeException e) {
+            failures.incrementAndGet();
+            log.error("Failed to write attempt log on close", e);
+        }
+    }
+
+    /**
+     * @return File of the segment being written.
+     */
+    public Path getCurrentFile() {
+        return currentFile;
+    }
+
+    /**
+     * @return Number of failed attempts to write, attempts are retried after every failure.
+     */
+    public long getFailures() {
+        return failures.get();
+    }
+
+    /**
+     * Stops the writer after writing all attempts in the buffer.
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writes the attempt into the current segment. If a new segment cannot be created, the attempt stays
+     * in the buffer, as the buffer moves past an attempt only after it is written.
+     */
+    private void write(int quizId, int userId, long timestamp, long answerMask, int flags) {
+        if (current.remaining() < AttemptLogFormat.RECORD_SIZE) {
+            current.force();
+            try {
+                roll();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to create attempt log segment", e);
+            }
+        }
+        current.putLong(timestamp);
+        current.putLong(answerMask);
+        current.putInt(quizId);
+        current.putInt(userId);
+        current.putInt(flags);
+        current.putInt(AttemptLogFormat.checksum(quizId, userId, timestamp, answerMask, flags));
+    }
+
+    /**
+     * Creates and maps the next segment. A file left by a failed attempt is removed, so it's never read
+     * as a segment.
+     */
+    private void roll() throws IOException {
+        Path file = directory.resolve(AttemptLogFormat.fileName(sequence + 1));
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        } catch (IOException e) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+        sequence++;
+        current = mapped;
+        current.putInt(AttemptLogFormat.MAGIC);
+        current.putInt(AttemptLogFormat.VERSION);
+        current.putLong(0);
+        currentFile = file;
+    }
+}
@@ -0,0 +1,121 @@
+package engine.attempt;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * Bounded lock-free ring buffer of attempts with many producers and a single consumer. Fields of attempts are kept
+ * in preallocated primitive arrays, so publishing an attempt allocates nothing. Every slot has a sequence number
+ * telling whether it is free for the producer of the given position or ready for the consumer. Attempts offered
+ * while the buffer is full are dropped rather than blocking request threads.
+ */
+public class AttemptRingBuffer {
+
+    /**
+     * Mask of positions, capacity is a power of two.
+     */
+    private final int mask;
+    /**
+     * Sequence number of every slot: equal to the position when the slot is free for the producer of the position,
+     * position + 1 when attempt of the position is published.
+     */
+    private final AtomicLongArray sequences;
+    private final long[] timestamps;
+    private final long[] answerMasks;
+    private final int[] quizIds;
+    private final int[] userIds;
+    private final int[] flags;
+    /**
+     * Next position to be claimed by producers.
+     */
+    private final AtomicLong tail = new AtomicLong();
+    /**
+     * Next position to be consumed, accessed by the consumer thread only.
+     */
+    private long head;
+    /**
+     * Number of attempts dropped because the buffer was full.
+     */
+    private final AtomicLong dropped = new AtomicLong();
+
+
+    /**
+     * @param capacity Minimum number of attempts the buffer can hold, rounded up to a power of two.
+     */
+    public AttemptRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        mask = size - 1;
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        timestamps = new long[size];
+        answerMasks = new long[size];
+        quizIds = new int[size];
+        userIds = new int[size];
+        flags = new int[size];
+    }
+
+    /**
+     * Publishes attempt if there's a free slot. Safe to call from any thread.
+     *
+     * @param quizId     ID of the quiz.
+     * @param userId     ID of the user.
+     * @param timestamp  Time of the attempt in milliseconds since the epoch.
+     * @param answerMask Bit mask of submitted answer.
+     * @param flag       Flags of the attempt.
+     * @return False if the buffer is full and attempt was dropped.
+     */
+    public boolean offer(int quizId, int userId, long timestamp, long answerMask, int flag) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long sequence = sequences.get(index);
+            if (sequence < position) {
+                dropped.incrementAndGet();
+                return false;
+            }
+            if (sequence == position && tail.compareAndSet(position, position + 1)) {
+                timestamps[index] = timestamp;
+                answerMasks[index] = answerMask;
+                quizIds[index] = quizId;
+                userIds[index] = userId;
+                flags[index] = flag;
+                sequences.lazySet(index, position + 1);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Passes published attempts to the consumer in order of publishing. Must be called from a single thread.
+     * An attempt is released only after the consumer returns, so if the consumer throws, the attempt is passed
+     * again by the next call.
+     *
+     * @param consumer Consumer of attempts.
+     * @param limit    Maximum number of attempts to consume.
+     * @return Number of consumed attempts.
+     */
+    public int drain(AttemptVisitor consumer, int limit) {
+        int count = 0;
+        while (count < limit) {
+            int index = (int) head & mask;
+            if (sequences.get(index) != head + 1) {
+                break;
+            }
+            consumer.visit(quizIds[index], userIds[index], timestamps[index], answerMasks[index], flags[index]);
+            sequences.lazySet(index, head + mask + 1);
+            head++;
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return Number of attempts dropped because the buffer was full.
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+}
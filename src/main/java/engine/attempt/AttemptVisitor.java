@@ -0,0 +1,28 @@
+package engine.attempt;
+
+
+/**
+ * Receives attempts to solve quizzes one by one.
+ */
+@FunctionalInterface
+public interface AttemptVisitor {
+
+    /**
+     * Flag of a correct answer.
+     */
+    int CORRECT = 1;
+    /**
+     * Flag of an answer which can't be represented by the bit mask exactly, because of duplicated, unordered
+     * or too large indexes.
+     */
+    int INEXACT_ANSWER = 2;
+
+    /**
+     * @param quizId     ID of the quiz.
+     * @param userId     ID of the user.
+     * @param timestamp  Time of the attempt in milliseconds since the epoch.
+     * @param answerMask Bit mask of submitted answer, bit N is set if option N was chosen.
+     * @param flags      Combination of CORRECT and INEXACT_ANSWER flags.
+     */
+    void visit(int quizId, int userId, long timestamp, long answerMask, int flags);
+}
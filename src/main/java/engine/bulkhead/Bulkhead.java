@@ -0,0 +1,137 @@
+package engine.bulkhead;
+
+import engine.timing.PhaseTimer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Bounded executor of a group of endpoints. Requests are admitted while the number of running and queued requests
+ * of the group is below the number of threads plus the queue depth, others are rejected at once with
+ * "503 Service Unavailable". Admitted requests release the container thread and are processed by threads of
+ * the bulkhead, requests not completed in time are answered with "503 Service Unavailable" as well. Requests with
+ * side effects, such as solving or adding quizzes, would be repeated by clients after such an answer while they are
+ * still being committed, so for them the timeout only limits waiting in the queue: a request which waited longer is
+ * answered with "503 Service Unavailable" without being processed, and a started one is always completed.
+ */
+public class Bulkhead {
+
+    private static final int PENDING = 0;
+    private static final int STARTED = 1;
+    private static final int RELEASED = 2;
+
+    /**
+     * Threads processing requests of the group.
+     */
+    private final ThreadPoolTaskExecutor executor;
+    /**
+     * Permits of running and queued requests.
+     */
+    private final Semaphore permits;
+    /**
+     * Time in milliseconds after which a request is answered with an error.
+     */
+    private final long timeoutMs;
+    /**
+     * True if requests can be answered with an error while they are still processed.
+     */
+    private final boolean idempotent;
+    /**
+     * Counter of requests rejected because the bulkhead is full.
+     */
+    private final Counter rejected;
+    /**
+     * Counter of requests not completed in time.
+     */
+    private final Counter timedOut;
+    /**
+     * Timer of waiting in the queue before processing.
+     */
+    private final Timer queueWait;
+
+
+    public Bulkhead(ThreadPoolTaskExecutor executor, int permits, long timeoutMs, boolean idempotent,
+                    Counter rejected, Counter timedOut, Timer queueWait) {
+        this.executor = executor;
+        this.permits = new Semaphore(permits);
+        this.timeoutMs = timeoutMs;
+        this.idempotent = idempotent;
+        this.rejected = rejected;
+        this.timedOut = timedOut;
+        this.queueWait = queueWait;
+    }
+
+    /**
+     * Admits the request into the bulkhead. Processing continues on a thread of the bulkhead with timer of phases
+     * of the request, security context and persistence context of the request.
+     *
+     * @param task Processing of the request.
+     * @param <T>  Type of the result.
+     * @return Task to return from the controller.
+     * @throws ResponseStatusException If the bulkhead is full.
+     */
+    public <T> WebAsyncTask<T> submit(Callable<T> task) {
+        if (!permits.tryAcquire()) {
+            rejected.increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Server is overloaded, try again later.");
+        }
+        AtomicInteger state = new AtomicInteger(PENDING);
+        PhaseTimer timer = PhaseTimer.current();
+        long submitted = System.nanoTime();
+        // timeout 0 disables the timeout of the async request, requests with side effects are never abandoned
+        WebAsyncTask<T> asyncTask = new WebAsyncTask<>(idempotent ? timeoutMs : 0L, executor, () -> {
+            if (!state.compareAndSet(PENDING, STARTED)) {
+                return null;
+            }
+            long waited = System.nanoTime() - submitted;
+            queueWait.record(waited, TimeUnit.NANOSECONDS);
+            if (timer != null) {
+                PhaseTimer.attach(timer);
+            }
+            try {
+                if (!idempotent && waited > TimeUnit.MILLISECONDS.toNanos(timeoutMs)) {
+                    timedOut.increment();
+                    throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                            "Request timed out before it was processed, try again later.");
+                }
+                return task.call();
+            } finally {
+                PhaseTimer.end();
+                permits.release();
+            }
+        });
+        asyncTask.onTimeout(() -> {
+            timedOut.increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Request timed out, try again later.");
+        });
+        asyncTask.onCompletion(() -> {
+            if (state.compareAndSet(PENDING, RELEASED)) {
+                permits.release();
+            }
+        });
+        return asyncTask;
+    }
+
+    /**
+     * @return Number of requests which can be admitted right now.
+     */
+    public int getAvailable() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * Stops threads of the bulkhead once running requests are processed.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,77 @@
+package engine.bulkhead;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+
+/**
+ * Configuration of bulkheads isolating groups of endpoints from each other. Every group has its own threads
+ * ("quiz.bulkhead.{group}.threads"), depth of the queue ("quiz.bulkhead.{group}.queue") and timeout
+ * ("quiz.bulkhead.{group}.timeout-ms"), which limits only waiting in the queue for groups of requests with side
+ * effects. Threads of every bulkhead are measured by executor metrics tagged with
+ * name "bulkhead-{group}", waiting in the queue by "quiz.bulkhead.wait" metric, and rejected or timed out requests
+ * are counted by "quiz.requests.rejected" metric.
+ */
+@Configuration
+public class BulkheadConfig {
+
+    /**
+     * @return Bulkheads of all endpoint groups.
+     */
+    @Bean
+    public Bulkheads bulkheads(MeterRegistry meterRegistry, Environment environment) {
+        Map<BulkheadGroup, Bulkhead> bulkheads = new EnumMap<>(BulkheadGroup.class);
+        bulkheads.put(BulkheadGroup.READ, bulkhead(meterRegistry, environment, BulkheadGroup.READ, 32, 200, 5000));
+        bulkheads.put(BulkheadGroup.SOLVE, bulkhead(meterRegistry, environment, BulkheadGroup.SOLVE, 32, 200, 5000));
+        bulkheads.put(BulkheadGroup.WRITE, bulkhead(meterRegistry, environment, BulkheadGroup.WRITE, 8, 50, 10000));
+        bulkheads.put(BulkheadGroup.REGISTER,
+                bulkhead(meterRegistry, environment, BulkheadGroup.REGISTER, 4, 20, 10000));
+        return new Bulkheads(bulkheads);
+    }
+
+    private Bulkhead bulkhead(MeterRegistry meterRegistry, Environment environment, BulkheadGroup group,
+                              int defaultThreads, int defaultQueue, long defaultTimeoutMs) {
+        String prefix = "quiz.bulkhead." + group.getName() + ".";
+        int threads = environment.getProperty(prefix + "threads", Integer.class, defaultThreads);
+        int queue = environment.getProperty(prefix + "queue", Integer.class, defaultQueue);
+        long timeoutMs = environment.getProperty(prefix + "timeout-ms", Long.class, defaultTimeoutMs);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        // the queue of the executor is bounded by permits of the bulkhead
+        executor.setThreadNamePrefix("bulkhead-" + group.getName() + "-");
+        executor.initialize();
+        new ExecutorServiceMetrics(executor.getThreadPoolExecutor(), "bulkhead-" + group.getName(), Tags.empty())
+                .bindTo(meterRegistry);
+        Bulkhead bulkhead = new Bulkhead(executor, threads + queue, timeoutMs, group.isIdempotent(),
+                rejected(meterRegistry, group, "bulkhead"),
+                rejected(meterRegistry, group, "timeout"),
+                Timer.builder("quiz.bulkhead.wait")
+                        .description("Time requests wait in the queue of the bulkhead")
+                        .tag("bulkhead", group.getName())
+                        .register(meterRegistry));
+        Gauge.builder("quiz.bulkhead.available", bulkhead, Bulkhead::getAvailable)
+                .description("Number of requests the bulkhead can admit")
+                .tag("bulkhead", group.getName())
+                .register(meterRegistry);
+        return bulkhead;
+    }
+
+    private Counter rejected(MeterRegistry meterRegistry, BulkheadGroup group, String reason) {
+        return Counter.builder("quiz.requests.rejected")
+                .tag("endpoint", group.getName())
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,52 @@
+package engine.bulkhead;
+
+import java.util.Locale;
+
+
+/**
+ * Groups of endpoints processed by separate bulkheads, so a burst of one class of requests cannot occupy threads
+ * needed by the others.
+ */
+public enum BulkheadGroup {
+    /**
+     * Retrieval of quizzes, completions, leaderboards and activity.
+     */
+    READ(true),
+    /**
+     * Solving of quizzes, the latency-critical path.
+     */
+    SOLVE(false),
+    /**
+     * Creation and deletion of quizzes.
+     */
+    WRITE(false),
+    /**
+     * Registration of users, dominated by password hashing.
+     */
+    REGISTER(false);
+
+    /**
+     * True if requests of the group can be repeated without side effects.
+     */
+    private final boolean idempotent;
+
+
+    BulkheadGroup(boolean idempotent) {
+        this.idempotent = idempotent;
+    }
+
+    /**
+     * @return True if requests of the group can be repeated without side effects, so they may be answered with
+     * an error while they are still processed.
+     */
+    public boolean isIdempotent() {
+        return idempotent;
+    }
+
+    /**
+     * @return Name of the group used in properties and metrics.
+     */
+    public String getName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,42 @@
+package engine.bulkhead;
+
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+
+/**
+ * Bulkheads of all endpoint groups.
+ */
+public class Bulkheads {
+
+    /**
+     * Bulkhead of every group.
+     */
+    private final Map<BulkheadGroup, Bulkhead> bulkheads;
+
+
+    public Bulkheads(Map<BulkheadGroup, Bulkhead> bulkheads) {
+        this.bulkheads = bulkheads;
+    }
+
+    /**
+     * Admits the request into the bulkhead of the group.
+     *
+     * @param group Group of the endpoint.
+     * @param task  Processing of the request.
+     * @param <T>   Type of the result.
+     * @return Task to return from the controller.
+     */
+    public <T> WebAsyncTask<T> submit(BulkheadGroup group, Callable<T> task) {
+        return bulkheads.get(group).submit(task);
+    }
+
+    /**
+     * Stops threads of all bulkheads.
+     */
+    public void close() {
+        bulkheads.values().forEach(Bulkhead::shutdown);
+    }
+}
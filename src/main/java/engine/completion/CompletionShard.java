@@ -0,0 +1,300 @@
+package engine.completion;
+
+import engine.dataobject.DailyActivity;
+import engine.dataobject.QuizCompletion;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+
+/**
+ * Single shard of completions: a separate DB with its own table of completions, accessed with plain JDBC.
+ * Completions are stored along with the name of the user, so no data of the main DB is needed for reading them.
+ * IDs of completions are unique across shards, so completions keep their IDs when moved between shards.
+ */
+public class CompletionShard implements Closeable {
+
+    /**
+     * Maximum number of shards, IDs of completions are made of a sequence number and the index of the shard.
+     */
+    static final int MAX_SHARDS = 1024;
+    private static final String COLUMNS = "id, user_id, username, quiz_id, completed_at";
+    private static final RowMapper<Row> ROW_MAPPER = (rs, rowNum) -> new Row(rs.getLong(1), rs.getInt(2),
+            rs.getString(3), rs.getInt(4), rs.getObject(5, LocalDateTime.class));
+
+    /**
+     * Index of the shard among configured shards.
+     */
+    private final int index;
+    /**
+     * DB of the shard.
+     */
+    private final DataSource dataSource;
+    /**
+     * Runs queries against DB of the shard.
+     */
+    private final JdbcTemplate jdbcTemplate;
+    /**
+     * Runs multi-statement operations in a transaction of DB of the shard.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+
+    public CompletionShard(int index, DataSource dataSource) {
+        this.index = index;
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    /**
+     * Creates tables of the shard if they don't exist yet.
+     */
+    void createSchema() {
+        jdbcTemplate.execute("create table if not exists completion (id bigint primary key, user_id int not null, " +
+                "username varchar(255) not null, quiz_id int not null, completed_at timestamp not null)");
+        jdbcTemplate.execute("create index if not exists completion_user on completion (user_id, completed_at)");
+        jdbcTemplate.execute("create index if not exists completion_quiz on completion (quiz_id)");
+        jdbcTemplate.execute("create sequence if not exists completion_seq");
+        jdbcTemplate.execute("create table if not exists shard_meta (shard_index int not null, " +
+                "shard_count int not null)");
+    }
+
+    /**
+     * @return Number of shards this shard was last balanced for, or null if the shard is new.
+     */
+    Integer recordedCount() {
+        List<Integer> counts = jdbcTemplate.queryForList("select shard_count from shard_meta", Integer.class);
+        return counts.isEmpty() ? null : counts.get(0);
+    }
+
+    /**
+     * @return Index the shard had among shards when it was last balanced, or null if the shard is new.
+     */
+    Integer recordedIndex() {
+        List<Integer> indexes = jdbcTemplate.queryForList("select shard_index from shard_meta", Integer.class);
+        return indexes.isEmpty() ? null : indexes.get(0);
+    }
+
+    /**
+     * Records that the shard is balanced for the number of shards, at its current index.
+     *
+     * @param count Number of shards.
+     */
+    void recordCount(int count) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("delete from shard_meta");
+            jdbcTemplate.update("insert into shard_meta (shard_index, shard_count) values (?, ?)", index, count);
+        });
+    }
+
+    /**
+     * Stores completions of quizzes solved by the user at the same time.
+     *
+     * @param userId      ID of the user.
+     * @param username    Name of the user.
+     * @param quizIds     IDs of solved quizzes.
+     * @param completedAt Date and time when quizzes were solved.
+     */
+    void insert(int userId, String username, List<Integer> quizIds, LocalDateTime completedAt) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Long> sequence = jdbcTemplate.queryForList(
+                    "select next value for completion_seq from system_range(1, ?)", Long.class, quizIds.size());
+            List<Object[]> rows = new ArrayList<>(quizIds.size());
+            for (int i = 0; i < quizIds.size(); i++) {
+                rows.add(new Object[]{sequence.get(i) * MAX_SHARDS + index, userId, username, quizIds.get(i),
+                        completedAt});
+            }
+            jdbcTemplate.batchUpdate("insert into completion (" + COLUMNS + ") values (?, ?, ?, ?, ?)", rows);
+        });
+    }
+
+    /**
+     * @param userId ID of the user.
+     * @param offset Number of completions to skip.
+     * @param limit  Maximum number of returned completions.
+     * @return Completions of the user, from the most recent.
+     */
+    List<QuizCompletion> findByUser(int userId, long offset, int limit) {
+        return jdbcTemplate.query("select quiz_id, completed_at from completion where user_id = ? " +
+                        "order by completed_at desc, id desc limit ? offset ?",
+                (rs, rowNum) -> new QuizCompletion(null, null, rs.getInt(1),
+                        rs.getObject(2, LocalDateTime.class)), userId, limit, offset);
+    }
+
+    /**
+     * @param userId ID of the user.
+     * @return Number of completions of the user.
+     */
+    long countByUser(int userId) {
+        return jdbcTemplate.queryForObject("select count(*) from completion where user_id = ?", Long.class, userId);
+    }
+
+    /**
+     * @param userId ID of the user.
+     * @return IDs of quizzes completed by the user.
+     */
+    Set<Integer> findQuizIdsByUser(int userId) {
+        return new HashSet<>(jdbcTemplate.queryForList("select distinct quiz_id from completion where user_id = ?",
+                Integer.class, userId));
+    }
+
+    /**
+     * @return Number of completions by user IDs.
+     */
+    Map<Integer, Long> countByUserId() {
+        Map<Integer, Long> counts = new HashMap<>();
+        jdbcTemplate.query("select user_id, count(*) from completion group by user_id",
+                rs -> {
+                    counts.put(rs.getInt(1), rs.getLong(2));
+                });
+        return counts;
+    }
+
+    /**
+     * @return Number of completions by every user during every day of activity.
+     */
+    List<DailyActivity> countByUserIdAndDay() {
+        return jdbcTemplate.query("select user_id, cast(completed_at as date), count(*) from completion " +
+                        "group by user_id, cast(completed_at as date)",
+                (rs, rowNum) -> new DailyActivity(rs.getInt(1), rs.getObject(2, LocalDate.class), rs.getLong(3)));
+    }
+
+    /**
+     * @param since Earliest time of completion to count, or null to count all completions.
+     * @return Number of completions by usernames.
+     */
+    Map<String, Long> countByUsername(LocalDateTime since) {
+        Map<String, Long> counts = new HashMap<>();
+        if (since == null) {
+            jdbcTemplate.query("select username, count(*) from completion group by username",
+                    rs -> {
+                        counts.put(rs.getString(1), rs.getLong(2));
+                    });
+        } else {
+            jdbcTemplate.query("select username, count(*) from completion where completed_at >= ? group by username",
+                    rs -> {
+                        counts.put(rs.getString(1), rs.getLong(2));
+                    }, since);
+        }
+        return counts;
+    }
+
+    /**
+     * @param limit Maximum number of returned quizzes.
+     * @return Number of completions of the most solved quizzes by quiz IDs.
+     */
+    Map<Integer, Long> countByQuiz(int limit) {
+        Map<Integer, Long> counts = new HashMap<>();
+        jdbcTemplate.query("select quiz_id, count(*) c from completion group by quiz_id order by c desc limit ?",
+                rs -> {
+                    counts.put(rs.getInt(1), rs.getLong(2));
+                }, limit);
+        return counts;
+    }
+
+    /**
+     * @return IDs of quizzes with completions in the shard.
+     */
+    Set<Integer> findQuizIds() {
+        return new HashSet<>(jdbcTemplate.queryForList("select distinct quiz_id from completion", Integer.class));
+    }
+
+    /**
+     * Removes all completions of the quiz.
+     *
+     * @param quizId ID of the quiz.
+     * @return Removed completions.
+     */
+    List<StoredCompletion> deleteByQuiz(int quizId) {
+        return transactionTemplate.execute(status -> {
+            List<StoredCompletion> removed = jdbcTemplate.query(
+                    "select user_id, username, quiz_id, completed_at from completion where quiz_id = ?",
+                    (rs, rowNum) -> new StoredCompletion(rs.getInt(1), rs.getString(2), rs.getInt(3),
+                            rs.getObject(4, LocalDateTime.class)), quizId);
+            jdbcTemplate.update("delete from completion where quiz_id = ?", quizId);
+            return removed;
+        });
+    }
+
+    /**
+     * @param afterId ID after which rows are returned.
+     * @param limit   Maximum number of returned rows.
+     * @return Rows with IDs greater than provided one, in order of IDs.
+     */
+    List<Row> findAfter(long afterId, int limit) {
+        return jdbcTemplate.query("select " + COLUMNS + " from completion where id > ? order by id limit ?",
+                ROW_MAPPER, afterId, limit);
+    }
+
+    /**
+     * Stores rows moved from another shard, rows which are already stored are overwritten.
+     *
+     * @param rows Rows to store.
+     */
+    void merge(List<Row> rows) {
+        List<Object[]> values = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            values.add(new Object[]{row.id, row.userId, row.username, row.quizId, row.completedAt});
+        }
+        jdbcTemplate.batchUpdate("merge into completion (" + COLUMNS + ") key (id) values (?, ?, ?, ?, ?)", values);
+    }
+
+    /**
+     * Removes rows moved to another shard.
+     *
+     * @param rows Rows to remove.
+     */
+    void delete(List<Row> rows) {
+        List<Object[]> ids = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            ids.add(new Object[]{row.id});
+        }
+        jdbcTemplate.batchUpdate("delete from completion where id = ?", ids);
+    }
+
+    /**
+     * @return Index of the shard among configured shards.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Closes connections to DB of the shard.
+     */
+    @Override
+    public void close() throws IOException {
+        if (dataSource instanceof Closeable) {
+            ((Closeable) dataSource).close();
+        }
+    }
+
+    /**
+     * Completion row as stored in a shard.
+     */
+    static class Row {
+
+        final long id;
+        final int userId;
+        final String username;
+        final int quizId;
+        final LocalDateTime completedAt;
+
+        Row(long id, int userId, String username, int quizId, LocalDateTime completedAt) {
+            this.id = id;
+            this.userId = userId;
+            this.username = username;
+            this.quizId = quizId;
+            this.completedAt = completedAt;
+        }
+    }
+}
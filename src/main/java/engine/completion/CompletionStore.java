@@ -0,0 +1,101 @@
+package engine.completion;
+
+import engine.dataobject.DailyActivity;
+import engine.dataobject.LeaderboardEntry;
+import engine.dataobject.Quiz;
+import engine.dataobject.QuizCompletion;
+import engine.dataobject.User;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ * Storage of records about solved quizzes. Records are stored either in the main DB or sharded by user
+ * across several DBs, see CompletionStoreConfig.
+ */
+public interface CompletionStore {
+
+    /**
+     * Stores completions of quizzes solved by the user at the same time.
+     *
+     * @param user        User who solved quizzes.
+     * @param quizzes     Solved quizzes.
+     * @param completedAt Date and time when quizzes were solved.
+     * @return Number of records added to history of the user.
+     */
+    int add(User user, List<Quiz> quizzes, LocalDateTime completedAt);
+
+    /**
+     * @param user     User by which filtered quiz completions.
+     * @param pageable Specifies offset and size of the page that should be returned.
+     * @return Quiz completions by specified user, sorted by time of completion starting from the most recent.
+     */
+    List<QuizCompletion> findByUser(User user, Pageable pageable);
+
+    /**
+     * @param user User by which filtered quiz completions.
+     * @return Number of quiz completions by specified user.
+     */
+    long countByUser(User user);
+
+    /**
+     * @param user User by which filtered quiz completions.
+     * @return IDs of quizzes completed by specified user.
+     */
+    Set<Integer> findQuizIdsByUser(User user);
+
+    /**
+     * @return Number of quiz completions by ID of every user who has completed at least one quiz.
+     */
+    Map<Integer, Long> countByUserId();
+
+    /**
+     * @return Number of quiz completions by every user during every day of activity.
+     */
+    List<DailyActivity> countByUserIdAndDay();
+
+    /**
+     * @param since Earliest time of completion to count, or null to count all completions.
+     * @return Number of quiz completions of every user who has completed at least one quiz.
+     */
+    List<LeaderboardEntry> countByUsername(LocalDateTime since);
+
+    /**
+     * @param limit Maximum number of returned IDs.
+     * @return IDs of quizzes, from the most solved one.
+     */
+    List<Integer> findMostSolvedQuizIds(int limit);
+
+    /**
+     * @return IDs of quizzes with at least one stored completion.
+     */
+    Set<Integer> findQuizIds();
+
+    /**
+     * Removes all completions of the quiz. Completions which are already removed are skipped, so removal can be
+     * repeated after it has partly failed.
+     *
+     * @param quizId ID of the quiz which completions are removed.
+     * @return Removed completions.
+     */
+    List<StoredCompletion> deleteByQuiz(int quizId);
+
+    /**
+     * @return True if completions are stored in the main DB, so they can be moved into the archive.
+     */
+    default boolean isArchivable() {
+        return false;
+    }
+
+    /**
+     * @return True if completions are written in transactions of the main DB, so they are removed in the same
+     * transaction as their quiz. Otherwise they are removed only after the quiz removal commits.
+     */
+    default boolean isInMainTransaction() {
+        return true;
+    }
+}
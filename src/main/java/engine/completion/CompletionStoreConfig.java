@@ -0,0 +1,93 @@
+package engine.completion;
+
+import engine.repository.QuizCompletionRepository;
+import engine.repository.QuizSolveSummaryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Configuration of the completion store. Completions are stored in the main DB unless shard DBs are configured
+ * with quiz.shards.urls, in which case they are spread across shard DBs by user. With
+ * quiz.completions.full-history=false the main DB keeps a single summary per user and quiz instead of every solution.
+ * Solutions recorded as summaries are not stored as completions, so once summaries exist full history can be turned
+ * back on only by discarding them with quiz.completions.discard-summaries=true.
+ */
+@Configuration
+public class CompletionStoreConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(CompletionStoreConfig.class);
+
+    /**
+     * @return Store of completions: sharded if shard DBs are configured, otherwise the main DB.
+     */
+    @Bean
+    public CompletionStore completionStore(
+            QuizCompletionRepository quizCompletionRepository,
+            QuizSolveSummaryRepository quizSolveSummaryRepository,
+            @Value("${quiz.completions.full-history:true}") boolean fullHistory,
+            @Value("${quiz.completions.discard-summaries:false}") boolean discardSummaries,
+            @Value("${quiz.shards.urls:}") String[] urls,
+            @Value("${quiz.shards.retired-urls:}") String[] retiredUrls,
+            @Value("${quiz.shards.username:${spring.datasource.username:sa}}") String username,
+            @Value("${quiz.shards.password:${spring.datasource.password:}}") String password,
+            @Value("${quiz.shards.rebalance-on-startup:false}") boolean rebalanceOnStartup,
+            @Value("${quiz.shards.rebalance-batch-size:1000}") int rebalanceBatchSize) {
+        if (fullHistory && quizSolveSummaryRepository.count() > 0) {
+            if (!discardSummaries) {
+                throw new IllegalStateException("Solutions recorded with quiz.completions.full-history=false "
+                        + "are kept only in completion summaries, start with quiz.completions.full-history=false or "
+                        + "discard them with quiz.completions.discard-summaries=true");
+            }
+            long discarded = quizSolveSummaryRepository.count();
+            quizSolveSummaryRepository.deleteAllInBatch();
+            log.warn("Discarded {} quiz solve summaries, full history is kept from now on", discarded);
+        }
+        if (urls.length == 0) {
+            if (fullHistory) {
+                return new JpaCompletionStore(quizCompletionRepository);
+            }
+            SummaryCompletionStore store = new SummaryCompletionStore(quizSolveSummaryRepository);
+            int migrated = store.migrateCompletions();
+            if (migrated > 0) {
+                log.info("Created {} quiz solve summaries from stored completions", migrated);
+            }
+            return store;
+        }
+        if (!fullHistory) {
+            throw new IllegalStateException("Completion summaries are kept in the main DB only, "
+                    + "quiz.completions.full-history=false cannot be used with quiz.shards.urls");
+        }
+        List<CompletionShard> shards = shards(urls, 0, username, password);
+        List<CompletionShard> retired = shards(retiredUrls, urls.length, username, password);
+        ShardedCompletionStore store = new ShardedCompletionStore(shards, retired, rebalanceOnStartup,
+                new ShardRebalancer(rebalanceBatchSize));
+        for (CompletionShard shard : retired) {
+            try {
+                shard.close();
+            } catch (Exception ignored) {
+                // retired shard is not used anymore
+            }
+        }
+        return store;
+    }
+
+    private static List<CompletionShard> shards(String[] urls, int firstIndex, String username, String password) {
+        List<CompletionShard> shards = new ArrayList<>(urls.length);
+        for (int i = 0; i < urls.length; i++) {
+            shards.add(new CompletionShard(firstIndex + i, DataSourceBuilder.create()
+                    .url(urls[i].trim())
+                    .username(username)
+                    .password(password)
+                    .build()));
+        }
+        return shards;
+    }
+}
@@ -0,0 +1,114 @@
+package engine.completion;
+
+import engine.dataobject.DailyActivity;
+import engine.dataobject.LeaderboardEntry;
+import engine.dataobject.Quiz;
+import engine.dataobject.QuizCompletion;
+import engine.dataobject.User;
+import engine.repository.QuizCompletionRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.sql.Date;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ * Completion store keeping completions in the main DB, within transactions of the callers.
+ */
+public class JpaCompletionStore implements CompletionStore {
+
+    /**
+     * Providing CRUD methods for QuizCompletion objects.
+     */
+    private final QuizCompletionRepository quizCompletionRepository;
+
+
+    public JpaCompletionStore(QuizCompletionRepository quizCompletionRepository) {
+        this.quizCompletionRepository = quizCompletionRepository;
+    }
+
+    @Override
+    public int add(User user, List<Quiz> quizzes, LocalDateTime completedAt) {
+        if (quizzes.size() == 1) {
+            quizCompletionRepository.save(new QuizCompletion(quizzes.get(0), user, quizzes.get(0).getId(),
+                    completedAt));
+            return 1;
+        }
+        List<QuizCompletion> completions = new ArrayList<>(quizzes.size());
+        for (Quiz quiz : quizzes) {
+            completions.add(new QuizCompletion(quiz, user, quiz.getId(), completedAt));
+        }
+        quizCompletionRepository.saveAll(completions);
+        return completions.size();
+    }
+
+    @Override
+    public List<QuizCompletion> findByUser(User user, Pageable pageable) {
+        return quizCompletionRepository.findSliceByUser(user, pageable).getContent();
+    }
+
+    @Override
+    public long countByUser(User user) {
+        return quizCompletionRepository.countByUser(user);
+    }
+
+    @Override
+    public Set<Integer> findQuizIdsByUser(User user) {
+        return new HashSet<>(quizCompletionRepository.findQuizIdsByUser(user));
+    }
+
+    @Override
+    public Map<Integer, Long> countByUserId() {
+        Map<Integer, Long> counts = new HashMap<>();
+        for (Object[] row : quizCompletionRepository.countCompletionsByUserId()) {
+            counts.put((Integer) row[0], (Long) row[1]);
+        }
+        return counts;
+    }
+
+    @Override
+    public List<DailyActivity> countByUserIdAndDay() {
+        List<DailyActivity> activity = new ArrayList<>();
+        for (Object[] row : quizCompletionRepository.countCompletionsByUserIdAndDay()) {
+            activity.add(new DailyActivity((Integer) row[0], ((Date) row[1]).toLocalDate(),
+                    ((Number) row[2]).longValue()));
+        }
+        return activity;
+    }
+
+    @Override
+    public List<LeaderboardEntry> countByUsername(LocalDateTime since) {
+        return since == null
+                ? quizCompletionRepository.countCompletionsByUser()
+                : quizCompletionRepository.countCompletionsByUserSince(since);
+    }
+
+    @Override
+    public List<Integer> findMostSolvedQuizIds(int limit) {
+        return quizCompletionRepository.findMostSolvedQuizIds(PageRequest.of(0, limit));
+    }
+
+    @Override
+    public Set<Integer> findQuizIds() {
+        return new HashSet<>(quizCompletionRepository.findQuizIds());
+    }
+
+    @Override
+    public List<StoredCompletion> deleteByQuiz(int quizId) {
+        List<StoredCompletion> removed = quizCompletionRepository.findStoredByQuizId(quizId);
+        quizCompletionRepository.deleteByQuizId(quizId);
+        return removed;
+    }
+
+    @Override
+    public boolean isArchivable() {
+        return true;
+    }
+}
@@ -0,0 +1,72 @@
+package engine.completion;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Moves completions between shards after the number of shards was changed. Every completion is copied into the
+ * shard of its user under the new number of shards, then removed from the old one. Copying overwrites rows with
+ * the same ID, so interrupted rebalancing is completed by running it again.
+ */
+public class ShardRebalancer {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardRebalancer.class);
+
+    /**
+     * Number of rows moved at once.
+     */
+    private final int batchSize;
+
+
+    public ShardRebalancer(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Moves every completion of the sources which doesn't belong to them into its target shard.
+     *
+     * @param targets Shards in configured order, completions are routed among them.
+     * @param retired Shards being removed, all their completions are moved into targets.
+     * @return Number of moved completions.
+     */
+    public long rebalance(List<CompletionShard> targets, List<CompletionShard> retired) {
+        List<CompletionShard> sources = new ArrayList<>(targets);
+        sources.addAll(retired);
+        long moved = 0;
+        for (CompletionShard source : sources) {
+            long sourceMoved = 0;
+            long afterId = 0;
+            List<CompletionShard.Row> rows;
+            do {
+                rows = source.findAfter(afterId, batchSize);
+                Map<CompletionShard, List<CompletionShard.Row>> byTarget = new HashMap<>();
+                for (CompletionShard.Row row : rows) {
+                    CompletionShard target = targets.get(ShardedCompletionStore.shardOf(row.userId, targets.size()));
+                    if (target != source) {
+                        byTarget.computeIfAbsent(target, shard -> new ArrayList<>()).add(row);
+                    }
+                }
+                for (Map.Entry<CompletionShard, List<CompletionShard.Row>> entry : byTarget.entrySet()) {
+                    entry.getKey().merge(entry.getValue());
+                    source.delete(entry.getValue());
+                    sourceMoved += entry.getValue().size();
+                }
+                if (!rows.isEmpty()) {
+                    afterId = rows.get(rows.size() - 1).id;
+                }
+            } while (rows.size() == batchSize);
+            log.info("Moved {} completions out of shard {}", sourceMoved, source.getIndex());
+            moved += sourceMoved;
+        }
+        for (CompletionShard target : targets) {
+            target.recordCount(targets.size());
+        }
+        return moved;
+    }
+}
@@ -0,0 +1,259 @@
+package engine.completion;
+
+import engine.dataobject.DailyActivity;
+import engine.dataobject.LeaderboardEntry;
+import engine.dataobject.Quiz;
+import engine.dataobject.QuizCompletion;
+import engine.dataobject.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Pageable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+
+/**
+ * Completion store spreading completions across several DBs by a hash of user ID. Operations of a single user go
+ * to the shard of the user, operations over all completions run on all shards in parallel and merge their results.
+ * Completions are written in transactions of the shards, separate from transactions of the main DB.
+ */
+public class ShardedCompletionStore implements CompletionStore, Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardedCompletionStore.class);
+
+    /**
+     * Shards in configured order.
+     */
+    private final List<CompletionShard> shards;
+    /**
+     * Runs operations on all shards in parallel.
+     */
+    private final ExecutorService executor;
+
+
+    /**
+     * Creates tables of shards and checks that shards are balanced for their number and their order. Rebalances
+     * shards if allowed, otherwise refuses to start, as completions of some users would be looked for in wrong
+     * shards. Always refuses to start if shards of the previous configuration are missing, as their completions
+     * would be lost.
+     *
+     * @param shards             Shards in configured order.
+     * @param retired            Shards being removed, their completions are moved into the other shards.
+     * @param rebalanceOnStartup True if shards may be rebalanced at startup.
+     * @param rebalancer         Tool moving completions between shards.
+     */
+    public ShardedCompletionStore(List<CompletionShard> shards, List<CompletionShard> retired,
+                                  boolean rebalanceOnStartup, ShardRebalancer rebalancer) {
+        if (shards.isEmpty() || shards.size() > CompletionShard.MAX_SHARDS) {
+            throw new IllegalArgumentException("Number of completion shards should be from 1 to "
+                    + CompletionShard.MAX_SHARDS);
+        }
+        this.shards = new ArrayList<>(shards);
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(shards.size(), runnable -> {
+            Thread thread = new Thread(runnable, "completion-shard-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        shards.forEach(CompletionShard::createSchema);
+        retired.forEach(CompletionShard::createSchema);
+        checkPreviousShards(shards, retired);
+        boolean balanced = retired.isEmpty();
+        for (int i = 0; i < shards.size() && balanced; i++) {
+            CompletionShard shard = shards.get(i);
+            balanced = shard.recordedCount() == null
+                    || shard.recordedCount() == shards.size() && shard.recordedIndex() == i;
+        }
+        if (!balanced) {
+            if (!rebalanceOnStartup) {
+                throw new IllegalStateException("Completion shards are not balanced for " + shards.size()
+                        + " shards in configured order, start with quiz.shards.rebalance-on-startup=true "
+                        + "to move completions");
+            }
+            log.info("Moved {} completions between shards", rebalancer.rebalance(shards, retired));
+        }
+        shards.forEach(shard -> shard.recordCount(shards.size()));
+    }
+
+    /**
+     * Checks that shards of the previous configuration are all present, either configured or retired, and that
+     * none of them is configured twice. Shards already balanced for the new number of shards by an interrupted
+     * or completed rebalancing are not part of the previous configuration, and the previous configuration cannot
+     * be verified to be complete while there are such shards.
+     *
+     * @param shards  Shards in configured order.
+     * @param retired Shards being removed.
+     */
+    private static void checkPreviousShards(List<CompletionShard> shards, List<CompletionShard> retired) {
+        List<CompletionShard> all = new ArrayList<>(shards);
+        all.addAll(retired);
+        Integer previousCount = null;
+        boolean rebalanced = false;
+        Map<Integer, Set<Integer>> indexes = new HashMap<>();
+        for (CompletionShard shard : all) {
+            Integer count = shard.recordedCount();
+            if (count == null) {
+                continue;
+            }
+            if (count == shards.size()) {
+                rebalanced = true;
+            } else if (previousCount == null) {
+                previousCount = count;
+            } else if (!previousCount.equals(count)) {
+                throw new IllegalStateException("Completion shards were balanced for different numbers of shards, "
+                        + previousCount + " and " + count);
+            }
+            Integer index = shard.recordedIndex();
+            if (index < 0 || index >= count || !indexes.computeIfAbsent(count, key -> new HashSet<>()).add(index)) {
+                throw new IllegalStateException("Completion shard " + index + " of " + count
+                        + " is configured twice or doesn't belong to any configuration");
+            }
+        }
+        int count = previousCount != null ? previousCount : shards.size();
+        if (previousCount != null && rebalanced || !indexes.containsKey(count)) {
+            return;
+        }
+        List<Integer> missing = new ArrayList<>();
+        for (int index = 0; index < count; index++) {
+            if (!indexes.get(count).contains(index)) {
+                missing.add(index);
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Completion shards " + missing + " of previous " + count
+                    + " shards are not configured, list shards being removed in quiz.shards.retired-urls");
+        }
+    }
+
+    /**
+     * @param userId ID of the user.
+     * @param count  Number of shards.
+     * @return Index of the shard storing completions of the user.
+     */
+    static int shardOf(int userId, int count) {
+        int hash = userId * 0x9E3779B9;
+        return Math.floorMod(hash ^ (hash >>> 16), count);
+    }
+
+    @Override
+    public int add(User user, List<Quiz> quizzes, LocalDateTime completedAt) {
+        shard(user).insert(user.getId(), user.getUsername(),
+                quizzes.stream().map(Quiz::getId).collect(Collectors.toList()), completedAt);
+        return quizzes.size();
+    }
+
+    @Override
+    public List<QuizCompletion> findByUser(User user, Pageable pageable) {
+        return shard(user).findByUser(user.getId(), pageable.getOffset(), pageable.getPageSize());
+    }
+
+    @Override
+    public long countByUser(User user) {
+        return shard(user).countByUser(user.getId());
+    }
+
+    @Override
+    public Set<Integer> findQuizIdsByUser(User user) {
+        return shard(user).findQuizIdsByUser(user.getId());
+    }
+
+    @Override
+    public Map<Integer, Long> countByUserId() {
+        Map<Integer, Long> counts = new HashMap<>();
+        fanOut(CompletionShard::countByUserId).forEach(shardCounts -> shardCounts.forEach(
+                (userId, count) -> counts.merge(userId, count, Long::sum)));
+        return counts;
+    }
+
+    /**
+     * Every user is stored in a single shard, so activity of shards is concatenated.
+     */
+    @Override
+    public List<DailyActivity> countByUserIdAndDay() {
+        return fanOut(CompletionShard::countByUserIdAndDay).stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<LeaderboardEntry> countByUsername(LocalDateTime since) {
+        Map<String, Long> counts = new HashMap<>();
+        fanOut(shard -> shard.countByUsername(since)).forEach(shardCounts -> shardCounts.forEach(
+                (username, count) -> counts.merge(username, count, Long::sum)));
+        return counts.entrySet().stream()
+                .map(entry -> new LeaderboardEntry(entry.getKey(), entry.getValue()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Merges the most solved quizzes of every shard, so quizzes solved moderately on every shard may be missed.
+     */
+    @Override
+    public List<Integer> findMostSolvedQuizIds(int limit) {
+        Map<Integer, Long> counts = new HashMap<>();
+        fanOut(shard -> shard.countByQuiz(limit)).forEach(shardCounts -> shardCounts.forEach(
+                (quizId, count) -> counts.merge(quizId, count, Long::sum)));
+        return counts.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Long>comparingByValue().reversed())
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Set<Integer> findQuizIds() {
+        Set<Integer> quizIds = new HashSet<>();
+        fanOut(CompletionShard::findQuizIds).forEach(quizIds::addAll);
+        return quizIds;
+    }
+
+    /**
+     * Every shard removes completions in its own transaction, so completions are removed from some shards even
+     * if other shards fail, and removal is repeated by QuizCompletionService.deleteOrphanCompletions.
+     */
+    @Override
+    public List<StoredCompletion> deleteByQuiz(int quizId) {
+        return fanOut(shard -> shard.deleteByQuiz(quizId)).stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Shards are written in their own transactions.
+     */
+    @Override
+    public boolean isInMainTransaction() {
+        return false;
+    }
+
+    /**
+     * Stops threads and closes connections to DBs of shards.
+     */
+    @Override
+    public void close() throws IOException {
+        executor.shutdown();
+        for (CompletionShard shard : shards) {
+            shard.close();
+        }
+    }
+
+    private CompletionShard shard(User user) {
+        return shards.get(shardOf(user.getId(), shards.size()));
+    }
+
+    private <T> List<T> fanOut(Function<CompletionShard, T> operation) {
+        List<CompletableFuture<T>> futures = shards.stream()
+                .map(shard -> CompletableFuture.supplyAsync(() -> operation.apply(shard), executor))
+                .collect(Collectors.toList());
+        return futures.stream().map(CompletableFuture::join).collect(Collectors.toList());
+    }
+}
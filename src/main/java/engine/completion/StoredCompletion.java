@@ -0,0 +1,91 @@
+package engine.completion;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+
+/**
+ * Quiz completion as stored in a completion store, along with ID and name of the user.
+ */
+public class StoredCompletion {
+
+    /**
+     * ID of the user who solved the quiz.
+     */
+    private final int userId;
+    /**
+     * Name of the user who solved the quiz.
+     */
+    private final String username;
+    /**
+     * ID of the solved quiz.
+     */
+    private final int quizId;
+    /**
+     * Date and time when quiz was solved.
+     */
+    private final LocalDateTime completedAt;
+    /**
+     * Number of solutions represented by the completion, more than one for deduplicated completions, which are
+     * solved the last time at completedAt.
+     */
+    private final long solves;
+
+
+    public StoredCompletion(int userId, String username, int quizId, LocalDateTime completedAt) {
+        this(userId, username, quizId, completedAt, 1);
+    }
+
+    public StoredCompletion(int userId, String username, int quizId, LocalDateTime completedAt, long solves) {
+        this.userId = userId;
+        this.username = username;
+        this.quizId = quizId;
+        this.completedAt = completedAt;
+        this.solves = solves;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public int getQuizId() {
+        return quizId;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public long getSolves() {
+        return solves;
+    }
+
+    /**
+     * @return True if the completion is a single solution made at completedAt, false for deduplicated completions,
+     * whose earlier solutions were made at unknown times.
+     */
+    public boolean isSingleSolve() {
+        return solves == 1;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof StoredCompletion)) return false;
+        StoredCompletion that = (StoredCompletion) o;
+        return userId == that.userId &&
+                quizId == that.quizId &&
+                solves == that.solves &&
+                Objects.equals(username, that.username) &&
+                Objects.equals(completedAt, that.completedAt);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, username, quizId, completedAt, solves);
+    }
+}
@@ -0,0 +1,129 @@
+package engine.completion;
+
+import engine.dataobject.DailyActivity;
+import engine.dataobject.LeaderboardEntry;
+import engine.dataobject.Quiz;
+import engine.dataobject.QuizCompletion;
+import engine.dataobject.QuizSolveSummary;
+import engine.dataobject.User;
+import engine.repository.QuizSolveSummaryRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.sql.Date;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ * Completion store keeping a single summary per user and quiz in the main DB instead of a record of every solution.
+ * History of a user lists every solved quiz once, with times of the first and the last solution and number of
+ * solutions. Time of every solution is not kept, so counts since a time take quizzes solved the last time since then.
+ */
+public class SummaryCompletionStore implements CompletionStore {
+
+    /**
+     * Providing CRUD methods for QuizSolveSummary objects.
+     */
+    private final QuizSolveSummaryRepository quizSolveSummaryRepository;
+
+
+    public SummaryCompletionStore(QuizSolveSummaryRepository quizSolveSummaryRepository) {
+        this.quizSolveSummaryRepository = quizSolveSummaryRepository;
+    }
+
+    /**
+     * Creates summaries from completions stored while full history was kept, unless summaries already exist.
+     * Full history cannot be turned back on while summaries exist, so no completions are stored after summaries
+     * were created and existing summaries already include all of them.
+     *
+     * @return Number of created summaries.
+     */
+    public int migrateCompletions() {
+        return quizSolveSummaryRepository.count() > 0 ? 0 : quizSolveSummaryRepository.insertFromCompletions();
+    }
+
+    @Override
+    public int add(User user, List<Quiz> quizzes, LocalDateTime completedAt) {
+        int added = 0;
+        for (Quiz quiz : quizzes) {
+            if (quizSolveSummaryRepository.upsert(user.getId(), quiz.getId(), completedAt) == 1) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    @Override
+    public List<QuizCompletion> findByUser(User user, Pageable pageable) {
+        List<QuizCompletion> completions = new ArrayList<>(pageable.getPageSize());
+        for (QuizSolveSummary summary : quizSolveSummaryRepository.findSliceByUser(user.getId(), pageable)) {
+            QuizCompletion completion = new QuizCompletion(null, null, summary.getQuizId(), summary.getLastSolvedAt());
+            completion.setFirstCompletedAt(summary.getFirstSolvedAt());
+            completion.setSolves(summary.getSolves());
+            completions.add(completion);
+        }
+        return completions;
+    }
+
+    @Override
+    public long countByUser(User user) {
+        return quizSolveSummaryRepository.countByUser(user.getId());
+    }
+
+    @Override
+    public Set<Integer> findQuizIdsByUser(User user) {
+        return new HashSet<>(quizSolveSummaryRepository.findQuizIdsByUser(user.getId()));
+    }
+
+    @Override
+    public Map<Integer, Long> countByUserId() {
+        Map<Integer, Long> counts = new HashMap<>();
+        for (Object[] row : quizSolveSummaryRepository.countSummariesByUserId()) {
+            counts.put((Integer) row[0], (Long) row[1]);
+        }
+        return counts;
+    }
+
+    /**
+     * Solutions are counted on the day of the last solution of every quiz.
+     */
+    @Override
+    public List<DailyActivity> countByUserIdAndDay() {
+        List<DailyActivity> activity = new ArrayList<>();
+        for (Object[] row : quizSolveSummaryRepository.countSolvesByUserIdAndDay()) {
+            activity.add(new DailyActivity((Integer) row[0], ((Date) row[1]).toLocalDate(),
+                    ((Number) row[2]).longValue()));
+        }
+        return activity;
+    }
+
+    @Override
+    public List<LeaderboardEntry> countByUsername(LocalDateTime since) {
+        return since == null
+                ? quizSolveSummaryRepository.countSolvesByUser()
+                : quizSolveSummaryRepository.countSolvesByUserSince(since);
+    }
+
+    @Override
+    public List<Integer> findMostSolvedQuizIds(int limit) {
+        return quizSolveSummaryRepository.findMostSolvedQuizIds(PageRequest.of(0, limit));
+    }
+
+    @Override
+    public Set<Integer> findQuizIds() {
+        return new HashSet<>(quizSolveSummaryRepository.findQuizIds());
+    }
+
+    @Override
+    public List<StoredCompletion> deleteByQuiz(int quizId) {
+        List<StoredCompletion> removed = quizSolveSummaryRepository.findStoredByQuiz(quizId);
+        quizSolveSummaryRepository.deleteByQuizId(quizId);
+        return removed;
+    }
+}
@@ -0,0 +1,71 @@
+package engine.dataobject;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Converts list of indexes of correct answers into bit mask stored in a single integer column, bit N is set
+ * if option N is correct. Only answers with strictly ascending indexes from 0 to 63 can be converted, since the mask
+ * keeps neither order nor duplicates of indexes.
+ */
+@Converter
+public class AnswerMaskConverter implements AttributeConverter<List<Integer>, Long> {
+
+    /**
+     * @param answer List of indexes of correct answers.
+     * @return True if answer is restored from the mask exactly as it is.
+     */
+    public static boolean canConvert(List<Integer> answer) {
+        if (answer == null) {
+            return true;
+        }
+        int previous = -1;
+        for (Integer index : answer) {
+            if (index == null || index <= previous || index >= Long.SIZE) {
+                return false;
+            }
+            previous = index;
+        }
+        return true;
+    }
+
+    /**
+     * @param answer List of indexes of correct answers which can be converted.
+     * @return Bit mask of the answer.
+     */
+    public static long toMask(List<Integer> answer) {
+        long mask = 0;
+        if (answer != null) {
+            for (int index : answer) {
+                mask |= 1L << index;
+            }
+        }
+        return mask;
+    }
+
+    @Override
+    public Long convertToDatabaseColumn(List<Integer> answer) {
+        if (answer == null) {
+            return null;
+        }
+        if (!canConvert(answer)) {
+            throw new IllegalArgumentException("Answer cannot be stored as bit mask: " + answer);
+        }
+        return toMask(answer);
+    }
+
+    @Override
+    public List<Integer> convertToEntityAttribute(Long mask) {
+        if (mask == null) {
+            return null;
+        }
+        List<Integer> answer = new ArrayList<>(Long.bitCount(mask));
+        for (long bits = mask; bits != 0; bits &= bits - 1) {
+            answer.add(Long.numberOfTrailingZeros(bits));
+        }
+        return answer;
+    }
+}
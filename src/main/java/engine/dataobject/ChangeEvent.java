@@ -0,0 +1,127 @@
+package engine.dataobject;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+
+/**
+ * Class represents entity change stored in the outbox table, so other instances of the application sharing
+ * the same DB can apply the change to their in-memory state. Stored in the same transaction as the change itself,
+ * along with the number of the change in the shared change sequence.
+ */
+@Entity
+@Table(indexes = {@Index(columnList = "createdAt"), @Index(columnList = "sequenceNumber", unique = true)})
+public class ChangeEvent {
+
+    /**
+     * Entity ID, primary key of the table, generated automatically.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column
+    private Long id;
+    /**
+     * ID of the instance of the application which made the change.
+     */
+    @Column(length = 36)
+    private String origin;
+    /**
+     * Type of the change.
+     */
+    @Column(length = 32)
+    private String type;
+    /**
+     * ID of the changed entity.
+     */
+    @Column
+    private int entityId;
+    /**
+     * Number of the change in the shared change sequence, changes are committed in order of their numbers.
+     */
+    @Column
+    private long sequenceNumber;
+    /**
+     * Date and time of the change by the clock of the origin.
+     */
+    @Column
+    private LocalDateTime createdAt;
+
+
+    public ChangeEvent() {
+    }
+
+    public ChangeEvent(String origin, String type, int entityId, long sequenceNumber, LocalDateTime createdAt) {
+        this.origin = origin;
+        this.type = type;
+        this.entityId = entityId;
+        this.sequenceNumber = sequenceNumber;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public void setOrigin(String origin) {
+        this.origin = origin;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public int getEntityId() {
+        return entityId;
+    }
+
+    public void setEntityId(int entityId) {
+        this.entityId = entityId;
+    }
+
+    public long getSequenceNumber() {
+        return sequenceNumber;
+    }
+
+    public void setSequenceNumber(long sequenceNumber) {
+        this.sequenceNumber = sequenceNumber;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ChangeEvent)) return false;
+        ChangeEvent that = (ChangeEvent) o;
+        return entityId == that.entityId &&
+                sequenceNumber == that.sequenceNumber &&
+                Objects.equals(id, that.id) &&
+                Objects.equals(origin, that.origin) &&
+                Objects.equals(type, that.type) &&
+                Objects.equals(createdAt, that.createdAt);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, origin, type, entityId, sequenceNumber, createdAt);
+    }
+}
@@ -0,0 +1,67 @@
+package engine.dataobject;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.util.Objects;
+
+
+/**
+ * Class represents sequence of changes shared by all instances of the application through the DB. Every change is
+ * numbered by incrementing the sequence within the transaction making the change. The row stays locked until
+ * the transaction ends, so changes are numbered in order of their commits and without gaps.
+ */
+@Entity
+public class ChangeSequence {
+
+    /**
+     * Name of the sequence, primary key of the table.
+     */
+    @Id
+    @Column
+    private String name;
+    /**
+     * Number of the latest change.
+     */
+    @Column
+    private long value;
+
+
+    public ChangeSequence() {
+    }
+
+    public ChangeSequence(String name, long value) {
+        this.name = name;
+        this.value = value;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getValue() {
+        return value;
+    }
+
+    public void setValue(long value) {
+        this.value = value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ChangeSequence)) return false;
+        ChangeSequence that = (ChangeSequence) o;
+        return value == that.value &&
+                Objects.equals(name, that.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, value);
+    }
+}
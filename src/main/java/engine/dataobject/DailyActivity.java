@@ -0,0 +1,88 @@
+package engine.dataobject;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import java.time.LocalDate;
+import java.util.Objects;
+
+
+/**
+ * Class represents number of quizzes solved by a user during a day. Rollups are changed in the same transaction
+ * as completions are stored or removed, so activity is read without grouping completions of the user.
+ */
+@Entity
+@IdClass(DailyActivityId.class)
+public class DailyActivity {
+
+    /**
+     * ID of the user.
+     */
+    @Id
+    @Column
+    @JsonIgnore
+    private Integer userId;
+    /**
+     * Day of activity, first day of the week for weekly activity.
+     */
+    @Id
+    @Column(name = "activity_day")
+    private LocalDate day;
+    /**
+     * Number of quizzes solved by the user during the day.
+     */
+    @Column
+    private long solves;
+
+
+    public DailyActivity() {
+    }
+
+    public DailyActivity(Integer userId, LocalDate day, long solves) {
+        this.userId = userId;
+        this.day = day;
+        this.solves = solves;
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Integer userId) {
+        this.userId = userId;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public void setDay(LocalDate day) {
+        this.day = day;
+    }
+
+    public long getSolves() {
+        return solves;
+    }
+
+    public void setSolves(long solves) {
+        this.solves = solves;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DailyActivity)) return false;
+        DailyActivity that = (DailyActivity) o;
+        return solves == that.solves &&
+                Objects.equals(userId, that.userId) &&
+                Objects.equals(day, that.day);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, day, solves);
+    }
+}
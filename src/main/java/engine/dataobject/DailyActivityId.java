@@ -0,0 +1,60 @@
+package engine.dataobject;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+
+/**
+ * Class represents primary key of DailyActivity: ID of the user and the day.
+ */
+public class DailyActivityId implements Serializable {
+
+    /**
+     * ID of the user.
+     */
+    private Integer userId;
+    /**
+     * Day of activity.
+     */
+    private LocalDate day;
+
+
+    public DailyActivityId() {
+    }
+
+    public DailyActivityId(Integer userId, LocalDate day) {
+        this.userId = userId;
+        this.day = day;
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Integer userId) {
+        this.userId = userId;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public void setDay(LocalDate day) {
+        this.day = day;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DailyActivityId)) return false;
+        DailyActivityId that = (DailyActivityId) o;
+        return Objects.equals(userId, that.userId) &&
+                Objects.equals(day, that.day);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, day);
+    }
+}
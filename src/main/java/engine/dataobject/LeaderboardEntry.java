@@ -0,0 +1,57 @@
+package engine.dataobject;
+
+import java.util.Objects;
+
+
+/**
+ * Class represents position of a user on the leaderboard: name of the user and number of quizzes solved by him.
+ */
+public class LeaderboardEntry {
+
+    /**
+     * Name of the user, same as email.
+     */
+    private String username;
+    /**
+     * Number of correct solutions submitted by the user.
+     */
+    private long solved;
+
+    public LeaderboardEntry() {
+    }
+
+    public LeaderboardEntry(String username, Long solved) {
+        this.username = username;
+        this.solved = solved;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public long getSolved() {
+        return solved;
+    }
+
+    public void setSolved(long solved) {
+        this.solved = solved;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof LeaderboardEntry)) return false;
+        LeaderboardEntry that = (LeaderboardEntry) o;
+        return solved == that.solved &&
+                Objects.equals(username, that.username);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(username, solved);
+    }
+}
@@ -0,0 +1,66 @@
+package engine.dataobject;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.util.Objects;
+
+
+/**
+ * Class represents maintained number of records in a listing, such as all quizzes or completions of specific user.
+ * Used as total number of records of paged listings instead of counting records on every request.
+ */
+@Entity
+public class ListingCounter {
+
+    /**
+     * Name of the listing, primary key of the table.
+     */
+    @Id
+    @Column
+    private String name;
+    /**
+     * Number of records in the listing.
+     */
+    @Column
+    private long value;
+
+
+    public ListingCounter() {
+    }
+
+    public ListingCounter(String name, long value) {
+        this.name = name;
+        this.value = value;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getValue() {
+        return value;
+    }
+
+    public void setValue(long value) {
+        this.value = value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ListingCounter)) return false;
+        ListingCounter that = (ListingCounter) o;
+        return value == that.value &&
+                Objects.equals(name, that.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, value);
+    }
+}
@@ -0,0 +1,45 @@
+package engine.dataobject;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+import java.util.List;
+
+
+/**
+ * Converts list of quiz options into JSON array stored in a single column.
+ */
+@Converter
+public class OptionsConverter implements AttributeConverter<List<String>, String> {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final TypeReference<List<String>> OPTIONS_TYPE = new TypeReference<List<String>>() {
+    };
+
+    @Override
+    public String convertToDatabaseColumn(List<String> options) {
+        if (options == null) {
+            return null;
+        }
+        try {
+            return OBJECT_MAPPER.writeValueAsString(options);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot convert options to JSON", e);
+        }
+    }
+
+    @Override
+    public List<String> convertToEntityAttribute(String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return OBJECT_MAPPER.readValue(json, OPTIONS_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot read options from JSON", e);
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package engine.dataobject;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonProperty.Access;
+import org.hibernate.annotations.BatchSize;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
 
@@ -42,21 +44,53 @@ public class Quiz {
     @NotBlank
     private String text;
     /**
-     * Ordered list of possible answers to quiz.
+     * Ordered list of possible answers to quiz. Stored either in options column or in quiz_options table.
      */
-    @Column
-    @ElementCollection
+    @Transient
     @NotNull
     @Size(min = 2)
     private List<String> options;
     /**
-     * List of indexes of correct answers corresponding list of options.
+     * List of indexes of correct answers corresponding list of options. Stored either in answer_mask column
+     * or in quiz_answer table.
      */
-    @Column
-    @ElementCollection
+    @Transient
     @JsonProperty(access = Access.WRITE_ONLY)
     @Nullable
     private List<Integer> answer;
+    /**
+     * Options stored in a single column as JSON array, null if quiz uses row storage.
+     */
+    @Column(name = "options_data", length = 100000)
+    @Convert(converter = OptionsConverter.class)
+    @JsonIgnore
+    private List<String> compactOptions;
+    /**
+     * Answer stored in a single column as bit mask, null if quiz uses row storage or answer cannot be stored
+     * as bit mask.
+     */
+    @Column(name = "answer_mask")
+    @Convert(converter = AnswerMaskConverter.class)
+    @JsonIgnore
+    private List<Integer> compactAnswer;
+    /**
+     * Options stored one row per option, empty if quiz uses compact storage.
+     */
+    @ElementCollection
+    @CollectionTable(name = "quiz_options", joinColumns = @JoinColumn(name = "quiz_id"))
+    @Column(name = "options")
+    @BatchSize(size = 100)
+    @JsonIgnore
+    private List<String> storedOptions;
+    /**
+     * Answer stored one row per index, empty if answer is stored as bit mask.
+     */
+    @ElementCollection
+    @CollectionTable(name = "quiz_answer", joinColumns = @JoinColumn(name = "quiz_id"))
+    @Column(name = "answer")
+    @BatchSize(size = 100)
+    @JsonIgnore
+    private List<Integer> storedAnswer;
 
 
     public Quiz() {
@@ -94,6 +128,9 @@ public class Quiz {
     }
 
     public List<String> getOptions() {
+        if (options == null) {
+            options = compactOptions != null ? compactOptions : storedOptions;
+        }
         return options;
     }
 
@@ -102,6 +139,9 @@ public class Quiz {
     }
 
     public List<Integer> getAnswer() {
+        if (answer == null) {
+            answer = compactAnswer != null ? compactAnswer : storedAnswer;
+        }
         return answer;
     }
 
@@ -109,6 +149,52 @@ public class Quiz {
         this.answer = answer;
     }
 
+    /**
+     * @return True if options of the quiz are stored in a single column.
+     */
+    @JsonIgnore
+    public boolean isCompact() {
+        return compactOptions != null;
+    }
+
+    /**
+     * Moves options and answer into single columns, leaving answer in rows only if it cannot be stored as bit mask.
+     * Can be applied both to new and to already stored quizzes.
+     */
+    public void useCompactStorage() {
+        List<String> currentOptions = getOptions() == null ? new ArrayList<>() : new ArrayList<>(getOptions());
+        List<Integer> currentAnswer = getAnswer() == null ? null : new ArrayList<>(getAnswer());
+        compactOptions = currentOptions;
+        storedOptions = emptied(storedOptions);
+        if (AnswerMaskConverter.canConvert(currentAnswer)) {
+            compactAnswer = currentAnswer == null ? new ArrayList<>() : currentAnswer;
+            storedAnswer = emptied(storedAnswer);
+        } else if (storedAnswer == null) {
+            storedAnswer = currentAnswer;
+        }
+        options = currentOptions;
+        answer = currentAnswer;
+    }
+
+    /**
+     * Stores new quiz one row per option and answer index unless compact storage was chosen.
+     */
+    @PrePersist
+    private void useRowStorageByDefault() {
+        if (compactOptions == null && storedOptions == null) {
+            storedOptions = options;
+            storedAnswer = answer;
+        }
+    }
+
+    private static <T> List<T> emptied(List<T> list) {
+        if (list == null) {
+            return new ArrayList<>();
+        }
+        list.clear();
+        return list;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -117,12 +203,12 @@ public class Quiz {
         return id == quiz.id &&
                 Objects.equals(title, quiz.title) &&
                 Objects.equals(text, quiz.text) &&
-                Objects.equals(options, quiz.options) &&
-                Objects.equals(answer, quiz.answer);
+                Objects.equals(getOptions(), quiz.getOptions()) &&
+                Objects.equals(getAnswer(), quiz.getAnswer());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, title, text, options, answer);
+        return Objects.hash(id, title, text, getOptions(), getAnswer());
     }
 }
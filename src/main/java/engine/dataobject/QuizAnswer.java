@@ -0,0 +1,47 @@
+package engine.dataobject;
+
+import java.util.ArrayList;
+import java.util.Objects;
+
+
+/**
+ * Class represents the answer for specific quiz, submitted as a part of the batch accepted by answerQuizzes method
+ * of WebQuizRestController.
+ */
+public class QuizAnswer extends Answer {
+
+    /**
+     * ID of the quiz to which answer is submitted.
+     */
+    private Integer quizId;
+
+    public QuizAnswer() {
+    }
+
+    public QuizAnswer(Integer quizId, ArrayList<Integer> answer) {
+        super(answer);
+        this.quizId = quizId;
+    }
+
+    public Integer getQuizId() {
+        return quizId;
+    }
+
+    public void setQuizId(Integer quizId) {
+        this.quizId = quizId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof QuizAnswer)) return false;
+        if (!super.equals(o)) return false;
+        QuizAnswer that = (QuizAnswer) o;
+        return Objects.equals(quizId, that.quizId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), quizId);
+    }
+}
@@ -0,0 +1,60 @@
+package engine.dataobject;
+
+import java.util.List;
+import java.util.Objects;
+
+
+/**
+ * Class represents quizzes requested by list of IDs along with IDs for which no quiz was found.
+ *
+ * @param <T> Representation of a quiz: cached JSON of the quiz or the quiz itself.
+ */
+public class QuizBatch<T> {
+
+    /**
+     * Representations of found quizzes in the order in which they were requested.
+     */
+    private List<T> quizzes;
+    /**
+     * Requested IDs for which no quiz was found.
+     */
+    private List<Integer> missing;
+
+    public QuizBatch() {
+    }
+
+    public QuizBatch(List<T> quizzes, List<Integer> missing) {
+        this.quizzes = quizzes;
+        this.missing = missing;
+    }
+
+    public List<T> getQuizzes() {
+        return quizzes;
+    }
+
+    public void setQuizzes(List<T> quizzes) {
+        this.quizzes = quizzes;
+    }
+
+    public List<Integer> getMissing() {
+        return missing;
+    }
+
+    public void setMissing(List<Integer> missing) {
+        this.missing = missing;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof QuizBatch)) return false;
+        QuizBatch<?> that = (QuizBatch<?>) o;
+        return Objects.equals(quizzes, that.quizzes) &&
+                Objects.equals(missing, that.missing);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(quizzes, missing);
+    }
+}
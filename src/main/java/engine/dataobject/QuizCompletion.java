@@ -1,6 +1,7 @@
 package engine.dataobject;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import org.springframework.stereotype.Component;
 
@@ -49,6 +50,18 @@ public class QuizCompletion {
      */
     @Column
     private LocalDateTime completedAt;
+    /**
+     * Date and time when quiz was solved for the first time, only known for deduplicated completions.
+     */
+    @Transient
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private LocalDateTime firstCompletedAt;
+    /**
+     * Number of times quiz was solved, only known for deduplicated completions.
+     */
+    @Transient
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long solves;
 
 
     public QuizCompletion() {
@@ -93,6 +106,22 @@ public class QuizCompletion {
         this.completedAt = completedAt;
     }
 
+    public LocalDateTime getFirstCompletedAt() {
+        return firstCompletedAt;
+    }
+
+    public void setFirstCompletedAt(LocalDateTime firstCompletedAt) {
+        this.firstCompletedAt = firstCompletedAt;
+    }
+
+    public Long getSolves() {
+        return solves;
+    }
+
+    public void setSolves(Long solves) {
+        this.solves = solves;
+    }
+
     public User getUser() {
         return user;
     }
@@ -110,11 +139,13 @@ public class QuizCompletion {
                 Objects.equals(quiz, that.quiz) &&
                 Objects.equals(user, that.user) &&
                 Objects.equals(quizID, that.quizID) &&
-                Objects.equals(completedAt, that.completedAt);
+                Objects.equals(completedAt, that.completedAt) &&
+                Objects.equals(firstCompletedAt, that.firstCompletedAt) &&
+                Objects.equals(solves, that.solves);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, quiz, user, quizID, completedAt);
+        return Objects.hash(id, quiz, user, quizID, completedAt, firstCompletedAt, solves);
     }
 }
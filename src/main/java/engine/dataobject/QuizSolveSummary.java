@@ -0,0 +1,105 @@
+package engine.dataobject;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+
+/**
+ * Class represents all solutions of a quiz by a user as a single record: times of the first and the last solution
+ * and number of solutions. Used instead of QuizCompletion records when full history is not kept.
+ */
+@Entity
+@IdClass(QuizSolveSummaryId.class)
+@Table(indexes = {@Index(columnList = "userId, lastSolvedAt"), @Index(columnList = "quizId")})
+public class QuizSolveSummary {
+
+    /**
+     * ID of the user who solved the quiz.
+     */
+    @Id
+    @Column
+    private Integer userId;
+    /**
+     * ID of the solved quiz.
+     */
+    @Id
+    @Column
+    private Integer quizId;
+    /**
+     * Date and time when quiz was solved for the first time.
+     */
+    @Column
+    private LocalDateTime firstSolvedAt;
+    /**
+     * Date and time when quiz was solved for the last time.
+     */
+    @Column
+    private LocalDateTime lastSolvedAt;
+    /**
+     * Number of times quiz was solved.
+     */
+    @Column
+    private long solves;
+
+
+    public QuizSolveSummary() {
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Integer userId) {
+        this.userId = userId;
+    }
+
+    public Integer getQuizId() {
+        return quizId;
+    }
+
+    public void setQuizId(Integer quizId) {
+        this.quizId = quizId;
+    }
+
+    public LocalDateTime getFirstSolvedAt() {
+        return firstSolvedAt;
+    }
+
+    public void setFirstSolvedAt(LocalDateTime firstSolvedAt) {
+        this.firstSolvedAt = firstSolvedAt;
+    }
+
+    public LocalDateTime getLastSolvedAt() {
+        return lastSolvedAt;
+    }
+
+    public void setLastSolvedAt(LocalDateTime lastSolvedAt) {
+        this.lastSolvedAt = lastSolvedAt;
+    }
+
+    public long getSolves() {
+        return solves;
+    }
+
+    public void setSolves(long solves) {
+        this.solves = solves;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof QuizSolveSummary)) return false;
+        QuizSolveSummary that = (QuizSolveSummary) o;
+        return solves == that.solves &&
+                Objects.equals(userId, that.userId) &&
+                Objects.equals(quizId, that.quizId) &&
+                Objects.equals(firstSolvedAt, that.firstSolvedAt) &&
+                Objects.equals(lastSolvedAt, that.lastSolvedAt);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, quizId, firstSolvedAt, lastSolvedAt, solves);
+    }
+}
@@ -0,0 +1,59 @@
+package engine.dataobject;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+
+/**
+ * Class represents primary key of QuizSolveSummary: ID of the user and ID of the quiz.
+ */
+public class QuizSolveSummaryId implements Serializable {
+
+    /**
+     * ID of the user.
+     */
+    private Integer userId;
+    /**
+     * ID of the quiz.
+     */
+    private Integer quizId;
+
+
+    public QuizSolveSummaryId() {
+    }
+
+    public QuizSolveSummaryId(Integer userId, Integer quizId) {
+        this.userId = userId;
+        this.quizId = quizId;
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Integer userId) {
+        this.userId = userId;
+    }
+
+    public Integer getQuizId() {
+        return quizId;
+    }
+
+    public void setQuizId(Integer quizId) {
+        this.quizId = quizId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof QuizSolveSummaryId)) return false;
+        QuizSolveSummaryId that = (QuizSolveSummaryId) o;
+        return Objects.equals(userId, that.userId) &&
+                Objects.equals(quizId, that.quizId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, quizId);
+    }
+}
@@ -20,8 +20,9 @@ public class Role implements GrantedAuthority {
     @GeneratedValue(strategy = GenerationType.AUTO)
     private Integer id;
     /**
-     * String representation of role
+     * String representation of role, unique among roles.
      */
+    @Column(unique = true)
     private String roleName;
     /**
      * All users with this role.
@@ -54,11 +54,11 @@ public class User implements UserDetails {
     @Size(min = 5, max = 255)
     private String password;
     /**
-     * Set of all roles of this user, such as USER or ADMIN.
+     * Set of all roles of this user, such as USER or ADMIN. Roles are shared by users, so they are not cascaded.
      */
     @JsonIgnore
     @Column
-    @ManyToMany(fetch = FetchType.EAGER, cascade = CascadeType.ALL)
+    @ManyToMany(fetch = FetchType.EAGER)
     private Set<Role> roles;
     /**
      * Name for authentication, same as email.
@@ -0,0 +1,37 @@
+package engine.format;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+
+/**
+ * Configuration of binary response formats. CBOR and Smile converters use the object mapper configuration of
+ * Spring Boot, so documents have the same fields as JSON ones, and are placed after the JSON converter, so JSON stays
+ * the default.
+ */
+@Configuration
+public class FormatConfig {
+
+    /**
+     * @param builder Object mapper builder configured by Spring Boot.
+     * @return CBOR message converter.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    /**
+     * @param builder Object mapper builder configured by Spring Boot.
+     * @return Smile message converter.
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
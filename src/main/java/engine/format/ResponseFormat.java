@@ -0,0 +1,68 @@
+package engine.format;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+import java.util.Locale;
+
+
+/**
+ * Formats of response bodies, negotiated by Accept header. JSON is the default, CBOR and Smile are binary
+ * encodings of the same documents.
+ */
+public enum ResponseFormat {
+    JSON(MediaType.APPLICATION_JSON),
+    CBOR(MediaType.APPLICATION_CBOR),
+    SMILE(new MediaType("application", "x-jackson-smile"));
+
+    /**
+     * Media type of the format.
+     */
+    private final MediaType mediaType;
+
+
+    ResponseFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    /**
+     * @param accept Value of Accept header, may be null.
+     * @return The most preferred format acceptable by the client, JSON if none of formats is mentioned explicitly.
+     */
+    public static ResponseFormat of(String accept) {
+        if (accept == null || !accept.contains("cbor") && !accept.contains("smile")) {
+            return JSON;
+        }
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+        MediaType.sortBySpecificityAndQuality(mediaTypes);
+        for (MediaType mediaType : mediaTypes) {
+            for (ResponseFormat format : values()) {
+                if (mediaType.getQualityValue() > 0 && mediaType.isCompatibleWith(format.mediaType)) {
+                    return format;
+                }
+            }
+        }
+        return JSON;
+    }
+
+    /**
+     * @param eTag Entity tag of JSON representation.
+     * @return Entity tag of representation in this format.
+     */
+    public String tag(String eTag) {
+        return this == JSON ? eTag : eTag + "-" + name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return Media type of the format.
+     */
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+}
@@ -0,0 +1,83 @@
+package engine.format;
+
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+import java.util.Objects;
+
+
+/**
+ * Class represents a page of records with only the fields clients need, instead of the full Spring Data page
+ * with pageable and sort descriptions.
+ *
+ * @param <T> Type of records.
+ */
+public class SlimPage<T> {
+
+    /**
+     * Records of the page.
+     */
+    private final List<T> content;
+    /**
+     * Number of the page, starting from 0.
+     */
+    private final int page;
+    /**
+     * Maximum number of records per page.
+     */
+    private final int size;
+    /**
+     * Total number of records of all pages.
+     */
+    private final long totalElements;
+    /**
+     * Total number of pages.
+     */
+    private final int totalPages;
+
+
+    public SlimPage(Page<T> page) {
+        this.content = page.getContent();
+        this.page = page.getNumber();
+        this.size = page.getSize();
+        this.totalElements = page.getTotalElements();
+        this.totalPages = page.getTotalPages();
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public long getTotalElements() {
+        return totalElements;
+    }
+
+    public int getTotalPages() {
+        return totalPages;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SlimPage)) return false;
+        SlimPage<?> that = (SlimPage<?>) o;
+        return page == that.page &&
+                size == that.size &&
+                totalElements == that.totalElements &&
+                totalPages == that.totalPages &&
+                Objects.equals(content, that.content);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(content, page, size, totalElements, totalPages);
+    }
+}
@@ -0,0 +1,46 @@
+package engine.format;
+
+import engine.WebQuizRestController;
+import org.springframework.core.MethodParameter;
+import org.springframework.data.domain.Page;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+
+/**
+ * Replaces pages returned by the controller with slim pages when request has parameter envelope=slim.
+ */
+@RestControllerAdvice(assignableTypes = WebQuizRestController.class)
+public class SlimPageAdvice implements ResponseBodyAdvice<Object> {
+
+    /**
+     * Name of the request parameter selecting the page envelope.
+     */
+    private static final String ENVELOPE_PARAMETER = "envelope";
+    /**
+     * Value of the request parameter selecting slim pages.
+     */
+    private static final String SLIM = "slim";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (body instanceof Page && request instanceof ServletServerHttpRequest
+                && SLIM.equals(((ServletServerHttpRequest) request).getServletRequest()
+                .getParameter(ENVELOPE_PARAMETER))) {
+            return new SlimPage<>((Page<?>) body);
+        }
+        return body;
+    }
+}
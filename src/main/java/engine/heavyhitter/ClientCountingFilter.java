@@ -0,0 +1,45 @@
+package engine.heavyhitter;
+
+import engine.service.HeavyHitterService;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+
+/**
+ * Filter of the security filter chain counting requests of every client for heavy hitter detection. Placed before
+ * authentication and counts once the request is processed, so clients are identified by username, or by remote
+ * address for anonymous requests and requests with bad credentials.
+ */
+public class ClientCountingFilter extends OncePerRequestFilter {
+
+    /**
+     * Providing heavy hitter detection.
+     */
+    private final HeavyHitterService heavyHitterService;
+
+
+    public ClientCountingFilter(HeavyHitterService heavyHitterService) {
+        this.heavyHitterService = heavyHitterService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            heavyHitterService.recordRequest(authentication != null && authentication.isAuthenticated()
+                    && !(authentication instanceof AnonymousAuthenticationToken)
+                    ? authentication.getName() : request.getRemoteAddr());
+        }
+    }
+}
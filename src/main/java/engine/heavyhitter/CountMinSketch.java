@@ -0,0 +1,100 @@
+package engine.heavyhitter;
+
+import java.util.Arrays;
+
+
+/**
+ * Count-Min sketch: approximate counts of keys in a fixed table of counters. Every key increments one counter
+ * in every row, estimate of a key is the minimum of its counters, so it never underestimates and overestimates
+ * by at most 2/width of the total count with probability 1 - 1/2^depth. Not thread-safe.
+ */
+public class CountMinSketch {
+
+    /**
+     * Counters, row by row.
+     */
+    private final long[] counters;
+    /**
+     * Number of counters in a row.
+     */
+    private final int width;
+    /**
+     * Number of rows.
+     */
+    private final int depth;
+    /**
+     * Sum of all added counts.
+     */
+    private long total;
+
+
+    public CountMinSketch(int width, int depth) {
+        this.counters = new long[width * depth];
+        this.width = width;
+        this.depth = depth;
+    }
+
+    /**
+     * @param key   Counted key.
+     * @param count Count added to the key.
+     */
+    public void add(String key, long count) {
+        int hash1 = hash(key.hashCode());
+        int hash2 = hash(hash1) | 1;
+        for (int row = 0; row < depth; row++) {
+            counters[row * width + index(hash1 + row * hash2)] += count;
+        }
+        total += count;
+    }
+
+    /**
+     * @param key Counted key.
+     * @return Estimated count of the key, never less than the real one.
+     */
+    public long estimate(String key) {
+        int hash1 = hash(key.hashCode());
+        int hash2 = hash(hash1) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters[row * width + index(hash1 + row * hash2)]);
+        }
+        return estimate;
+    }
+
+    /**
+     * @return Maximum overestimate of any key with high probability.
+     */
+    public long getErrorBound() {
+        return (long) Math.ceil(2.0 * total / width);
+    }
+
+    /**
+     * @return Sum of all added counts.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Resets all counts to zero.
+     */
+    public void clear() {
+        Arrays.fill(counters, 0);
+        total = 0;
+    }
+
+    private int index(int hash) {
+        return (hash & Integer.MAX_VALUE) % width;
+    }
+
+    /**
+     * Mixes bits of the hash code, so similar keys get unrelated counters.
+     */
+    private static int hash(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        return h ^ h >>> 16;
+    }
+}
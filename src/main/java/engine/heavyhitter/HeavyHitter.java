@@ -0,0 +1,47 @@
+package engine.heavyhitter;
+
+import java.util.Objects;
+
+
+/**
+ * Class represents a frequent key along with its estimated count.
+ */
+public class HeavyHitter {
+
+    /**
+     * Counted key: ID of a quiz or name of a client.
+     */
+    private final String key;
+    /**
+     * Estimated count of the key, never less than the real one.
+     */
+    private final long count;
+
+
+    public HeavyHitter(String key, long count) {
+        this.key = key;
+        this.count = count;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof HeavyHitter)) return false;
+        HeavyHitter that = (HeavyHitter) o;
+        return count == that.count &&
+                Objects.equals(key, that.key);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(key, count);
+    }
+}
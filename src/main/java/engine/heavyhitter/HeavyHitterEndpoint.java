@@ -0,0 +1,66 @@
+package engine.heavyhitter;
+
+import engine.service.HeavyHitterService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+
+/**
+ * Actuator endpoint /actuator/heavyhitters: GET lists the most frequent quizzes by solve attempts and clients
+ * by requests, /actuator/heavyhitters/{tracker} lists the ones of a single tracker. Parameter window sets duration
+ * of the window in seconds, parameter limit sets the number of listed keys.
+ */
+@Component
+@WebEndpoint(id = "heavyhitters")
+public class HeavyHitterEndpoint {
+
+    /**
+     * Duration of the window in seconds if not requested.
+     */
+    private static final long DEFAULT_WINDOW = 60;
+    /**
+     * Number of listed keys if not requested.
+     */
+    private static final int DEFAULT_LIMIT = 10;
+
+    /**
+     * Providing heavy hitter detection.
+     */
+    private HeavyHitterService heavyHitterService;
+
+
+    /**
+     * @param window Duration of the window in seconds.
+     * @param limit  Maximum number of listed keys of every tracker.
+     * @return The most frequent keys of every tracker, by names of trackers.
+     */
+    @ReadOperation
+    public Map<String, HeavyHitterReport> heavyHitters(@Nullable Long window, @Nullable Integer limit) {
+        return heavyHitterService.getReports(window != null ? window : DEFAULT_WINDOW,
+                limit != null ? limit : DEFAULT_LIMIT);
+    }
+
+    /**
+     * @param tracker Name of the tracker: quizzes or clients.
+     * @param window  Duration of the window in seconds.
+     * @param limit   Maximum number of listed keys.
+     * @return The most frequent keys of the tracker, or response "404 Not Found" if there's no such tracker.
+     */
+    @ReadOperation
+    public HeavyHitterReport trackerHeavyHitters(@Selector String tracker, @Nullable Long window,
+                                                 @Nullable Integer limit) {
+        return heavyHitterService.getReport(tracker, window != null ? window : DEFAULT_WINDOW,
+                limit != null ? limit : DEFAULT_LIMIT);
+    }
+
+    @Autowired
+    public void setHeavyHitterService(HeavyHitterService heavyHitterService) {
+        this.heavyHitterService = heavyHitterService;
+    }
+}
@@ -0,0 +1,68 @@
+package engine.heavyhitter;
+
+import java.util.List;
+import java.util.Objects;
+
+
+/**
+ * Class represents the most frequent keys of a time window.
+ */
+public class HeavyHitterReport {
+
+    /**
+     * Duration of the window in seconds.
+     */
+    private final long windowSeconds;
+    /**
+     * Number of all counted occurrences during the window.
+     */
+    private final long total;
+    /**
+     * Maximum overestimate of counts with high probability.
+     */
+    private final long errorBound;
+    /**
+     * The most frequent keys, from the most frequent one.
+     */
+    private final List<HeavyHitter> hitters;
+
+
+    public HeavyHitterReport(long windowSeconds, long total, long errorBound, List<HeavyHitter> hitters) {
+        this.windowSeconds = windowSeconds;
+        this.total = total;
+        this.errorBound = errorBound;
+        this.hitters = hitters;
+    }
+
+    public long getWindowSeconds() {
+        return windowSeconds;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public long getErrorBound() {
+        return errorBound;
+    }
+
+    public List<HeavyHitter> getHitters() {
+        return hitters;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof HeavyHitterReport)) return false;
+        HeavyHitterReport that = (HeavyHitterReport) o;
+        return windowSeconds == that.windowSeconds &&
+                total == that.total &&
+                errorBound == that.errorBound &&
+                Objects.equals(hitters, that.hitters);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(windowSeconds, total, errorBound, hitters);
+    }
+}
@@ -0,0 +1,134 @@
+package engine.heavyhitter;
+
+import java.util.*;
+
+
+/**
+ * Tracks the most frequent keys over a sliding time window in constant memory. Time is split into buckets of fixed
+ * duration, every bucket has its own Count-Min sketch and Space-Saving summary, and the oldest bucket is reused
+ * once the window slides past it. Every bucket is split into stripes, each with its own sketch, summary and lock,
+ * and a thread always records into the same stripe, so concurrent requests rarely wait for each other. Candidates
+ * of the requested window are collected from summaries of all stripes of its buckets and ranked by the sums of
+ * counts estimated by their sketches. A key more frequent than total/capacity is more frequent than that in at least
+ * one stripe, so it is still a candidate, and sums of the sketches overestimate by no more than a single sketch of the
+ * same width counting everything.
+ */
+public class HeavyHitterTracker {
+
+    /**
+     * Duration of a bucket in milliseconds.
+     */
+    private final long bucketMillis;
+    /**
+     * Ring of buckets split into stripes, stripes of the bucket of time t are stored at index (t / bucketMillis)
+     * modulo length.
+     */
+    private final Bucket[][] buckets;
+
+
+    /**
+     * @param bucketMillis Duration of a bucket in milliseconds.
+     * @param bucketCount  Number of buckets, the longest window is bucketMillis * bucketCount.
+     * @param stripes      Number of stripes of every bucket.
+     * @param width        Number of counters in a row of sketches.
+     * @param depth        Number of rows of sketches.
+     * @param capacity     Number of candidates tracked in every stripe.
+     */
+    public HeavyHitterTracker(long bucketMillis, int bucketCount, int stripes, int width, int depth, int capacity) {
+        this.bucketMillis = bucketMillis;
+        this.buckets = new Bucket[bucketCount][stripes];
+        for (Bucket[] bucket : buckets) {
+            for (int i = 0; i < stripes; i++) {
+                bucket[i] = new Bucket(new CountMinSketch(width, depth), new SpaceSaving(capacity));
+            }
+        }
+    }
+
+    /**
+     * Counts an occurrence of the key.
+     *
+     * @param key Counted key.
+     * @param now Current time in milliseconds since the epoch.
+     */
+    public void record(String key, long now) {
+        long epoch = now / bucketMillis;
+        Bucket[] stripes = buckets[(int) (epoch % buckets.length)];
+        Bucket bucket = stripes[(int) (Thread.currentThread().getId() % stripes.length)];
+        synchronized (bucket) {
+            if (bucket.epoch != epoch) {
+                bucket.sketch.clear();
+                bucket.summary.clear();
+                bucket.epoch = epoch;
+            }
+            bucket.sketch.add(key, 1);
+            bucket.summary.add(key, 1);
+        }
+    }
+
+    /**
+     * @param windowMillis Duration of the window in milliseconds, rounded up to whole buckets and limited
+     *                     by the number of buckets.
+     * @param limit        Maximum number of returned keys.
+     * @param now          Current time in milliseconds since the epoch.
+     * @return The most frequent keys of the window, from the most frequent one.
+     */
+    public HeavyHitterReport top(long windowMillis, int limit, long now) {
+        long epoch = now / bucketMillis;
+        int count = (int) Math.max(1, Math.min(buckets.length, (windowMillis + bucketMillis - 1) / bucketMillis));
+        List<Bucket> window = new ArrayList<>();
+        List<Long> epochs = new ArrayList<>();
+        for (long e = epoch - count + 1; e <= epoch; e++) {
+            for (Bucket bucket : buckets[(int) (e % buckets.length)]) {
+                window.add(bucket);
+                epochs.add(e);
+            }
+        }
+        long total = 0;
+        long errorBound = 0;
+        Set<String> candidates = new HashSet<>();
+        for (int i = 0; i < window.size(); i++) {
+            Bucket bucket = window.get(i);
+            synchronized (bucket) {
+                if (bucket.epoch == epochs.get(i)) {
+                    total += bucket.sketch.getTotal();
+                    errorBound += bucket.sketch.getErrorBound();
+                    candidates.addAll(bucket.summary.getKeys());
+                }
+            }
+        }
+        Map<String, Long> estimates = new HashMap<>();
+        for (int i = 0; i < window.size(); i++) {
+            Bucket bucket = window.get(i);
+            synchronized (bucket) {
+                if (bucket.epoch == epochs.get(i)) {
+                    for (String candidate : candidates) {
+                        estimates.merge(candidate, bucket.sketch.estimate(candidate), Long::sum);
+                    }
+                }
+            }
+        }
+        List<HeavyHitter> hitters = new ArrayList<>(estimates.size());
+        estimates.forEach((key, estimate) -> hitters.add(new HeavyHitter(key, estimate)));
+        hitters.sort(Comparator.comparingLong(HeavyHitter::getCount).reversed());
+        return new HeavyHitterReport(count * bucketMillis / 1000, total, errorBound,
+                new ArrayList<>(hitters.subList(0, Math.max(0, Math.min(limit, hitters.size())))));
+    }
+
+    /**
+     * Counts of keys recorded into a stripe during a single period of time.
+     */
+    private static class Bucket {
+
+        final CountMinSketch sketch;
+        final SpaceSaving summary;
+        /**
+         * Number of the period counted by the bucket, counts are reset when the bucket is reused.
+         */
+        long epoch = -1;
+
+        Bucket(CountMinSketch sketch, SpaceSaving summary) {
+            this.sketch = sketch;
+            this.summary = summary;
+        }
+    }
+}
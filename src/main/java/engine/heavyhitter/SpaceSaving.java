@@ -0,0 +1,132 @@
+package engine.heavyhitter;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ * Space-Saving summary: candidates for the most frequent keys in a fixed number of slots. A key not in the summary
+ * replaces the key with the least count when all slots are taken, so every key more frequent than total/capacity
+ * is kept. Slots form a binary min-heap by count, so the least counted key is found at once and every update takes
+ * time logarithmic in the capacity. Not thread-safe.
+ */
+public class SpaceSaving {
+
+    /**
+     * Tracked keys in heap order, the key with the least count first.
+     */
+    private final String[] keys;
+    /**
+     * Counts of tracked keys at the same positions, overestimated by the count of the key they replaced.
+     */
+    private final long[] counts;
+    /**
+     * Positions of tracked keys in the heap.
+     */
+    private final Map<String, Integer> positions;
+    /**
+     * Number of tracked keys.
+     */
+    private int size;
+
+
+    public SpaceSaving(int capacity) {
+        this.keys = new String[capacity];
+        this.counts = new long[capacity];
+        this.positions = new HashMap<>(capacity * 2);
+    }
+
+    /**
+     * @param key   Counted key.
+     * @param count Count added to the key.
+     */
+    public void add(String key, long count) {
+        Integer position = positions.get(key);
+        if (position != null) {
+            counts[position] += count;
+            siftDown(position);
+            return;
+        }
+        if (size < keys.length) {
+            keys[size] = key;
+            counts[size] = count;
+            positions.put(key, size);
+            siftUp(size++);
+            return;
+        }
+        positions.remove(keys[0]);
+        keys[0] = key;
+        counts[0] += count;
+        positions.put(key, 0);
+        siftDown(0);
+    }
+
+    /**
+     * @param key Counted key.
+     * @return Count of the tracked key, never less than the real one, or 0 if the key is not tracked.
+     */
+    public long getCount(String key) {
+        Integer position = positions.get(key);
+        return position == null ? 0 : counts[position];
+    }
+
+    /**
+     * @return Tracked keys, candidates for the most frequent ones.
+     */
+    public Set<String> getKeys() {
+        return positions.keySet();
+    }
+
+    /**
+     * Removes all tracked keys.
+     */
+    public void clear() {
+        positions.clear();
+        for (int i = 0; i < size; i++) {
+            keys[i] = null;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (counts[parent] <= counts[position]) {
+                return;
+            }
+            swap(position, parent);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int position) {
+        while (true) {
+            int least = position;
+            int left = 2 * position + 1;
+            int right = left + 1;
+            if (left < size && counts[left] < counts[least]) {
+                least = left;
+            }
+            if (right < size && counts[right] < counts[least]) {
+                least = right;
+            }
+            if (least == position) {
+                return;
+            }
+            swap(position, least);
+            position = least;
+        }
+    }
+
+    private void swap(int i, int j) {
+        String key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+        long count = counts[i];
+        counts[i] = counts[j];
+        counts[j] = count;
+        positions.put(keys[i], i);
+        positions.put(keys[j], j);
+    }
+}
@@ -0,0 +1,86 @@
+package engine.invalidation;
+
+import java.util.Objects;
+
+
+/**
+ * Change of an entity which makes in-memory state of other instances of the application stale.
+ */
+public class EntityChange {
+
+    /**
+     * ID of the instance of the application which made the change.
+     */
+    private final String origin;
+    /**
+     * Type of the change.
+     */
+    private final Type type;
+    /**
+     * ID of the changed entity.
+     */
+    private final int entityId;
+    /**
+     * Number of the change in the change sequence shared by all instances.
+     */
+    private final long sequenceNumber;
+
+
+    public EntityChange(String origin, Type type, int entityId, long sequenceNumber) {
+        this.origin = origin;
+        this.type = type;
+        this.entityId = entityId;
+        this.sequenceNumber = sequenceNumber;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getEntityId() {
+        return entityId;
+    }
+
+    public long getSequenceNumber() {
+        return sequenceNumber;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof EntityChange)) return false;
+        EntityChange that = (EntityChange) o;
+        return entityId == that.entityId &&
+                sequenceNumber == that.sequenceNumber &&
+                Objects.equals(origin, that.origin) &&
+                type == that.type;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(origin, type, entityId, sequenceNumber);
+    }
+
+    @Override
+    public String toString() {
+        return "#" + sequenceNumber + " " + type + " " + entityId + " from " + origin;
+    }
+
+    /**
+     * Types of changes.
+     */
+    public enum Type {
+        /**
+         * New quiz was stored.
+         */
+        QUIZ_ADDED,
+        /**
+         * Quiz was deleted along with its completions.
+         */
+        QUIZ_DELETED
+    }
+}
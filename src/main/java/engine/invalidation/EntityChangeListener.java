@@ -0,0 +1,15 @@
+package engine.invalidation;
+
+
+/**
+ * Applies changes made by other instances of the application to in-memory state of this instance. Every bean
+ * implementing this interface receives every change made elsewhere. Changes may be received more than once
+ * and must be applied idempotently.
+ */
+public interface EntityChangeListener {
+
+    /**
+     * @param change Change made and committed by another instance.
+     */
+    void onEntityChange(EntityChange change);
+}
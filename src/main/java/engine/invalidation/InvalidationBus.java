@@ -0,0 +1,193 @@
+package engine.invalidation;
+
+import engine.dataobject.ChangeSequence;
+import engine.repository.ChangeSequenceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.TreeSet;
+import java.util.UUID;
+
+
+/**
+ * Bus of entity changes between instances of the application sharing the same DB. Every change is numbered
+ * by the change sequence shared through the DB, and published through the configured transport to be applied
+ * on other instances by every EntityChangeListener bean. Without a transport the application runs as a single
+ * instance and changes are only numbered.
+ * <p>
+ * The bus tracks which numbered changes are reflected in the in-memory state of this instance, so the version
+ * of that state is derived from shared numbers: instances which have applied the same changes report the same
+ * version, and the version survives restarts.
+ */
+@Service
+public class InvalidationBus implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(InvalidationBus.class);
+    /**
+     * Name of the shared sequence numbering changes of quizzes.
+     */
+    private static final String SEQUENCE = "quizzes";
+
+    /**
+     * ID of this instance of the application, changes made by it are not applied twice.
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+    /**
+     * Providing CRUD methods for ChangeSequence objects.
+     */
+    private ChangeSequenceRepository changeSequenceRepository;
+    /**
+     * Transport of changes, if configured.
+     */
+    private ObjectProvider<InvalidationTransport> transport;
+    /**
+     * Listeners applying changes made by other instances.
+     */
+    private ObjectProvider<EntityChangeListener> listeners;
+    /**
+     * Number of the change up to which all changes are applied to in-memory state.
+     */
+    private long appliedSequenceNumber;
+    /**
+     * Numbers of applied changes after a not yet applied one, as changes of this instance are applied as soon
+     * as they are committed, while earlier changes of other instances may not be received yet.
+     */
+    private final TreeSet<Long> appliedAhead = new TreeSet<>();
+
+
+    /**
+     * Creates the shared sequence if it doesn't exist yet and takes its current number before any bean loads
+     * in-memory state from DB, so changes committed while state is loaded are received later. Such changes may be
+     * applied twice, which listeners tolerate.
+     */
+    @PostConstruct
+    public void init() {
+        if (!changeSequenceRepository.existsById(SEQUENCE)) {
+            try {
+                changeSequenceRepository.save(new ChangeSequence(SEQUENCE, 0));
+            } catch (DataIntegrityViolationException e) {
+                log.debug("Change sequence was created by another instance", e);
+            }
+        }
+        appliedSequenceNumber = changeSequenceRepository.getValue(SEQUENCE);
+    }
+
+    /**
+     * Numbers change made within the current transaction and publishes it, it is applied on other instances after
+     * commit. The shared sequence stays locked until the transaction ends, so the change should be published at
+     * the end of the transaction. Once the change is applied to in-memory state of this instance after commit,
+     * {@link #applied(long)} must be called with the returned number.
+     *
+     * @param type     Type of the change.
+     * @param entityId ID of the changed entity.
+     * @return Number of the change.
+     */
+    public long publish(EntityChange.Type type, int entityId) {
+        changeSequenceRepository.increment(SEQUENCE);
+        long sequenceNumber = changeSequenceRepository.getValue(SEQUENCE);
+        InvalidationTransport available = transport.getIfAvailable();
+        if (available != null) {
+            available.publish(new EntityChange(nodeId, type, entityId, sequenceNumber));
+        }
+        return sequenceNumber;
+    }
+
+    /**
+     * Marks the change as applied to in-memory state of this instance.
+     *
+     * @param sequenceNumber Number of the change.
+     */
+    public synchronized void applied(long sequenceNumber) {
+        if (sequenceNumber <= appliedSequenceNumber) {
+            return;
+        }
+        appliedAhead.add(sequenceNumber);
+        while (appliedAhead.remove(appliedSequenceNumber + 1)) {
+            appliedSequenceNumber++;
+        }
+    }
+
+    /**
+     * @return Version of in-memory state of this instance: number of the change up to which all changes are applied,
+     * followed by numbers of later applied changes if there are any, such as "42" or "42+44".
+     */
+    public synchronized String getVersion() {
+        if (appliedAhead.isEmpty()) {
+            return Long.toString(appliedSequenceNumber);
+        }
+        StringBuilder version = new StringBuilder().append(appliedSequenceNumber);
+        appliedAhead.forEach(sequenceNumber -> version.append('+').append(sequenceNumber));
+        return version.toString();
+    }
+
+    /**
+     * @return Number of the change up to which all changes are applied to in-memory state of this instance.
+     */
+    public synchronized long getAppliedSequenceNumber() {
+        return appliedSequenceNumber;
+    }
+
+    /**
+     * Starts receiving changes once in-memory state of all beans is loaded.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        InvalidationTransport available = transport.getIfAvailable();
+        if (available != null) {
+            available.start(this::receive, getAppliedSequenceNumber());
+            log.info("Receiving entity changes of other instances via {}, this instance is {}",
+                    available.getClass().getSimpleName(), nodeId);
+        }
+    }
+
+    /**
+     * @return True if a transport is configured, so other instances may change the DB and their changes reach
+     * in-memory state of this instance only once received.
+     */
+    public boolean isShared() {
+        return transport.getIfAvailable() != null;
+    }
+
+    /**
+     * @return ID of this instance of the application.
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    private void receive(EntityChange change) {
+        if (nodeId.equals(change.getOrigin())) {
+            // applied by this instance right after commit
+            return;
+        }
+        listeners.orderedStream().forEach(listener -> {
+            try {
+                listener.onEntityChange(change);
+            } catch (RuntimeException e) {
+                log.warn("Failed to apply {} in {}", change, listener.getClass().getSimpleName(), e);
+            }
+        });
+        applied(change.getSequenceNumber());
+    }
+
+    @Autowired
+    public void setChangeSequenceRepository(ChangeSequenceRepository changeSequenceRepository) {
+        this.changeSequenceRepository = changeSequenceRepository;
+    }
+
+    @Autowired
+    public void setTransport(ObjectProvider<InvalidationTransport> transport) {
+        this.transport = transport;
+    }
+
+    @Autowired
+    public void setListeners(ObjectProvider<EntityChangeListener> listeners) {
+        this.listeners = listeners;
+    }
+}
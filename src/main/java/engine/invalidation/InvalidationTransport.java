@@ -0,0 +1,28 @@
+package engine.invalidation;
+
+import java.util.function.Consumer;
+
+
+/**
+ * Transport delivering entity changes between instances of the application. Provided as a bean, the built-in
+ * implementation is the outbox table in the shared DB.
+ */
+public interface InvalidationTransport {
+
+    /**
+     * Sends change to other instances. Called within the transaction making the change, so the change must not
+     * reach other instances before the transaction is committed, and must not reach them at all if it's rolled back.
+     *
+     * @param change Change made by this instance.
+     */
+    void publish(EntityChange change);
+
+    /**
+     * Starts delivering changes made by all instances, this one included, to the handler, in order of their numbers.
+     *
+     * @param handler        Handler of received changes.
+     * @param sequenceNumber Number of the latest change already reflected in state of this instance, only later
+     *                       changes are delivered.
+     */
+    void start(Consumer<EntityChange> handler, long sequenceNumber);
+}
@@ -0,0 +1,104 @@
+package engine.invalidation;
+
+import engine.dataobject.ChangeEvent;
+import engine.repository.ChangeEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+
+/**
+ * Transport of entity changes through the outbox table in the shared DB, needing no external broker. Changes are
+ * inserted in the transaction making them and polled by every instance. Changes are numbered by the shared change
+ * sequence, which is committed in order of numbers, so every poll reads changes after the latest received number
+ * and nothing is missed however late a change is polled or however clocks of instances differ.
+ */
+@Component
+@ConditionalOnProperty(name = "quiz.invalidation.transport", havingValue = "outbox")
+public class OutboxInvalidationTransport implements InvalidationTransport {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxInvalidationTransport.class);
+
+    /**
+     * Providing CRUD methods for ChangeEvent objects.
+     */
+    private ChangeEventRepository changeEventRepository;
+    /**
+     * Runs removal of old changes in a transaction.
+     */
+    private TransactionTemplate transactionTemplate;
+    /**
+     * Age in minutes after which changes are removed from the outbox.
+     */
+    @Value("${quiz.invalidation.retention-minutes:60}")
+    private long retentionMinutes;
+    /**
+     * Handler of received changes, null until started.
+     */
+    private volatile Consumer<EntityChange> handler;
+    /**
+     * Number of the latest received change.
+     */
+    private long sequenceNumber;
+
+
+    @Override
+    public void publish(EntityChange change) {
+        changeEventRepository.save(new ChangeEvent(change.getOrigin(), change.getType().name(),
+                change.getEntityId(), change.getSequenceNumber(), LocalDateTime.now()));
+    }
+
+    @Override
+    public synchronized void start(Consumer<EntityChange> handler, long sequenceNumber) {
+        this.sequenceNumber = sequenceNumber;
+        this.handler = handler;
+    }
+
+    /**
+     * Delivers changes committed since the previous poll to the handler.
+     */
+    @Scheduled(fixedDelayString = "${quiz.invalidation.poll-interval-ms:1000}")
+    public synchronized void poll() {
+        Consumer<EntityChange> current = handler;
+        if (current == null) {
+            return;
+        }
+        for (ChangeEvent event : changeEventRepository.findBySequenceNumberGreaterThanOrderBySequenceNumber(
+                sequenceNumber)) {
+            current.accept(new EntityChange(event.getOrigin(), EntityChange.Type.valueOf(event.getType()),
+                    event.getEntityId(), event.getSequenceNumber()));
+            sequenceNumber = event.getSequenceNumber();
+        }
+    }
+
+    /**
+     * Removes changes older than retention period from the outbox.
+     */
+    @Scheduled(fixedDelayString = "${quiz.invalidation.cleanup-interval-ms:600000}")
+    public void removeOldChanges() {
+        int removed = transactionTemplate.execute(status ->
+                changeEventRepository.deleteCreatedBefore(LocalDateTime.now().minusMinutes(retentionMinutes)));
+        if (removed > 0) {
+            log.debug("Removed {} old entity changes from outbox", removed);
+        }
+    }
+
+    @Autowired
+    public void setChangeEventRepository(ChangeEventRepository changeEventRepository) {
+        this.changeEventRepository = changeEventRepository;
+    }
+
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+}
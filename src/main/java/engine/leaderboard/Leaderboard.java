@@ -0,0 +1,70 @@
+package engine.leaderboard;
+
+import engine.dataobject.LeaderboardEntry;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+
+/**
+ * Thread-safe ranking of users by number of solved quizzes. Keeps entries ordered by number of solutions,
+ * so reading top N users takes O(N) regardless of total number of users.
+ */
+public class Leaderboard {
+
+    /**
+     * Order of entries: the most solutions first, ties are broken by username.
+     */
+    private static final Comparator<LeaderboardEntry> ORDER = Comparator
+            .comparingLong(LeaderboardEntry::getSolved).reversed()
+            .thenComparing(LeaderboardEntry::getUsername);
+
+    /**
+     * Current number of solutions by username.
+     */
+    private final Map<String, Long> scores = new ConcurrentHashMap<>();
+    /**
+     * Entries ordered by ranking.
+     */
+    private final NavigableSet<LeaderboardEntry> ranking = new ConcurrentSkipListSet<>(ORDER);
+
+
+    /**
+     * Changes number of solutions of the user. Updates of the same user are serialized, updates of different users
+     * run concurrently.
+     *
+     * @param username Name of the user.
+     * @param delta    Number of solutions to add, negative to remove solutions.
+     */
+    public void add(String username, long delta) {
+        scores.compute(username, (name, previous) -> {
+            long updated = (previous == null ? 0 : previous) + delta;
+            if (updated > 0) {
+                ranking.add(new LeaderboardEntry(name, updated));
+            }
+            if (previous != null) {
+                ranking.remove(new LeaderboardEntry(name, previous));
+            }
+            return updated > 0 ? updated : null;
+        });
+    }
+
+    /**
+     * @param size Maximum number of returned entries.
+     * @return Top users ordered by ranking.
+     */
+    public List<LeaderboardEntry> top(int size) {
+        List<LeaderboardEntry> top = new ArrayList<>(size);
+        Set<String> seen = new HashSet<>();
+        Iterator<LeaderboardEntry> iterator = ranking.iterator();
+        while (top.size() < size && iterator.hasNext()) {
+            LeaderboardEntry entry = iterator.next();
+            // Entry of a user being updated concurrently may be seen twice, only the first one is returned.
+            if (seen.add(entry.getUsername())) {
+                top.add(entry);
+            }
+        }
+        return top;
+    }
+}
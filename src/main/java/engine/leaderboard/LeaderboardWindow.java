@@ -0,0 +1,29 @@
+package engine.leaderboard;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+
+
+/**
+ * Time windows for which separate leaderboards are maintained.
+ */
+public enum LeaderboardWindow {
+    DAY, WEEK, ALL;
+
+    /**
+     * @param time Date and time of a solution.
+     * @return Start of the window containing provided time.
+     */
+    public LocalDate start(LocalDateTime time) {
+        switch (this) {
+            case DAY:
+                return time.toLocalDate();
+            case WEEK:
+                return time.toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            default:
+                return LocalDate.MIN;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package engine.ratelimit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Limiter of the number of concurrently processed requests which adapts the limit to observed latency.
+ * While latency stays close to the lowest observed one the limit grows, and when latency rises, which means requests
+ * are queueing somewhere, the limit shrinks in proportion (gradient algorithm). The state is kept in atomic values,
+ * so the limiter never blocks.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    /**
+     * Number of samples after which the lowest observed latency is forgotten, so the limiter adapts to lasting
+     * changes of latency.
+     */
+    private static final long MIN_LATENCY_RESET_SAMPLES = 1000;
+    /**
+     * Weight of a new limit value in the smoothed limit.
+     */
+    private static final double SMOOTHING = 0.2;
+
+    /**
+     * Limit never goes below this value.
+     */
+    private final int minLimit;
+    /**
+     * Limit never goes above this value.
+     */
+    private final int maxLimit;
+    /**
+     * Ratio of latency to the lowest observed latency which is tolerated without decreasing the limit.
+     */
+    private final double tolerance;
+    /**
+     * Number of requests being processed.
+     */
+    private final AtomicInteger inFlight = new AtomicInteger();
+    /**
+     * Current limit, bits of double value.
+     */
+    private final AtomicLong limit;
+    /**
+     * The lowest observed latency in nanoseconds.
+     */
+    private final AtomicLong minLatency = new AtomicLong(Long.MAX_VALUE);
+    /**
+     * Number of observed latency samples.
+     */
+    private final AtomicLong samples = new AtomicLong();
+
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.limit = new AtomicLong(Double.doubleToLongBits(initialLimit));
+    }
+
+    /**
+     * Starts processing of a request if the limit allows it. Every successful call should be followed
+     * by the call of release.
+     *
+     * @return True if request can be processed and false if it should be rejected.
+     */
+    public boolean tryAcquire() {
+        if (inFlight.incrementAndGet() > getLimit()) {
+            inFlight.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Finishes processing of a request and adjusts the limit by its latency.
+     *
+     * @param latencyNanos Time in nanoseconds spent on processing the request.
+     */
+    public void release(long latencyNanos) {
+        int concurrency = inFlight.getAndDecrement();
+        long latency = Math.max(1, latencyNanos);
+        long lowest = samples.incrementAndGet() % MIN_LATENCY_RESET_SAMPLES == 0
+                ? minLatency.getAndSet(latency)
+                : minLatency.accumulateAndGet(latency, Math::min);
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * lowest / latency));
+        limit.updateAndGet(bits -> {
+            double current = Double.longBitsToDouble(bits);
+            // Limit is not grown while it isn't reached, otherwise it would grow without bound under light load.
+            double queue = concurrency * 2 >= current ? Math.sqrt(current) : 0;
+            double next = (1 - SMOOTHING) * current + SMOOTHING * (current * gradient + queue);
+            return Double.doubleToLongBits(Math.max(minLimit, Math.min(maxLimit, next)));
+        });
+    }
+
+    /**
+     * @return Current limit of concurrently processed requests.
+     */
+    public int getLimit() {
+        return (int) Double.longBitsToDouble(limit.get());
+    }
+
+    /**
+     * @return Number of requests being processed.
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,117 @@
+package engine.ratelimit;
+
+import engine.service.HeavyHitterService;
+import engine.service.QuizStreamService;
+import io.micrometer.core.instrument.Counter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+
+/**
+ * Filter limiting the number of concurrently processed requests of all clients. Runs before authentication,
+ * so password hashing is also covered by the limit. Requests over the limit are rejected at once with
+ * "503 Service Unavailable" instead of queueing. Asynchronously processed requests hold the limit until they are
+ * completed. Rejected requests are counted for heavy hitter detection by remote address, as their clients are not
+ * authenticated yet. Actuator requests and long-lived connections of the quiz stream are not limited.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    /**
+     * Limiter adapting the limit to observed latency.
+     */
+    private final AdaptiveConcurrencyLimiter limiter;
+    /**
+     * Counter of rejected requests.
+     */
+    private final Counter rejected;
+    /**
+     * Counting requests of clients for heavy hitter detection.
+     */
+    private final HeavyHitterService heavyHitterService;
+
+
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter, Counter rejected,
+                                  HeavyHitterService heavyHitterService) {
+        this.limiter = limiter;
+        this.rejected = rejected;
+        this.heavyHitterService = heavyHitterService;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith(request.getContextPath() + "/actuator/")
+                || request.getRequestURI().equals(request.getContextPath() + QuizStreamService.PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!limiter.tryAcquire()) {
+            rejected.increment();
+            heavyHitterService.recordRequest(request.getRemoteAddr());
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Server is overloaded, try again later.");
+            return;
+        }
+        long start = System.nanoTime();
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            async = request.isAsyncStarted();
+            if (async) {
+                request.getAsyncContext().addListener(new ReleasingListener(start));
+            }
+        } finally {
+            if (!async) {
+                limiter.release(System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * Releases the limit taken by an asynchronously processed request once processing is finished.
+     */
+    private class ReleasingListener implements AsyncListener {
+
+        private final long start;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private ReleasingListener(long start) {
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                limiter.release(System.nanoTime() - start);
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package engine.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import org.springframework.util.AntPathMatcher;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.List;
+
+
+/**
+ * Rate limit of a group of endpoints: HTTP method and path patterns of the endpoints along with the limiter
+ * and the counter of rejected requests.
+ */
+public class EndpointRateLimit {
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    /**
+     * Name of the endpoint group used in metrics.
+     */
+    private final String name;
+    /**
+     * HTTP method of limited requests.
+     */
+    private final String method;
+    /**
+     * Ant-style patterns of limited paths.
+     */
+    private final List<String> pathPatterns;
+    /**
+     * Limiter keeping token buckets of clients.
+     */
+    private final RateLimiter rateLimiter;
+    /**
+     * Counter of rejected requests.
+     */
+    private final Counter rejected;
+
+
+    public EndpointRateLimit(String name, String method, List<String> pathPatterns, RateLimiter rateLimiter,
+                             Counter rejected) {
+        this.name = name;
+        this.method = method;
+        this.pathPatterns = pathPatterns;
+        this.rateLimiter = rateLimiter;
+        this.rejected = rejected;
+    }
+
+    /**
+     * @param request HTTP request.
+     * @return True if request is sent to one of the endpoints of the group.
+     */
+    public boolean matches(HttpServletRequest request) {
+        if (!method.equals(request.getMethod())) {
+            return false;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return pathPatterns.stream().anyMatch(pattern -> PATH_MATCHER.match(pattern, path));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    public Counter getRejected() {
+        return rejected;
+    }
+}
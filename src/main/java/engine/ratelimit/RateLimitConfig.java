@@ -0,0 +1,101 @@
+package engine.ratelimit;
+
+import engine.service.HeavyHitterService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * Configuration of request limits: rate limits of expensive endpoints per client and adaptive limit
+ * of concurrently processed requests. Rejected requests are counted by "quiz.requests.rejected" metric.
+ */
+@Configuration
+public class RateLimitConfig {
+
+    /**
+     * Name of the metric counting rejected requests.
+     */
+    private static final String REJECTED_METRIC = "quiz.requests.rejected";
+
+    /**
+     * Filter limiting rate of requests of every client.
+     */
+    private RateLimitFilter rateLimitFilter;
+
+
+    /**
+     * @return Registration of the filter limiting concurrently processed requests, placed before Spring Security.
+     */
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            MeterRegistry meterRegistry,
+            HeavyHitterService heavyHitterService,
+            @Value("${quiz.concurrency-limit.initial:50}") int initialLimit,
+            @Value("${quiz.concurrency-limit.min:10}") int minLimit,
+            @Value("${quiz.concurrency-limit.max:200}") int maxLimit,
+            @Value("${quiz.concurrency-limit.tolerance:2.0}") double tolerance) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, tolerance);
+        Gauge.builder("quiz.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit).register(meterRegistry);
+        Gauge.builder("quiz.concurrency.in-flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .register(meterRegistry);
+        Counter rejected = Counter.builder(REJECTED_METRIC)
+                .tag("endpoint", "all")
+                .tag("reason", "concurrency")
+                .register(meterRegistry);
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration =
+                new FilterRegistrationBean<>(new ConcurrencyLimitFilter(limiter, rejected, heavyHitterService));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+
+    /**
+     * @return Registration of the filter limiting rate of requests of every client, placed after Spring Security.
+     */
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(
+            MeterRegistry meterRegistry,
+            @Value("${quiz.rate-limit.solve.capacity:20}") int solveCapacity,
+            @Value("${quiz.rate-limit.solve.refill-per-second:5}") double solveRefill,
+            @Value("${quiz.rate-limit.register.capacity:5}") int registerCapacity,
+            @Value("${quiz.rate-limit.register.refill-per-second:0.1}") double registerRefill) {
+        List<EndpointRateLimit> limits = Arrays.asList(
+                endpointRateLimit(meterRegistry, "solve", "POST",
+                        Arrays.asList("/api/quizzes/*/solve", "/api/quizzes/solve"), solveCapacity, solveRefill),
+                endpointRateLimit(meterRegistry, "register", "POST",
+                        Collections.singletonList("/api/register"), registerCapacity, registerRefill));
+        rateLimitFilter = new RateLimitFilter(limits);
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(rateLimitFilter);
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+        return registration;
+    }
+
+    /**
+     * Periodically discards token buckets of idle clients, so memory is not held by clients which left.
+     */
+    @Scheduled(fixedDelayString = "${quiz.rate-limit.cleanup-interval-ms:60000}")
+    public void removeIdleClients() {
+        if (rateLimitFilter != null) {
+            rateLimitFilter.removeIdleClients();
+        }
+    }
+
+    private EndpointRateLimit endpointRateLimit(MeterRegistry meterRegistry, String name, String method,
+                                                List<String> pathPatterns, int capacity, double refillPerSecond) {
+        Counter rejected = Counter.builder(REJECTED_METRIC)
+                .tag("endpoint", name)
+                .tag("reason", "rate")
+                .register(meterRegistry);
+        return new EndpointRateLimit(name, method, pathPatterns, new RateLimiter(capacity, refillPerSecond), rejected);
+    }
+}
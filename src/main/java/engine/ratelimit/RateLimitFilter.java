@@ -0,0 +1,56 @@
+package engine.ratelimit;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+
+
+/**
+ * Filter limiting rate of requests of every client to rate limited endpoints. Runs after authentication,
+ * so clients are identified by username, or by remote address for anonymous requests such as registration.
+ * Requests exceeding the rate are rejected with "429 Too Many Requests".
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    /**
+     * Limits of rate limited endpoint groups.
+     */
+    private final List<EndpointRateLimit> limits;
+
+
+    public RateLimitFilter(List<EndpointRateLimit> limits) {
+        this.limits = limits;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        for (EndpointRateLimit limit : limits) {
+            if (limit.matches(request)) {
+                String key = request.getRemoteUser() != null ? request.getRemoteUser() : request.getRemoteAddr();
+                if (!limit.getRateLimiter().tryAcquire(key)) {
+                    limit.getRejected().increment();
+                    response.setHeader(HttpHeaders.RETRY_AFTER,
+                            String.valueOf(limit.getRateLimiter().secondsUntilAvailable(key)));
+                    response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Too many requests, try again later.");
+                    return;
+                }
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Discards token buckets of clients which were idle long enough.
+     */
+    public void removeIdleClients() {
+        limits.forEach(limit -> limit.getRateLimiter().removeFullBuckets());
+    }
+}
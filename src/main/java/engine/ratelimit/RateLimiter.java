@@ -0,0 +1,65 @@
+package engine.ratelimit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Rate limiter of a single endpoint keeping separate token bucket for every client.
+ */
+public class RateLimiter {
+
+    /**
+     * Time in nanoseconds needed to refill one token.
+     */
+    private final long refillNanos;
+    /**
+     * Time in nanoseconds needed to refill the whole bucket.
+     */
+    private final long capacityNanos;
+    /**
+     * Token buckets by client keys.
+     */
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+
+    /**
+     * @param capacity        Maximum number of requests client can send at once.
+     * @param refillPerSecond Number of requests per second client can send continuously.
+     */
+    public RateLimiter(int capacity, double refillPerSecond) {
+        this.refillNanos = (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond);
+        this.capacityNanos = refillNanos * capacity;
+    }
+
+    /**
+     * @param key Key of the client, such as username.
+     * @return True if request of the client is allowed and false if client exceeded its rate.
+     */
+    public boolean tryAcquire(String key) {
+        long now = System.nanoTime();
+        return buckets.computeIfAbsent(key, k -> new TokenBucket(now)).tryAcquire(now, refillNanos, capacityNanos);
+    }
+
+    /**
+     * @param key Key of the client, such as username.
+     * @return Number of seconds after which next request of the client will be allowed.
+     */
+    public long secondsUntilAvailable(String key) {
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            return 0;
+        }
+        long nanos = bucket.nanosUntilAvailable(System.nanoTime(), refillNanos, capacityNanos);
+        return TimeUnit.NANOSECONDS.toSeconds(nanos + TimeUnit.SECONDS.toNanos(1) - 1);
+    }
+
+    /**
+     * Discards buckets of clients which haven't sent requests long enough for their buckets to become full.
+     */
+    public void removeFullBuckets() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+}
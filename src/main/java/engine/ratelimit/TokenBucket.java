@@ -0,0 +1,60 @@
+package engine.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Lock-free token bucket. Instead of number of tokens it keeps the time at which the bucket becomes full again
+ * (theoretical arrival time of the generic cell rate algorithm), so the whole state is a single atomic value.
+ */
+public class TokenBucket {
+
+    /**
+     * Time in nanoseconds when the bucket becomes full again.
+     */
+    private final AtomicLong fullAt;
+
+
+    public TokenBucket(long now) {
+        this.fullAt = new AtomicLong(now);
+    }
+
+    /**
+     * Takes a token from the bucket if there is one.
+     *
+     * @param now           Current time in nanoseconds.
+     * @param refillNanos   Time in nanoseconds needed to refill one token.
+     * @param capacityNanos Time in nanoseconds needed to refill the whole bucket.
+     * @return True if token was taken and false if the bucket is empty.
+     */
+    public boolean tryAcquire(long now, long refillNanos, long capacityNanos) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + refillNanos;
+            if (next - now > capacityNanos) {
+                return false;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param now           Current time in nanoseconds.
+     * @param refillNanos   Time in nanoseconds needed to refill one token.
+     * @param capacityNanos Time in nanoseconds needed to refill the whole bucket.
+     * @return Time in nanoseconds until a token is available.
+     */
+    public long nanosUntilAvailable(long now, long refillNanos, long capacityNanos) {
+        return Math.max(0, fullAt.get() + refillNanos - now - capacityNanos);
+    }
+
+    /**
+     * @param now Current time in nanoseconds.
+     * @return True if the bucket is full, so it is equivalent to a new one and can be discarded.
+     */
+    public boolean isFull(long now) {
+        return fullAt.get() <= now;
+    }
+}
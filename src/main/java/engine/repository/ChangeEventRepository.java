@@ -0,0 +1,33 @@
+package engine.repository;
+
+import engine.dataobject.ChangeEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+
+/**
+ * Interface for providing CRUD methods for ChangeEvent objects.
+ */
+@Repository
+public interface ChangeEventRepository extends JpaRepository<ChangeEvent, Long> {
+
+    /**
+     * @param sequenceNumber Number of the latest already received change.
+     * @return Changes committed after that change, in order of their numbers.
+     */
+    List<ChangeEvent> findBySequenceNumberGreaterThanOrderBySequenceNumber(long sequenceNumber);
+
+    /**
+     * @param before Time before which changes are removed.
+     * @return Number of removed changes.
+     */
+    @Modifying
+    @Query("delete from ChangeEvent e where e.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") LocalDateTime before);
+}
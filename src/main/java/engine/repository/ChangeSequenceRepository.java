@@ -0,0 +1,36 @@
+package engine.repository;
+
+import engine.dataobject.ChangeSequence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.transaction.Transactional;
+
+
+/**
+ * Interface for providing CRUD methods for ChangeSequence objects.
+ */
+@Repository
+public interface ChangeSequenceRepository extends JpaRepository<ChangeSequence, String> {
+
+    /**
+     * Atomically increments the sequence, locking its row until the end of the current transaction.
+     *
+     * @param name Name of the sequence.
+     * @return Number of updated sequences, 0 if there's no sequence with such name.
+     */
+    @Transactional
+    @Modifying
+    @Query("update ChangeSequence s set s.value = s.value + 1 where s.name = :name")
+    int increment(@Param("name") String name);
+
+    /**
+     * @param name Name of the sequence.
+     * @return Number of the latest change, null if there's no sequence with such name.
+     */
+    @Query("select s.value from ChangeSequence s where s.name = :name")
+    Long getValue(@Param("name") String name);
+}
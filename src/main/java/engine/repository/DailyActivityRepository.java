@@ -0,0 +1,54 @@
+package engine.repository;
+
+import engine.dataobject.DailyActivity;
+import engine.dataobject.DailyActivityId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+
+/**
+ * Interface for providing CRUD methods for DailyActivity objects.
+ */
+@Repository
+public interface DailyActivityRepository extends JpaRepository<DailyActivity, DailyActivityId> {
+
+    /**
+     * Atomically changes number of solves of the user during the day.
+     *
+     * @param userId ID of the user.
+     * @param day    Day of activity.
+     * @param delta  Number of solves to add, negative to subtract.
+     * @return Number of updated rollups, 0 if there's no rollup of the user for the day.
+     */
+    @Modifying
+    @Query("update DailyActivity a set a.solves = a.solves + :delta where a.userId = :userId and a.day = :day")
+    int add(@Param("userId") int userId, @Param("day") LocalDate day, @Param("delta") long delta);
+
+    /**
+     * Creates empty rollup of the user for the day.
+     *
+     * @param userId ID of the user.
+     * @param day    Day of activity.
+     */
+    @Modifying
+    @Query(value = "insert into daily_activity (user_id, activity_day, solves) values (:userId, :day, 0)",
+            nativeQuery = true)
+    void create(@Param("userId") int userId, @Param("day") LocalDate day);
+
+    /**
+     * @param userId ID of the user.
+     * @param from   First day of the range.
+     * @param to     Last day of the range.
+     * @return Days of the range during which the user solved at least one quiz, in order of days.
+     */
+    @Query("select a from DailyActivity a where a.userId = :userId and a.day between :from and :to " +
+            "and a.solves > 0 order by a.day")
+    List<DailyActivity> findByUser(@Param("userId") int userId, @Param("from") LocalDate from,
+                                   @Param("to") LocalDate to);
+}
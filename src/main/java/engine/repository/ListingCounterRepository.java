@@ -0,0 +1,45 @@
+package engine.repository;
+
+import engine.dataobject.ListingCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import javax.transaction.Transactional;
+import java.util.Collection;
+import java.util.List;
+
+
+/**
+ * Interface for providing CRUD methods for ListingCounter objects.
+ */
+@Repository
+public interface ListingCounterRepository extends JpaRepository<ListingCounter, String> {
+
+    /**
+     * Atomically changes value of the counter.
+     *
+     * @param name  Name of the counter.
+     * @param delta Value to add, negative to subtract.
+     * @return Number of updated counters, 0 if there's no counter with such name.
+     */
+    @Transactional
+    @Modifying
+    @Query("update ListingCounter c set c.value = c.value + :delta where c.name = :name")
+    int add(@Param("name") String name, @Param("delta") long delta);
+
+    /**
+     * Reads counters and locks them until the end of the current transaction, so counted records can't change
+     * in the meantime: every transaction adding or removing counted records changes their counter as well.
+     *
+     * @param names Names of counters.
+     * @return Existing counters of the names, in order of names, so concurrent callers lock them in the same order.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from ListingCounter c where c.name in :names order by c.name")
+    List<ListingCounter> findAllForUpdate(@Param("names") Collection<String> names);
+}
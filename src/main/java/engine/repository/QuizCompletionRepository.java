@@ -1,13 +1,22 @@
 package engine.repository;
 
-import engine.dataobject.Quiz;
+import engine.completion.StoredCompletion;
+import engine.dataobject.LeaderboardEntry;
 import engine.dataobject.QuizCompletion;
 import engine.dataobject.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 
 /**
  * Interface for providing CRUD methods for QuizCompletion objects.
@@ -23,7 +32,99 @@ public interface QuizCompletionRepository extends JpaRepository<QuizCompletion,
     Page<QuizCompletion> findAllByUserOrderByCompletedAtDesc(Pageable pageable, User user);
 
     /**
-     * @param quiz Removes from the repository all quiz completions of the specified quiz.
+     * @param user     User by which filtered quiz completions.
+     * @param pageable Specifies page number and size of the page that should be returned.
+     * @return Quiz completions by specified user, sorted by time of completion starting from the most recent,
+     * without counting total number of completions.
+     */
+    @Query("select c from QuizCompletion c where c.user = :user order by c.completedAt desc")
+    Slice<QuizCompletion> findSliceByUser(@Param("user") User user, Pageable pageable);
+
+    /**
+     * @param user User by which filtered quiz completions.
+     * @return Number of quiz completions by specified user.
+     */
+    long countByUser(User user);
+
+    /**
+     * @param user User by which filtered quiz completions.
+     * @return IDs of quizzes completed by specified user.
+     */
+    @Query("select distinct c.quizID from QuizCompletion c where c.user = :user")
+    List<Integer> findQuizIdsByUser(@Param("user") User user);
+
+    /**
+     * @param cutoff   Time before which completions are returned.
+     * @param pageable Specifies maximum number of returned rows.
+     * @return Rows of ID, user ID, quiz ID and time of completion of completions made before the cutoff,
+     * starting from the oldest.
+     */
+    @Query("select c.id, c.user.id, c.quizID, c.completedAt from QuizCompletion c " +
+            "where c.completedAt < :cutoff order by c.completedAt, c.id")
+    List<Object[]> findArchivableRows(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    /**
+     * @param ids IDs of quiz completions to remove.
+     * @return Number of removed quiz completions.
+     */
+    @Modifying
+    @Query("delete from QuizCompletion c where c.id in :ids")
+    int deleteAllByIds(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * @param quizId ID of the quiz which completions are removed.
+     * @return Number of removed quiz completions.
+     */
+    @Modifying
+    @Query("delete from QuizCompletion c where c.quizID = :quizId")
+    int deleteByQuizId(@Param("quizId") int quizId);
+
+    /**
+     * @return IDs of quizzes completed at least once.
+     */
+    @Query("select distinct c.quizID from QuizCompletion c")
+    List<Integer> findQuizIds();
+
+    /**
+     * @return Number of quiz completions of every user who has completed at least one quiz.
+     */
+    @Query("select new engine.dataobject.LeaderboardEntry(u.email, count(c)) " +
+            "from QuizCompletion c join c.user u group by u.email")
+    List<LeaderboardEntry> countCompletionsByUser();
+
+    /**
+     * @param from Earliest time of completion to count.
+     * @return Number of quiz completions since provided time of every user who has completed at least one quiz.
+     */
+    @Query("select new engine.dataobject.LeaderboardEntry(u.email, count(c)) " +
+            "from QuizCompletion c join c.user u where c.completedAt >= :from group by u.email")
+    List<LeaderboardEntry> countCompletionsByUserSince(@Param("from") LocalDateTime from);
+
+    /**
+     * @param quizId ID of the quiz by which filtered quiz completions.
+     * @return Every completion of the specified quiz along with ID and name of the user.
+     */
+    @Query("select new engine.completion.StoredCompletion(u.id, u.email, c.quizID, c.completedAt) " +
+            "from QuizCompletion c join c.user u where c.quizID = :quizId")
+    List<StoredCompletion> findStoredByQuizId(@Param("quizId") int quizId);
+
+    /**
+     * @param pageable Specifies maximum number of returned IDs.
+     * @return IDs of quizzes, from the most solved one.
+     */
+    @Query("select c.quizID from QuizCompletion c group by c.quizID order by count(c) desc")
+    List<Integer> findMostSolvedQuizIds(Pageable pageable);
+
+    /**
+     * @return Rows of user ID and number of quiz completions of every user who has completed at least one quiz.
+     */
+    @Query("select c.user.id, count(c) from QuizCompletion c group by c.user.id")
+    List<Object[]> countCompletionsByUserId();
+
+    /**
+     * @return Rows of user ID, day and number of quiz completions of every user during every day of activity.
      */
-    void deleteByQuiz(Quiz quiz);
+    @Query(value = "select user_id, cast(completed_at as date), count(*) from quiz_completion " +
+            "group by user_id, cast(completed_at as date)", nativeQuery = true)
+    List<Object[]> countCompletionsByUserIdAndDay();
 }
@@ -3,9 +3,13 @@ package engine.repository;
 import engine.dataobject.Quiz;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 
 /**
  * Interface for providing CRUD methods for Quiz objects.
@@ -18,4 +22,32 @@ public interface QuizRepository extends JpaRepository<Quiz, Integer> {
      * @return All quizzes.
      */
     Page<Quiz> findAll(Pageable pageable);
+
+    /**
+     * @param pageable Specifies page number and size of the page that should be returned.
+     * @return Quizzes of the page, without counting total number of quizzes.
+     */
+    @Query("select q from quiz q")
+    Slice<Quiz> findSlice(Pageable pageable);
+
+    /**
+     * @return Rows of ID, title, text, options stored in a single column and one of options stored in rows
+     * of every quiz, ordered by quiz ID. Quiz without options stored in rows is represented by single row
+     * with null option.
+     */
+    @Query("select q.id, q.title, q.text, q.compactOptions, o from quiz q left join q.storedOptions o order by q.id")
+    List<Object[]> findAllSearchableFields();
+
+    /**
+     * @param pageable Specifies maximum number of returned IDs.
+     * @return IDs of quizzes which options are stored in rows.
+     */
+    @Query("select q.id from quiz q where q.compactOptions is null order by q.id")
+    List<Integer> findRowStorageIds(Pageable pageable);
+
+    /**
+     * @return IDs of all quizzes.
+     */
+    @Query("select q.id from quiz q")
+    List<Integer> findAllIds();
 }
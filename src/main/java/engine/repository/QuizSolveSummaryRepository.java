@@ -0,0 +1,134 @@
+package engine.repository;
+
+import engine.completion.StoredCompletion;
+import engine.dataobject.LeaderboardEntry;
+import engine.dataobject.QuizSolveSummary;
+import engine.dataobject.QuizSolveSummaryId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+
+
+/**
+ * Interface for providing CRUD methods for QuizSolveSummary objects.
+ */
+@Repository
+public interface QuizSolveSummaryRepository extends JpaRepository<QuizSolveSummary, QuizSolveSummaryId> {
+
+    /**
+     * Records a solution of the quiz by the user with a single statement: creates the summary on the first solution,
+     * otherwise moves time of the last solution and increments number of solutions.
+     *
+     * @param userId   ID of the user.
+     * @param quizId   ID of the quiz.
+     * @param solvedAt Date and time when quiz was solved.
+     * @return Number of solutions after this one, 1 if the summary was created.
+     */
+    @Query(value = "select solves from final table (merge into quiz_solve_summary s using " +
+            "(select cast(:userId as int) user_id, cast(:quizId as int) quiz_id, " +
+            "cast(:solvedAt as timestamp) solved_at) n on s.user_id = n.user_id and s.quiz_id = n.quiz_id " +
+            "when matched then update set s.last_solved_at = n.solved_at, s.solves = s.solves + 1 " +
+            "when not matched then insert (user_id, quiz_id, first_solved_at, last_solved_at, solves) " +
+            "values (n.user_id, n.quiz_id, n.solved_at, n.solved_at, 1))", nativeQuery = true)
+    long upsert(@Param("userId") int userId, @Param("quizId") int quizId,
+                @Param("solvedAt") LocalDateTime solvedAt);
+
+    /**
+     * Creates summaries from all stored quiz completions.
+     *
+     * @return Number of created summaries.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "insert into quiz_solve_summary (user_id, quiz_id, first_solved_at, last_solved_at, solves) " +
+            "select user_id, quiz_id, min(completed_at), max(completed_at), count(*) from quiz_completion " +
+            "group by user_id, quiz_id", nativeQuery = true)
+    int insertFromCompletions();
+
+    /**
+     * @param userId   ID of the user.
+     * @param pageable Specifies page number and size of the page that should be returned.
+     * @return Summaries of quizzes solved by the user, starting from the most recently solved one.
+     */
+    @Query("select s from QuizSolveSummary s where s.userId = :userId order by s.lastSolvedAt desc")
+    Slice<QuizSolveSummary> findSliceByUser(@Param("userId") int userId, Pageable pageable);
+
+    /**
+     * @param userId ID of the user.
+     * @return Number of quizzes solved by the user.
+     */
+    @Query("select count(s) from QuizSolveSummary s where s.userId = :userId")
+    long countByUser(@Param("userId") int userId);
+
+    /**
+     * @param userId ID of the user.
+     * @return IDs of quizzes solved by the user.
+     */
+    @Query("select s.quizId from QuizSolveSummary s where s.userId = :userId")
+    List<Integer> findQuizIdsByUser(@Param("userId") int userId);
+
+    /**
+     * @return Rows of user ID and number of solved quizzes of every user who has solved at least one quiz.
+     */
+    @Query("select s.userId, count(s) from QuizSolveSummary s group by s.userId")
+    List<Object[]> countSummariesByUserId();
+
+    /**
+     * @return Number of solutions of every user who has solved at least one quiz.
+     */
+    @Query("select new engine.dataobject.LeaderboardEntry(u.email, sum(s.solves)) " +
+            "from QuizSolveSummary s, User u where u.id = s.userId group by u.email")
+    List<LeaderboardEntry> countSolvesByUser();
+
+    /**
+     * @param from Earliest time of the last solution to count.
+     * @return Number of solutions of quizzes solved the last time since provided time, of every user.
+     */
+    @Query("select new engine.dataobject.LeaderboardEntry(u.email, sum(s.solves)) " +
+            "from QuizSolveSummary s, User u where u.id = s.userId and s.lastSolvedAt >= :from group by u.email")
+    List<LeaderboardEntry> countSolvesByUserSince(@Param("from") LocalDateTime from);
+
+    /**
+     * @return Rows of user ID, day of the last solution and number of solutions, for every user and day.
+     */
+    @Query(value = "select user_id, cast(last_solved_at as date), sum(solves) from quiz_solve_summary " +
+            "group by user_id, cast(last_solved_at as date)", nativeQuery = true)
+    List<Object[]> countSolvesByUserIdAndDay();
+
+    /**
+     * @param pageable Specifies maximum number of returned IDs.
+     * @return IDs of quizzes, from the most solved one.
+     */
+    @Query("select s.quizId from QuizSolveSummary s group by s.quizId order by sum(s.solves) desc")
+    List<Integer> findMostSolvedQuizIds(Pageable pageable);
+
+    /**
+     * @return IDs of quizzes solved at least once.
+     */
+    @Query("select distinct s.quizId from QuizSolveSummary s")
+    List<Integer> findQuizIds();
+
+    /**
+     * @param quizId ID of the quiz.
+     * @return Summaries of the quiz along with names of users.
+     */
+    @Query("select new engine.completion.StoredCompletion(s.userId, u.email, s.quizId, s.lastSolvedAt, s.solves) " +
+            "from QuizSolveSummary s, User u where u.id = s.userId and s.quizId = :quizId")
+    List<StoredCompletion> findStoredByQuiz(@Param("quizId") int quizId);
+
+    /**
+     * @param quizId ID of the quiz which summaries are removed.
+     * @return Number of removed summaries.
+     */
+    @Modifying
+    @Query("delete from QuizSolveSummary s where s.quizId = :quizId")
+    int deleteByQuizId(@Param("quizId") int quizId);
+}
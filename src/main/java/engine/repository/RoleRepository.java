@@ -0,0 +1,13 @@
+package engine.repository;
+
+import engine.dataobject.Role;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+
+/**
+ * Interface for providing CRUD methods for Role objects.
+ */
+@Repository
+public interface RoleRepository extends JpaRepository<Role, Integer> {
+}
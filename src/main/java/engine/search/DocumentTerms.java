@@ -0,0 +1,52 @@
+package engine.search;
+
+import java.util.Map;
+
+
+/**
+ * Distinct terms of a single indexed document along with weights of each term in the document.
+ */
+public class DocumentTerms {
+
+    /**
+     * Distinct terms of the document.
+     */
+    private final String[] terms;
+    /**
+     * Weights of terms, aligned with terms array.
+     */
+    private final int[] weights;
+
+
+    public DocumentTerms(String[] terms, int[] weights) {
+        this.terms = terms;
+        this.weights = weights;
+    }
+
+    /**
+     * @param weightsByTerm Weights of the document terms.
+     * @return Compact representation of provided terms and weights.
+     */
+    public static DocumentTerms of(Map<String, Integer> weightsByTerm) {
+        String[] terms = new String[weightsByTerm.size()];
+        int[] weights = new int[weightsByTerm.size()];
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : weightsByTerm.entrySet()) {
+            terms[i] = entry.getKey();
+            weights[i++] = entry.getValue();
+        }
+        return new DocumentTerms(terms, weights);
+    }
+
+    public int size() {
+        return terms.length;
+    }
+
+    public String getTerm(int i) {
+        return terms[i];
+    }
+
+    public int getWeight(int i) {
+        return weights[i];
+    }
+}
@@ -0,0 +1,164 @@
+package engine.search;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+
+/**
+ * Thread-safe in-memory inverted index. Maps every term to the posting list of documents containing it and keeps
+ * forward index of terms of every document, so documents can be removed or replaced incrementally.
+ */
+public class InvertedIndex {
+
+    /**
+     * Marker written at the beginning of snapshot files, followed by version of the indexed content.
+     */
+    private static final int SNAPSHOT_MAGIC = 0x51494459;
+    /**
+     * Posting lists by terms.
+     */
+    private final Map<String, PostingList> postings = new ConcurrentHashMap<>();
+    /**
+     * Terms and their weights by document IDs.
+     */
+    private final Map<Integer, DocumentTerms> documents = new ConcurrentHashMap<>();
+
+
+    /**
+     * Adds document to the index. If document with the same ID is already indexed it is replaced.
+     *
+     * @param document ID of the document.
+     * @param terms    Terms of the document along with their weights.
+     */
+    public void add(int document, DocumentTerms terms) {
+        DocumentTerms previous = documents.put(document, terms);
+        if (previous != null) {
+            removePostings(document, previous);
+        }
+        for (int i = 0; i < terms.size(); i++) {
+            int weight = terms.getWeight(i);
+            postings.compute(terms.getTerm(i), (term, postingList) -> {
+                PostingList list = postingList == null ? new PostingList() : postingList;
+                list.add(document, weight);
+                return list;
+            });
+        }
+    }
+
+    /**
+     * Removes document from the index.
+     *
+     * @param document ID of the document.
+     */
+    public void remove(int document) {
+        DocumentTerms terms = documents.remove(document);
+        if (terms != null) {
+            removePostings(document, terms);
+        }
+    }
+
+    /**
+     * Ranks documents matching any of provided terms. Score of a document is the sum of weights of matched terms
+     * multiplied by their inverse document frequency, so rare terms and documents matching more terms rank higher.
+     *
+     * @param terms      Terms to search for.
+     * @param maxResults Maximum number of returned documents.
+     * @return IDs of matching documents, from the most relevant to the least one.
+     */
+    public List<Integer> search(Collection<String> terms, int maxResults) {
+        Map<Integer, Double> scores = new HashMap<>();
+        int documentCount = documents.size();
+        for (String term : new HashSet<>(terms)) {
+            PostingList postingList = postings.get(term);
+            if (postingList != null) {
+                postingList.score(scores, Math.log(1.0 + (double) documentCount / Math.max(1, postingList.size())));
+            }
+        }
+        List<Map.Entry<Integer, Double>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort(Map.Entry.<Integer, Double>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()));
+        List<Integer> result = new ArrayList<>(Math.min(maxResults, ranked.size()));
+        for (int i = 0; i < ranked.size() && i < maxResults; i++) {
+            result.add(ranked.get(i).getKey());
+        }
+        return result;
+    }
+
+    /**
+     * @return Number of indexed documents.
+     */
+    public int size() {
+        return documents.size();
+    }
+
+    /**
+     * Writes forward index into compressed file. Posting lists are not stored and rebuilt on loading.
+     *
+     * @param file    File to write into.
+     * @param version Version of the indexed content, taken before the index is written, so the snapshot contains
+     *                at least the content of the version.
+     * @throws IOException If file cannot be written.
+     */
+    public void writeSnapshot(File file, long version) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(new FileOutputStream(file))))) {
+            Map<Integer, DocumentTerms> copy = new TreeMap<>(documents);
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeLong(version);
+            out.writeInt(copy.size());
+            for (Map.Entry<Integer, DocumentTerms> entry : copy.entrySet()) {
+                DocumentTerms terms = entry.getValue();
+                out.writeInt(entry.getKey());
+                out.writeInt(terms.size());
+                for (int i = 0; i < terms.size(); i++) {
+                    out.writeUTF(terms.getTerm(i));
+                    out.writeInt(terms.getWeight(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads index from the file written by writeSnapshot if it has the expected version.
+     *
+     * @param file    File to read from.
+     * @param version Expected version of the indexed content.
+     * @return Index restored from the file, or null if the snapshot has another version.
+     * @throws IOException If file cannot be read or has wrong format.
+     */
+    public static InvertedIndex readSnapshot(File file, long version) throws IOException {
+        InvertedIndex index = new InvertedIndex();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(new FileInputStream(file))))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Not a search index snapshot: " + file);
+            }
+            if (in.readLong() != version) {
+                return null;
+            }
+            int documentCount = in.readInt();
+            for (int d = 0; d < documentCount; d++) {
+                int document = in.readInt();
+                int termCount = in.readInt();
+                String[] terms = new String[termCount];
+                int[] weights = new int[termCount];
+                for (int i = 0; i < termCount; i++) {
+                    terms[i] = in.readUTF();
+                    weights[i] = in.readInt();
+                }
+                index.add(document, new DocumentTerms(terms, weights));
+            }
+        }
+        return index;
+    }
+
+    private void removePostings(int document, DocumentTerms terms) {
+        for (int i = 0; i < terms.size(); i++) {
+            postings.computeIfPresent(terms.getTerm(i), (term, postingList) ->
+                    postingList.remove(document) ? null : postingList);
+        }
+    }
+}
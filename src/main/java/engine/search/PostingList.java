@@ -0,0 +1,87 @@
+package engine.search;
+
+import java.util.Arrays;
+import java.util.Map;
+
+
+/**
+ * Compact posting list of a single term: IDs of documents containing the term, kept sorted in ascending order,
+ * and the weight of the term in each of these documents.
+ */
+class PostingList {
+
+    /**
+     * Sorted IDs of documents containing the term. Only first size elements are used.
+     */
+    private int[] documents = new int[4];
+    /**
+     * Weights of the term in documents, aligned with documents array.
+     */
+    private int[] weights = new int[4];
+    /**
+     * Number of documents in the list.
+     */
+    private int size;
+
+
+    /**
+     * Adds document to the list or replaces its weight if the document is already present. Documents are added
+     * in ascending order of IDs most of the time, so in the common case it is an append.
+     *
+     * @param document ID of the document.
+     * @param weight   Weight of the term in the document.
+     */
+    synchronized void add(int document, int weight) {
+        int position = size > 0 && documents[size - 1] < document
+                ? -size - 1 : Arrays.binarySearch(documents, 0, size, document);
+        if (position >= 0) {
+            weights[position] = weight;
+            return;
+        }
+        position = -position - 1;
+        if (size == documents.length) {
+            documents = Arrays.copyOf(documents, size * 2);
+            weights = Arrays.copyOf(weights, size * 2);
+        }
+        System.arraycopy(documents, position, documents, position + 1, size - position);
+        System.arraycopy(weights, position, weights, position + 1, size - position);
+        documents[position] = document;
+        weights[position] = weight;
+        size++;
+    }
+
+    /**
+     * Removes document from the list if present.
+     *
+     * @param document ID of the document.
+     * @return True if the list became empty.
+     */
+    synchronized boolean remove(int document) {
+        int position = Arrays.binarySearch(documents, 0, size, document);
+        if (position >= 0) {
+            System.arraycopy(documents, position + 1, documents, position, size - position - 1);
+            System.arraycopy(weights, position + 1, weights, position, size - position - 1);
+            size--;
+        }
+        return size == 0;
+    }
+
+    /**
+     * Adds weighted score of every document in the list to the accumulator.
+     *
+     * @param scores Accumulator of scores of documents.
+     * @param idf    Inverse document frequency of the term.
+     */
+    synchronized void score(Map<Integer, Double> scores, double idf) {
+        for (int i = 0; i < size; i++) {
+            scores.merge(documents[i], weights[i] * idf, Double::sum);
+        }
+    }
+
+    /**
+     * @return Number of documents containing the term.
+     */
+    synchronized int size() {
+        return size;
+    }
+}
@@ -0,0 +1,186 @@
+package engine.service;
+
+import engine.attempt.AttemptLogFormat;
+import engine.attempt.AttemptLogWriter;
+import engine.attempt.AttemptRingBuffer;
+import engine.attempt.AttemptVisitor;
+import engine.dataobject.AnswerMaskConverter;
+import engine.dataobject.User;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.List;
+
+
+/**
+ * Service class for recording every attempt to solve a quiz, correct or not, into the append-only attempt log.
+ * Request threads only publish attempts into the lock-free ring buffer, a single writer thread stores them into
+ * memory-mapped segment files. Segments older than configured retention are removed.
+ */
+@Service
+public class AttemptLogService {
+
+    private static final Logger log = LoggerFactory.getLogger(AttemptLogService.class);
+
+    /**
+     * Registry of application metrics.
+     */
+    private MeterRegistry meterRegistry;
+    /**
+     * True if attempts are recorded.
+     */
+    @Value("${quiz.attempts.enabled:true}")
+    private boolean enabled;
+    /**
+     * Directory of segment files.
+     */
+    @Value("${quiz.attempts.directory:quiz-attempts}")
+    private String directory;
+    /**
+     * Number of attempts buffered before writing, attempts over it are dropped.
+     */
+    @Value("${quiz.attempts.buffer-size:65536}")
+    private int bufferSize;
+    /**
+     * Size of every segment file in megabytes.
+     */
+    @Value("${quiz.attempts.segment-size-mb:16}")
+    private int segmentSizeMb;
+    /**
+     * Age in days after which segments are removed, segments are kept forever if not positive.
+     */
+    @Value("${quiz.attempts.retention-days:30}")
+    private int retentionDays;
+    /**
+     * Buffer of attempts not written yet.
+     */
+    private AttemptRingBuffer ringBuffer;
+    /**
+     * Writer of attempts, null if recording is disabled.
+     */
+    private AttemptLogWriter writer;
+
+
+    /**
+     * Records attempt to solve the quiz. Never blocks, attempt is dropped if the buffer is full.
+     *
+     * @param quizId             ID of the quiz.
+     * @param answer             Submitted answer.
+     * @param correct            True if the answer is correct.
+     * @param httpServletRequest HTTP request with which answer was submitted.
+     */
+    public void record(int quizId, List<Integer> answer, boolean correct, HttpServletRequest httpServletRequest) {
+        if (writer == null) {
+            return;
+        }
+        int flags = (correct ? AttemptVisitor.CORRECT : 0)
+                | (AnswerMaskConverter.canConvert(answer) ? 0 : AttemptVisitor.INEXACT_ANSWER);
+        ringBuffer.offer(quizId, userId(httpServletRequest), System.currentTimeMillis(), toMask(answer), flags);
+    }
+
+    /**
+     * Passes recorded attempts made within time range to the visitor, in order of recording. Attempts still
+     * in the buffer are not included.
+     *
+     * @param from    Earliest time of attempts in milliseconds since the epoch, inclusive.
+     * @param to      Latest time of attempts in milliseconds since the epoch, exclusive.
+     * @param visitor Visitor of attempts.
+     * @throws IOException If segment files cannot be read.
+     */
+    public void replay(long from, long to, AttemptVisitor visitor) throws IOException {
+        AttemptLogFormat.replay(Paths.get(directory), from, to, visitor);
+    }
+
+    /**
+     * Removes segments older than configured retention.
+     */
+    @Scheduled(fixedDelayString = "${quiz.attempts.retention-check-interval-ms:3600000}")
+    public void removeExpiredSegments() {
+        if (writer == null || retentionDays <= 0) {
+            return;
+        }
+        long expiredBefore = System.currentTimeMillis() - Duration.ofDays(retentionDays).toMillis();
+        try {
+            for (Path segment : AttemptLogFormat.segments(Paths.get(directory))) {
+                if (!segment.equals(writer.getCurrentFile())
+                        && Files.getLastModifiedTime(segment).toMillis() < expiredBefore) {
+                    Files.delete(segment);
+                    log.info("Removed expired attempt log segment {}", segment);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to remove expired attempt log segments", e);
+        }
+    }
+
+    /**
+     * Starts writer of attempts if recording is enabled.
+     *
+     * @throws IOException If segment file cannot be created.
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        ringBuffer = new AttemptRingBuffer(bufferSize);
+        writer = new AttemptLogWriter(Paths.get(directory), segmentSizeMb << 20, ringBuffer);
+        FunctionCounter.builder("quiz.attempts.dropped", ringBuffer, AttemptRingBuffer::getDropped)
+                .description("Attempts not recorded because the buffer was full")
+                .register(meterRegistry);
+        FunctionCounter.builder("quiz.attempts.write-failures", writer, AttemptLogWriter::getFailures)
+                .description("Failed attempts to write the attempt log, writing is retried after every failure")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Writes all buffered attempts and stops the writer.
+     */
+    @PreDestroy
+    public void stop() {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+
+    private static int userId(HttpServletRequest httpServletRequest) {
+        Principal principal = httpServletRequest.getUserPrincipal();
+        if (principal instanceof Authentication && ((Authentication) principal).getPrincipal() instanceof User) {
+            return ((User) ((Authentication) principal).getPrincipal()).getId();
+        }
+        return 0;
+    }
+
+    private static long toMask(List<Integer> answer) {
+        long mask = 0;
+        if (answer != null) {
+            for (Integer index : answer) {
+                if (index != null && index >= 0 && index < Long.SIZE) {
+                    mask |= 1L << index;
+                }
+            }
+        }
+        return mask;
+    }
+
+    @Autowired
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+}
@@ -0,0 +1,439 @@
+package engine.service;
+
+import engine.archive.ArchivedCompletion;
+import engine.archive.CompletionSegment;
+import engine.completion.CompletionStore;
+import engine.invalidation.InvalidationTransport;
+import engine.dataobject.QuizCompletion;
+import engine.repository.QuizCompletionRepository;
+import engine.repository.QuizRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+
+/**
+ * Service class for archiving old quiz completions. Completions older than configured age are periodically moved
+ * from DB into append-only segment files, one or more per month of completion, and read back through memory-mapped
+ * segments. Completions of deleted quizzes stay in segments and are skipped on reading.
+ */
+@Service
+public class CompletionArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(CompletionArchiveService.class);
+    /**
+     * Suffix of names of segment files.
+     */
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    /**
+     * Providing CRUD methods for QuizCompletion objects.
+     */
+    private QuizCompletionRepository quizCompletionRepository;
+    /**
+     * Providing CRUD methods for Quiz objects.
+     */
+    private QuizRepository quizRepository;
+    /**
+     * Storage of records about solved quizzes, only completions stored in the main DB are archived.
+     */
+    private CompletionStore completionStore;
+    /**
+     * Providing total numbers of records of paged listings.
+     */
+    private ListingCounterService listingCounterService;
+    /**
+     * Transport of changes between instances, if several instances share the DB.
+     */
+    private ObjectProvider<InvalidationTransport> transport;
+    /**
+     * Runs every archived batch in a separate transaction.
+     */
+    private TransactionTemplate transactionTemplate;
+    /**
+     * Directory of segment files.
+     */
+    @Value("${quiz.archive.directory:quiz-archive}")
+    private String directory;
+    /**
+     * Age in days after which completions are archived, archiving is disabled if not positive.
+     */
+    @Value("${quiz.archive.max-age-days:90}")
+    private int maxAgeDays;
+    /**
+     * Number of completions archived in a single transaction.
+     */
+    @Value("${quiz.archive.batch-size:10000}")
+    private int batchSize;
+    /**
+     * All segments, from the newest to the oldest. Replaced as a whole when segments are added.
+     */
+    private volatile List<CompletionSegment> segments = Collections.emptyList();
+    /**
+     * Number of archived completions of existing quizzes by user IDs.
+     */
+    private final Map<Integer, Long> counts = new ConcurrentHashMap<>();
+    /**
+     * IDs of deleted quizzes which completions are archived.
+     */
+    private final Set<Integer> deletedQuizzes = ConcurrentHashMap.newKeySet();
+    /**
+     * Sequence number of the next segment file.
+     */
+    private long nextSequence = 1;
+
+
+    /**
+     * @param userId ID of the user.
+     * @return Number of archived completions of the user.
+     */
+    public long count(int userId) {
+        return counts.getOrDefault(userId, 0L);
+    }
+
+    /**
+     * @return Number of archived completions of every user who has at least one.
+     */
+    public Map<Integer, Long> countByUser() {
+        return new HashMap<>(counts);
+    }
+
+    /**
+     * @return Number of archived completions of existing quizzes by every user during every day of activity.
+     */
+    public Map<Integer, Map<LocalDate, Long>> countByUserAndDay() {
+        Map<Integer, Map<LocalDate, Long>> activity = new HashMap<>();
+        for (CompletionSegment segment : segments) {
+            segment.forEach((userId, id, quizId, completedAt) -> {
+                if (!deletedQuizzes.contains(quizId)) {
+                    activity.computeIfAbsent(userId, user -> new HashMap<>())
+                            .merge(ArchivedCompletion.toDateTime(completedAt).toLocalDate(), 1L, Long::sum);
+                }
+                return true;
+            });
+        }
+        return activity;
+    }
+
+    /**
+     * @param userId ID of the user.
+     * @return IDs of existing quizzes with archived completions of the user.
+     */
+    public Set<Integer> getQuizIds(int userId) {
+        Set<Integer> quizIds = new HashSet<>();
+        for (CompletionSegment segment : segments) {
+            segment.forEach(userId, (user, id, quizId, completedAt) -> {
+                if (!deletedQuizzes.contains(quizId)) {
+                    quizIds.add(quizId);
+                }
+                return true;
+            });
+        }
+        return quizIds;
+    }
+
+    /**
+     * Retrieves archived completions of the user, from the most recent.
+     *
+     * @param userId ID of the user.
+     * @param offset Number of archived completions to skip.
+     * @param limit  Maximum number of returned completions.
+     * @return Completions of the user.
+     */
+    public List<QuizCompletion> getCompletions(int userId, long offset, int limit) {
+        List<QuizCompletion> result = new ArrayList<>(limit);
+        if (limit <= 0) {
+            return result;
+        }
+        long[] skip = {offset};
+        for (CompletionSegment segment : segments) {
+            if (deletedQuizzes.isEmpty() && skip[0] >= segment.count(userId)) {
+                skip[0] -= segment.count(userId);
+                continue;
+            }
+            boolean more = segment.forEach(userId, (user, id, quizId, completedAt) -> {
+                if (deletedQuizzes.contains(quizId)) {
+                    return true;
+                }
+                if (skip[0] > 0) {
+                    skip[0]--;
+                    return true;
+                }
+                result.add(new QuizCompletion(null, null, quizId, ArchivedCompletion.toDateTime(completedAt)));
+                return result.size() < limit;
+            });
+            if (!more) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param quizId ID of the quiz.
+     * @return Times of archived completions of the quiz by IDs of users who completed it, empty if the quiz
+     * was deleted.
+     */
+    public Map<Integer, List<LocalDateTime>> getQuizCompletions(int quizId) {
+        return deletedQuizzes.contains(quizId) ? new HashMap<>() : findQuizCompletions(quizId);
+    }
+
+    /**
+     * Excludes archived completions of the deleted quiz. Called once deletion of the quiz is committed.
+     *
+     * @param quizId ID of the deleted quiz.
+     * @return Times of excluded completions of the quiz by IDs of users who completed it, empty if they were
+     * already excluded.
+     */
+    public synchronized Map<Integer, List<LocalDateTime>> deleteQuiz(int quizId) {
+        if (!deletedQuizzes.add(quizId)) {
+            return new HashMap<>();
+        }
+        Map<Integer, List<LocalDateTime>> completions = findQuizCompletions(quizId);
+        completions.forEach((userId, times) -> counts.merge(userId, (long) -times.size(), Long::sum));
+        return completions;
+    }
+
+    private Map<Integer, List<LocalDateTime>> findQuizCompletions(int quizId) {
+        Map<Integer, List<LocalDateTime>> completions = new HashMap<>();
+        for (CompletionSegment segment : segments) {
+            segment.forEach((userId, id, quiz, completedAt) -> {
+                if (quiz == quizId) {
+                    completions.computeIfAbsent(userId, user -> new ArrayList<>())
+                            .add(ArchivedCompletion.toDateTime(completedAt));
+                }
+                return true;
+            });
+        }
+        return completions;
+    }
+
+    /**
+     * Moves completions older than configured age from DB into new segments, batch by batch.
+     */
+    @Scheduled(initialDelayString = "${quiz.archive.interval-ms:3600000}",
+            fixedDelayString = "${quiz.archive.interval-ms:3600000}")
+    public void archive() {
+        if (maxAgeDays <= 0 || !completionStore.isArchivable()) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDate.now().minusDays(maxAgeDays).atStartOfDay();
+        long start = System.currentTimeMillis();
+        int archived = 0;
+        int batch;
+        do {
+            batch = archiveBatch(cutoff);
+            archived += batch;
+        } while (batch == batchSize);
+        if (archived > 0) {
+            log.info("Archived {} quiz completions older than {} in {} ms", archived, cutoff,
+                    System.currentTimeMillis() - start);
+        }
+    }
+
+    /**
+     * Opens existing segments and removes from DB completions of segments which were written, but not committed
+     * because of a crash. Refuses to start if instances share the DB while completions are archived, as segments
+     * are local to this instance and archived completions would be missing on the others.
+     *
+     * @throws IOException If segment files cannot be read.
+     */
+    @PostConstruct
+    public void load() throws IOException {
+        if (maxAgeDays > 0 && completionStore.isArchivable() && transport.getIfAvailable() != null) {
+            throw new IllegalStateException("Archive segments are local to this instance, set "
+                    + "quiz.archive.max-age-days=0 when instances share the DB through quiz.invalidation.transport");
+        }
+        Path path = Paths.get(directory);
+        if (!Files.isDirectory(path)) {
+            return;
+        }
+        List<Path> files;
+        try (Stream<Path> list = Files.list(path)) {
+            files = list.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted(Comparator.reverseOrder())
+                    .collect(Collectors.toList());
+        }
+        List<CompletionSegment> opened = new ArrayList<>();
+        for (Path file : files) {
+            opened.add(CompletionSegment.open(file));
+        }
+        if (!files.isEmpty()) {
+            String name = files.get(0).getFileName().toString();
+            nextSequence = Long.parseLong(name.substring(0, name.indexOf('-'))) + 1;
+        }
+        Set<Integer> quizIds = new HashSet<>(quizRepository.findAllIds());
+        for (CompletionSegment segment : opened) {
+            if (quizCompletionRepository.existsById(segment.getSampleId())) {
+                List<Integer> ids = new ArrayList<>();
+                segment.forEach((userId, id, quizId, completedAt) -> ids.add(id));
+                transactionTemplate.execute(status -> quizCompletionRepository.deleteAllByIds(ids));
+                log.warn("Removed {} quiz completions already archived in {}", ids.size(), segment.getFile());
+            }
+            segment.forEach((userId, id, quizId, completedAt) -> {
+                if (quizIds.contains(quizId)) {
+                    counts.merge(userId, 1L, Long::sum);
+                } else {
+                    deletedQuizzes.add(quizId);
+                }
+                return true;
+            });
+        }
+        segments = Collections.unmodifiableList(opened);
+        log.info("Opened {} quiz completion archive segments", opened.size());
+    }
+
+    /**
+     * Writes the oldest archivable completions into new segment files and only then removes them from DB, so that
+     * segment files are never written inside a transaction. Written files are deleted if removal does not commit,
+     * and a crash between the two steps is repaired on the next start by {@link #load()}.
+     *
+     * @param cutoff Completions before this time are archived.
+     * @return Number of archived completions, 0 if none were archived.
+     */
+    private int archiveBatch(LocalDateTime cutoff) {
+        List<Object[]> rows = quizCompletionRepository.findArchivableRows(cutoff, PageRequest.of(0, batchSize));
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        Map<YearMonth, List<ArchivedCompletion>> byMonth = new TreeMap<>();
+        Map<Integer, Long> byUser = new HashMap<>();
+        List<Integer> ids = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            LocalDateTime completedAt = (LocalDateTime) row[3];
+            byMonth.computeIfAbsent(YearMonth.from(completedAt), month -> new ArrayList<>())
+                    .add(new ArchivedCompletion((Integer) row[0], (Integer) row[1], (Integer) row[2],
+                            ArchivedCompletion.toMillis(completedAt)));
+            byUser.merge((Integer) row[1], 1L, Long::sum);
+            ids.add((Integer) row[0]);
+        }
+        List<Path> files = new ArrayList<>();
+        Boolean removed;
+        try {
+            Files.createDirectories(Paths.get(directory));
+            for (Map.Entry<YearMonth, List<ArchivedCompletion>> month : byMonth.entrySet()) {
+                files.add(writeSegment(month.getKey(), month.getValue()));
+            }
+            removed = transactionTemplate.execute(status -> {
+                if (quizCompletionRepository.deleteAllByIds(ids) != ids.size()) {
+                    // Some completions were removed meanwhile together with their quiz, try again next time.
+                    status.setRollbackOnly();
+                    return false;
+                }
+                byUser.forEach((userId, count) -> listingCounterService.add(
+                        ListingCounterService.completions(userId), -count));
+                return true;
+            });
+        } catch (IOException | RuntimeException e) {
+            discard(files);
+            if (e instanceof IOException) {
+                throw new UncheckedIOException((IOException) e);
+            }
+            throw (RuntimeException) e;
+        }
+        if (!Boolean.TRUE.equals(removed)) {
+            discard(files);
+            log.warn("Quiz completions changed while archiving, batch is left in DB");
+            return 0;
+        }
+        List<CompletionSegment> written = new ArrayList<>();
+        try {
+            for (Path file : files) {
+                written.add(CompletionSegment.open(file));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        publish(written);
+        return rows.size();
+    }
+
+    private Path writeSegment(YearMonth month, List<ArchivedCompletion> completions) throws IOException {
+        Path file = Paths.get(directory, String.format("%012d-%s%s", nextSequence++, month, SEGMENT_SUFFIX));
+        Path temporary = Paths.get(directory, file.getFileName() + ".tmp");
+        try {
+            CompletionSegment.write(temporary, completions);
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        return file;
+    }
+
+    private void discard(List<Path> files) {
+        for (Path file : files) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.error("Cannot delete segment {} of a not archived batch", file, e);
+            }
+        }
+    }
+
+    private synchronized void publish(List<CompletionSegment> written) {
+        if (written.isEmpty()) {
+            return;
+        }
+        for (CompletionSegment segment : written) {
+            segment.forEach((userId, id, quizId, completedAt) -> {
+                if (!deletedQuizzes.contains(quizId)) {
+                    counts.merge(userId, 1L, Long::sum);
+                }
+                return true;
+            });
+        }
+        List<CompletionSegment> updated = new ArrayList<>(written);
+        Collections.reverse(updated);
+        updated.addAll(segments);
+        segments = Collections.unmodifiableList(updated);
+    }
+
+    @Autowired
+    public void setQuizCompletionRepository(QuizCompletionRepository quizCompletionRepository) {
+        this.quizCompletionRepository = quizCompletionRepository;
+    }
+
+    @Autowired
+    public void setQuizRepository(QuizRepository quizRepository) {
+        this.quizRepository = quizRepository;
+    }
+
+    @Autowired
+    public void setCompletionStore(CompletionStore completionStore) {
+        this.completionStore = completionStore;
+    }
+
+    @Autowired
+    public void setListingCounterService(ListingCounterService listingCounterService) {
+        this.listingCounterService = listingCounterService;
+    }
+
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Autowired
+    public void setTransport(ObjectProvider<InvalidationTransport> transport) {
+        this.transport = transport;
+    }
+}
@@ -0,0 +1,181 @@
+package engine.service;
+
+import engine.completion.CompletionStore;
+import engine.completion.StoredCompletion;
+import engine.dataobject.DailyActivity;
+import engine.dataobject.DailyActivityId;
+import engine.dataobject.User;
+import engine.repository.DailyActivityRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+
+
+/**
+ * Service class for providing activity of users: number of quizzes solved per day or week. Daily rollups are
+ * changed along with completions, in the same transaction of the main DB, so activity is read from rollups only.
+ * Rollups include archived completions.
+ */
+@Service
+public class DailyActivityService implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(DailyActivityService.class);
+
+    /**
+     * Providing CRUD methods for DailyActivity objects.
+     */
+    private DailyActivityRepository dailyActivityRepository;
+    /**
+     * Storage of records about solved quizzes.
+     */
+    private CompletionStore completionStore;
+    /**
+     * Providing archived quiz completions.
+     */
+    private CompletionArchiveService completionArchiveService;
+    /**
+     * Runs initial filling of rollups in a single transaction.
+     */
+    private TransactionTemplate transactionTemplate;
+    /**
+     * Creates missing rollups in their own transactions, committed independently of the current one.
+     */
+    private TransactionTemplate newTransactionTemplate;
+
+
+    /**
+     * Adds solves to the rollup of the user within the current transaction.
+     *
+     * @param userId      ID of the user.
+     * @param completedAt Date and time when quizzes were solved.
+     * @param solves      Number of solved quizzes.
+     */
+    public void addCompletions(int userId, LocalDateTime completedAt, long solves) {
+        add(userId, completedAt.toLocalDate(), solves);
+    }
+
+    /**
+     * Subtracts removed completions of a deleted quiz from rollups within the current transaction. Deduplicated
+     * completions are left in rollups: their solutions were added to the days they were made on, but only the day
+     * of the last one is known, so subtracting them from that day would take it below zero.
+     *
+     * @param removed  Completions removed from the store.
+     * @param archived Times of archived completions of the quiz by IDs of users who completed it.
+     */
+    public void deleteCompletions(List<StoredCompletion> removed, Map<Integer, List<LocalDateTime>> archived) {
+        Map<DailyActivityId, Long> deltas = new HashMap<>();
+        for (StoredCompletion completion : removed) {
+            if (!completion.isSingleSolve()) {
+                continue;
+            }
+            deltas.merge(new DailyActivityId(completion.getUserId(), completion.getCompletedAt().toLocalDate()),
+                    -1L, Long::sum);
+        }
+        archived.forEach((userId, times) -> times.forEach(time ->
+                deltas.merge(new DailyActivityId(userId, time.toLocalDate()), -1L, Long::sum)));
+        deltas.forEach((id, delta) -> add(id.getUserId(), id.getDay(), delta));
+    }
+
+    /**
+     * Retrieves activity of the user within the range of days.
+     *
+     * @param user   User whose activity is retrieved.
+     * @param from   First day of the range.
+     * @param to     Last day of the range.
+     * @param weekly True to sum activity by weeks, starting on Monday.
+     * @return Days or first days of weeks during which the user solved at least one quiz, with number of solves,
+     * in order of days.
+     */
+    public List<DailyActivity> getActivity(User user, LocalDate from, LocalDate to, boolean weekly) {
+        List<DailyActivity> days = dailyActivityRepository.findByUser(user.getId(), from, to);
+        if (!weekly) {
+            return days;
+        }
+        Map<LocalDate, Long> weeks = new TreeMap<>();
+        for (DailyActivity day : days) {
+            weeks.merge(day.getDay().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)), day.getSolves(),
+                    Long::sum);
+        }
+        List<DailyActivity> result = new ArrayList<>(weeks.size());
+        weeks.forEach((week, solves) -> result.add(new DailyActivity(user.getId(), week, solves)));
+        return result;
+    }
+
+    /**
+     * Fills empty rollups from stored and archived completions, so activity recorded before rollups were
+     * introduced is included.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (dailyActivityRepository.count() > 0) {
+                return;
+            }
+            Map<DailyActivityId, Long> solves = new HashMap<>();
+            for (DailyActivity activity : completionStore.countByUserIdAndDay()) {
+                solves.merge(new DailyActivityId(activity.getUserId(), activity.getDay()), activity.getSolves(),
+                        Long::sum);
+            }
+            completionArchiveService.countByUserAndDay().forEach((userId, days) -> days.forEach((day, count) ->
+                    solves.merge(new DailyActivityId(userId, day), count, Long::sum)));
+            List<DailyActivity> rollups = new ArrayList<>(solves.size());
+            solves.forEach((id, count) -> rollups.add(new DailyActivity(id.getUserId(), id.getDay(), count)));
+            dailyActivityRepository.saveAll(rollups);
+            if (!rollups.isEmpty()) {
+                log.info("Filled {} daily activity rollups from quiz completions", rollups.size());
+            }
+        });
+    }
+
+    /**
+     * Changes rollup of the user for the day within the current transaction. A missing rollup is first created
+     * empty and committed in a separate transaction, so concurrent first solves of the day don't both insert it:
+     * a duplicate insert fails only in its own transaction, and both changes then update the same row. Empty
+     * rollups left by rolled back changes are never listed.
+     */
+    private void add(int userId, LocalDate day, long delta) {
+        if (dailyActivityRepository.add(userId, day, delta) > 0) {
+            return;
+        }
+        try {
+            newTransactionTemplate.executeWithoutResult(status -> dailyActivityRepository.create(userId, day));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Daily activity of user {} on {} was created concurrently", userId, day);
+        }
+        dailyActivityRepository.add(userId, day, delta);
+    }
+
+    @Autowired
+    public void setDailyActivityRepository(DailyActivityRepository dailyActivityRepository) {
+        this.dailyActivityRepository = dailyActivityRepository;
+    }
+
+    @Autowired
+    public void setCompletionStore(CompletionStore completionStore) {
+        this.completionStore = completionStore;
+    }
+
+    @Autowired
+    public void setCompletionArchiveService(CompletionArchiveService completionArchiveService) {
+        this.completionArchiveService = completionArchiveService;
+    }
+
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+}
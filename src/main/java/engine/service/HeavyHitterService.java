@@ -0,0 +1,134 @@
+package engine.service;
+
+import engine.heavyhitter.HeavyHitterReport;
+import engine.heavyhitter.HeavyHitterTracker;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * Service class for detecting heavy hitters in real time: quizzes receiving the most solve attempts, correct or not,
+ * and clients sending the most requests. Counts are approximate and kept in constant memory regardless of traffic,
+ * see HeavyHitterTracker.
+ */
+@Service
+public class HeavyHitterService {
+
+    /**
+     * Name of the tracker of quizzes by solve attempts.
+     */
+    public static final String QUIZZES = "quizzes";
+    /**
+     * Name of the tracker of clients by requests.
+     */
+    public static final String CLIENTS = "clients";
+
+    /**
+     * True if heavy hitters are tracked.
+     */
+    @Value("${quiz.heavy-hitters.enabled:true}")
+    private boolean enabled;
+    /**
+     * Duration of a bucket of trackers in seconds, windows slide by this step.
+     */
+    @Value("${quiz.heavy-hitters.bucket-seconds:10}")
+    private int bucketSeconds;
+    /**
+     * Number of buckets of trackers, the longest window is bucket-seconds * buckets.
+     */
+    @Value("${quiz.heavy-hitters.buckets:60}")
+    private int buckets;
+    /**
+     * Number of stripes of every bucket, concurrent requests record into different stripes.
+     */
+    @Value("${quiz.heavy-hitters.stripes:4}")
+    private int stripes;
+    /**
+     * Number of counters in a row of Count-Min sketches.
+     */
+    @Value("${quiz.heavy-hitters.width:1024}")
+    private int width;
+    /**
+     * Number of rows of Count-Min sketches.
+     */
+    @Value("${quiz.heavy-hitters.depth:4}")
+    private int depth;
+    /**
+     * Number of candidates tracked in every stripe of a bucket.
+     */
+    @Value("${quiz.heavy-hitters.capacity:64}")
+    private int capacity;
+    /**
+     * Trackers by their names.
+     */
+    private final Map<String, HeavyHitterTracker> trackers = new LinkedHashMap<>();
+
+
+    /**
+     * Counts an attempt to solve the quiz.
+     *
+     * @param quizId ID of the quiz.
+     */
+    public void recordAttempt(int quizId) {
+        record(QUIZZES, Integer.toString(quizId));
+    }
+
+    /**
+     * Counts a request of the client.
+     *
+     * @param client Name of the user, or remote address for anonymous requests and requests rejected before
+     *               authentication.
+     */
+    public void recordRequest(String client) {
+        record(CLIENTS, client);
+    }
+
+    /**
+     * @param tracker Name of the tracker.
+     * @param window  Duration of the window in seconds.
+     * @param limit   Maximum number of returned keys.
+     * @return The most frequent keys of the tracker during the window, or null if there's no such tracker.
+     */
+    public HeavyHitterReport getReport(String tracker, long window, int limit) {
+        HeavyHitterTracker heavyHitterTracker = trackers.get(tracker);
+        if (heavyHitterTracker == null) {
+            return null;
+        }
+        return heavyHitterTracker.top(window * 1000, limit, System.currentTimeMillis());
+    }
+
+    /**
+     * @param window Duration of the window in seconds.
+     * @param limit  Maximum number of returned keys of every tracker.
+     * @return The most frequent keys of every tracker during the window, by names of trackers.
+     */
+    public Map<String, HeavyHitterReport> getReports(long window, int limit) {
+        Map<String, HeavyHitterReport> reports = new LinkedHashMap<>();
+        trackers.keySet().forEach(tracker -> reports.put(tracker, getReport(tracker, window, limit)));
+        return reports;
+    }
+
+    /**
+     * Creates trackers if tracking is enabled.
+     */
+    @PostConstruct
+    public void start() {
+        if (enabled) {
+            trackers.put(QUIZZES, new HeavyHitterTracker(bucketSeconds * 1000L, buckets, stripes, width, depth,
+                    capacity));
+            trackers.put(CLIENTS, new HeavyHitterTracker(bucketSeconds * 1000L, buckets, stripes, width, depth,
+                    capacity));
+        }
+    }
+
+    private void record(String tracker, String key) {
+        HeavyHitterTracker heavyHitterTracker = trackers.get(tracker);
+        if (heavyHitterTracker != null) {
+            heavyHitterTracker.record(key, System.currentTimeMillis());
+        }
+    }
+}
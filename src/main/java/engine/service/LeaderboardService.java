@@ -0,0 +1,221 @@
+package engine.service;
+
+import engine.completion.CompletionStore;
+import engine.completion.StoredCompletion;
+import engine.dataobject.LeaderboardEntry;
+import engine.dataobject.Quiz;
+import engine.dataobject.User;
+import engine.invalidation.InvalidationTransport;
+import engine.leaderboard.Leaderboard;
+import engine.leaderboard.LeaderboardWindow;
+import engine.repository.UserRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+
+/**
+ * Service class for providing leaderboards of users by number of solved quizzes. Leaderboards are kept in memory
+ * for every time window, updated on every quiz completion and rebuilt from DB and the archive at startup. When
+ * several instances share the DB, completions made by other instances are picked up by periodic rebuilds.
+ */
+@Service
+public class LeaderboardService implements SmartInitializingSingleton {
+
+    /**
+     * Storage of records about solved quizzes.
+     */
+    private CompletionStore completionStore;
+    /**
+     * Providing CRUD methods for User objects.
+     */
+    private UserRepository userRepository;
+    /**
+     * Providing archived quiz completions.
+     */
+    private CompletionArchiveService completionArchiveService;
+    /**
+     * Transport of changes between instances, if several instances share the DB.
+     */
+    private ObjectProvider<InvalidationTransport> transport;
+    /**
+     * Leaderboard of the current period of every window.
+     */
+    private final Map<LeaderboardWindow, AtomicReference<Period>> periods = new EnumMap<>(LeaderboardWindow.class);
+
+
+    public LeaderboardService() {
+        LocalDateTime now = LocalDateTime.now();
+        for (LeaderboardWindow window : LeaderboardWindow.values()) {
+            periods.put(window, new AtomicReference<>(new Period(window.start(now))));
+        }
+    }
+
+    /**
+     * Counts quiz completion in leaderboards of all windows.
+     *
+     * @param username    Name of the user who solved the quiz.
+     * @param completedAt Date and time when quiz was solved.
+     */
+    public void addCompletion(String username, LocalDateTime completedAt) {
+        addCompletions(username, completedAt, 1);
+    }
+
+    /**
+     * Counts several quiz completions made at the same time in leaderboards of all windows.
+     *
+     * @param username    Name of the user who solved quizzes.
+     * @param completedAt Date and time when quizzes were solved.
+     * @param count       Number of solved quizzes.
+     */
+    public void addCompletions(String username, LocalDateTime completedAt, int count) {
+        for (LeaderboardWindow window : LeaderboardWindow.values()) {
+            add(window, username, completedAt, count);
+        }
+    }
+
+    /**
+     * Removes from leaderboards completions of a deleted quiz. Deduplicated completions are removed from the
+     * leaderboard of all time only, as periods of their earlier solutions are unknown.
+     *
+     * @param completions Removed completions of the quiz.
+     */
+    public void deleteCompletions(List<StoredCompletion> completions) {
+        for (StoredCompletion completion : completions) {
+            for (LeaderboardWindow window : LeaderboardWindow.values()) {
+                if (window == LeaderboardWindow.ALL || completion.isSingleSolve()) {
+                    add(window, completion.getUsername(), completion.getCompletedAt(), -completion.getSolves());
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes from leaderboards archived completions of a deleted quiz.
+     *
+     * @param completions Times of archived completions by IDs of users who completed the quiz.
+     */
+    public void deleteArchivedCompletions(Map<Integer, List<LocalDateTime>> completions) {
+        for (User user : userRepository.findAllById(completions.keySet())) {
+            for (LocalDateTime completedAt : completions.get(user.getId())) {
+                for (LeaderboardWindow window : LeaderboardWindow.values()) {
+                    add(window, user.getUsername(), completedAt, -1);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param window Time window of the leaderboard.
+     * @param size   Maximum number of returned entries.
+     * @return Users with the most quizzes solved during current period of the window, starting from the best one.
+     */
+    public List<LeaderboardEntry> getTop(LeaderboardWindow window, int size) {
+        Period period = periods.get(window).get();
+        if (period.start.isBefore(window.start(LocalDateTime.now()))) {
+            return Collections.emptyList();
+        }
+        return period.leaderboard.top(size);
+    }
+
+    /**
+     * Rebuilds leaderboards of current periods from DB at startup.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    /**
+     * Periodically rebuilds leaderboards when instances share the DB, as completions made by other instances
+     * are not published to this one.
+     */
+    @Scheduled(initialDelayString = "${quiz.leaderboard.rebuild-interval-ms:60000}",
+            fixedDelayString = "${quiz.leaderboard.rebuild-interval-ms:60000}")
+    public void rebuildShared() {
+        if (transport.getIfAvailable() != null) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Rebuilds leaderboards of current periods from DB and the archive. Besides startup, used when completions
+     * were removed by another instance of the application, which also picks up completions made by other instances.
+     */
+    public void rebuild() {
+        LocalDateTime now = LocalDateTime.now();
+        for (LeaderboardWindow window : LeaderboardWindow.values()) {
+            Period period = new Period(window.start(now));
+            List<LeaderboardEntry> counts = completionStore.countByUsername(
+                    window == LeaderboardWindow.ALL ? null : period.start.atStartOfDay());
+            counts.forEach(entry -> period.leaderboard.add(entry.getUsername(), entry.getSolved()));
+            if (window == LeaderboardWindow.ALL) {
+                Map<Integer, Long> archived = completionArchiveService.countByUser();
+                userRepository.findAllById(archived.keySet())
+                        .forEach(user -> period.leaderboard.add(user.getUsername(), archived.get(user.getId())));
+            }
+            periods.get(window).set(period);
+        }
+    }
+
+    private void add(LeaderboardWindow window, String username, LocalDateTime completedAt, long delta) {
+        LocalDate start = window.start(completedAt);
+        AtomicReference<Period> current = periods.get(window);
+        Period period = current.get();
+        if (period.start.isBefore(start)) {
+            period = current.updateAndGet(p -> p.start.isBefore(start) ? new Period(start) : p);
+        }
+        if (period.start.equals(start)) {
+            period.leaderboard.add(username, delta);
+        }
+    }
+
+    @Autowired
+    public void setCompletionStore(CompletionStore completionStore) {
+        this.completionStore = completionStore;
+    }
+
+    @Autowired
+    public void setUserRepository(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Autowired
+    public void setTransport(ObjectProvider<InvalidationTransport> transport) {
+        this.transport = transport;
+    }
+
+    @Autowired
+    public void setCompletionArchiveService(CompletionArchiveService completionArchiveService) {
+        this.completionArchiveService = completionArchiveService;
+    }
+
+    /**
+     * Leaderboard of a single period of a window, such as one day or one week.
+     */
+    private static class Period {
+
+        /**
+         * First day of the period.
+         */
+        private final LocalDate start;
+        /**
+         * Ranking of users during the period.
+         */
+        private final Leaderboard leaderboard = new Leaderboard();
+
+        private Period(LocalDate start) {
+            this.start = start;
+        }
+    }
+}
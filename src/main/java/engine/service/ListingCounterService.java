@@ -0,0 +1,175 @@
+package engine.service;
+
+import engine.completion.CompletionStore;
+import engine.dataobject.ListingCounter;
+import engine.repository.ListingCounterRepository;
+import engine.repository.QuizRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ * Service class for providing total numbers of records of paged listings. Counters are stored in DB, changed in the
+ * same transaction as counted records and periodically reconciled with actual numbers of records to correct drift.
+ */
+@Service
+public class ListingCounterService implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(ListingCounterService.class);
+    /**
+     * Name of the counter of all quizzes.
+     */
+    public static final String QUIZZES = "quizzes";
+    /**
+     * Prefix of names of counters of completions of every user.
+     */
+    private static final String COMPLETIONS_PREFIX = "completions:";
+
+    /**
+     * Providing CRUD methods for ListingCounter objects.
+     */
+    private ListingCounterRepository listingCounterRepository;
+    /**
+     * Providing CRUD methods for Quiz objects.
+     */
+    private QuizRepository quizRepository;
+    /**
+     * Storage of records about solved quizzes.
+     */
+    private CompletionStore completionStore;
+    /**
+     * Runs reconciliation in a single transaction.
+     */
+    private TransactionTemplate transactionTemplate;
+
+
+    /**
+     * @param userId ID of the user.
+     * @return Name of the counter of completions of the user.
+     */
+    public static String completions(int userId) {
+        return COMPLETIONS_PREFIX + userId;
+    }
+
+    /**
+     * Changes value of the counter within the current transaction. Missing counter is left as is, it will be
+     * created by the next reconciliation.
+     *
+     * @param name  Name of the counter.
+     * @param delta Value to add, negative to subtract.
+     */
+    public void add(String name, long delta) {
+        listingCounterRepository.add(name, delta);
+    }
+
+    /**
+     * Creates counter of new listing.
+     *
+     * @param name Name of the counter.
+     */
+    public void create(String name) {
+        listingCounterRepository.save(new ListingCounter(name, 0));
+    }
+
+    /**
+     * @param name Name of the counter.
+     * @return Value of the counter or null if there's no such counter.
+     */
+    public Long get(String name) {
+        return listingCounterRepository.findById(name).map(ListingCounter::getValue).orElse(null);
+    }
+
+    /**
+     * Corrects all counters to actual numbers of records. Counters which differ from counted records, or are
+     * missing, are locked and records are counted again while they're locked, as a record added between counting
+     * and reading its counter would otherwise be subtracted. Completions stored outside the main DB are committed
+     * before their counters change, so their counters may still drift until the next reconciliation.
+     */
+    @Scheduled(initialDelayString = "${quiz.counters.reconcile-interval-ms:600000}",
+            fixedDelayString = "${quiz.counters.reconcile-interval-ms:600000}")
+    public void reconcile() {
+        Map<String, Long> actual = countRecords();
+        Set<String> missing = new HashSet<>(actual.keySet());
+        Set<String> drifted = new HashSet<>();
+        for (ListingCounter counter : listingCounterRepository.findAll()) {
+            missing.remove(counter.getName());
+            if (counter.getValue() != actual.getOrDefault(counter.getName(), 0L)) {
+                drifted.add(counter.getName());
+            }
+        }
+        if (!missing.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> missing.forEach(name ->
+                    listingCounterRepository.save(new ListingCounter(name, 0))));
+            drifted.addAll(missing);
+        }
+        if (drifted.isEmpty()) {
+            return;
+        }
+        int corrected = transactionTemplate.execute(status -> {
+            List<ListingCounter> locked = listingCounterRepository.findAllForUpdate(drifted);
+            Map<String, Long> recounted = countRecords();
+            int count = 0;
+            for (ListingCounter counter : locked) {
+                long value = recounted.getOrDefault(counter.getName(), 0L);
+                if (counter.getValue() != value) {
+                    counter.setValue(value);
+                    count++;
+                }
+            }
+            return count;
+        });
+        if (corrected > 0) {
+            log.info("Corrected {} listing counters", corrected);
+        }
+    }
+
+    /**
+     * @return Actual number of records of every listing with at least one record.
+     */
+    private Map<String, Long> countRecords() {
+        Map<String, Long> actual = new HashMap<>();
+        actual.put(QUIZZES, quizRepository.count());
+        completionStore.countByUserId().forEach((userId, count) -> actual.put(completions(userId), count));
+        return actual;
+    }
+
+    /**
+     * Reconciles counters at startup, creating counters for records stored before counters were introduced.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        reconcile();
+    }
+
+    @Autowired
+    public void setListingCounterRepository(ListingCounterRepository listingCounterRepository) {
+        this.listingCounterRepository = listingCounterRepository;
+    }
+
+    @Autowired
+    public void setQuizRepository(QuizRepository quizRepository) {
+        this.quizRepository = quizRepository;
+    }
+
+    @Autowired
+    public void setCompletionStore(CompletionStore completionStore) {
+        this.completionStore = completionStore;
+    }
+
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+}
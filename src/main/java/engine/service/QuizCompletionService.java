@@ -1,57 +1,200 @@
 package engine.service;
 
+import engine.completion.CompletionStore;
+import engine.completion.StoredCompletion;
 import engine.dataobject.Quiz;
 import engine.dataobject.QuizCompletion;
 import engine.dataobject.User;
-import engine.repository.QuizCompletionRepository;
+import engine.invalidation.EntityChange;
+import engine.invalidation.EntityChangeListener;
+import engine.repository.QuizRepository;
+import engine.timing.PhaseTimer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.transaction.Transactional;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 
 /**
  * Service class for providing methods for interaction with QuizCompletion objects.
  */
 @Service
-public class QuizCompletionService {
+public class QuizCompletionService implements EntityChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(QuizCompletionService.class);
 
     /**
-     * Providing CRUD methods for QuizCompletion objects.
+     * Storage of records about solved quizzes.
      */
-    private QuizCompletionRepository quizCompletionRepository;
+    private CompletionStore completionStore;
     /**
      * providing methods for interaction with User objects
      */
     private UserService userService;
+    /**
+     * Providing leaderboards of users by number of solved quizzes.
+     */
+    private LeaderboardService leaderboardService;
+    /**
+     * Providing total numbers of records of paged listings.
+     */
+    private ListingCounterService listingCounterService;
+    /**
+     * Providing archived quiz completions.
+     */
+    private CompletionArchiveService completionArchiveService;
+    /**
+     * Providing numbers of quizzes solved by users per day.
+     */
+    private DailyActivityService dailyActivityService;
+    /**
+     * Providing IDs of existing quizzes.
+     */
+    private QuizRepository quizRepository;
+    /**
+     * Runs removal of completions stored outside the main DB in a new transaction of the main DB.
+     */
+    private TransactionTemplate transactionTemplate;
 
     /**
-     * Removes QuizCompletions from database for specified quiz.
+     * Removes QuizCompletions from database for specified quiz within the current transaction. Leaderboards and
+     * the archive are changed in memory only after commit, so they are left as they are if deletion rolls back.
+     * Completions stored outside the main DB are removed only after the quiz removal commits, so they are kept
+     * if it rolls back. If their removal fails, they are removed by deleteOrphanCompletions.
      *
      * @param quiz Quiz which records about completion should be removed.
      */
     public void deleteQuizCompletions(Quiz quiz) {
-        quizCompletionRepository.deleteByQuiz(quiz);
+        int quizId = quiz.getId();
+        if (completionStore.isInMainTransaction()) {
+            deleteCompletions(quizId);
+            return;
+        }
+        Transactions.runAfterCommit(() -> {
+            try {
+                transactionTemplate.executeWithoutResult(status -> deleteCompletions(quizId));
+            } catch (RuntimeException e) {
+                log.warn("Failed to remove completions of deleted quiz {}, they are removed by the next sweep",
+                        quizId, e);
+            }
+        });
+    }
+
+    /**
+     * Removes completions of quizzes which no longer exist from a store outside the main DB: completions left
+     * by a failed removal and completions of a quiz solved while it was being removed. IDs of solved quizzes are
+     * read before IDs of existing quizzes, so a quiz added and solved in between is not taken for a removed one.
+     */
+    @Scheduled(initialDelayString = "${quiz.shards.orphan-sweep-interval-ms:600000}",
+            fixedDelayString = "${quiz.shards.orphan-sweep-interval-ms:600000}")
+    public void deleteOrphanCompletions() {
+        if (completionStore.isInMainTransaction()) {
+            return;
+        }
+        Set<Integer> quizIds = completionStore.findQuizIds();
+        quizIds.removeAll(quizRepository.findAllIds());
+        for (int quizId : quizIds) {
+            transactionTemplate.executeWithoutResult(status -> deleteCompletions(quizId));
+        }
+        if (!quizIds.isEmpty()) {
+            log.info("Removed completions of {} deleted quizzes", quizIds.size());
+        }
+    }
+
+    /**
+     * Removes completions of the quiz along with their counts within the current transaction and from leaderboards
+     * and the archive after commit.
+     *
+     * @param quizId ID of the quiz which completions are removed.
+     */
+    private void deleteCompletions(int quizId) {
+        List<StoredCompletion> removed = completionStore.deleteByQuiz(quizId);
+        Map<Integer, List<LocalDateTime>> archived = completionArchiveService.getQuizCompletions(quizId);
+        dailyActivityService.deleteCompletions(removed, archived);
+        removed.stream()
+                .collect(Collectors.groupingBy(StoredCompletion::getUserId, Collectors.counting()))
+                .forEach((userId, count) -> listingCounterService.add(ListingCounterService.completions(userId),
+                        -count));
+        Transactions.runAfterCommit(() -> {
+            leaderboardService.deleteCompletions(removed);
+            leaderboardService.deleteArchivedCompletions(completionArchiveService.deleteQuiz(quizId));
+        });
+    }
+
+    /**
+     * Excludes completions of a quiz deleted by another instance of the application. Completions are already
+     * removed from DB, so leaderboards are rebuilt.
+     *
+     * @param change Change made by another instance.
+     */
+    @Override
+    public void onEntityChange(EntityChange change) {
+        if (change.getType() == EntityChange.Type.QUIZ_DELETED) {
+            completionArchiveService.deleteQuiz(change.getEntityId());
+            leaderboardService.rebuild();
+        }
     }
 
     /**
      * Creates record about completion of specified quiz and stores it into DB along with user from request
-     * and current date/time.
+     * and current date/time. Leaderboards count the completion once it is committed.
      *
      * @param quiz               Solved quiz.
      * @param httpServletRequest HTTP request with which quiz was solved.
      */
+    @Transactional
     public void addQuizCompletion(Quiz quiz, HttpServletRequest httpServletRequest) {
         User user = userService.loadUserByUsername(httpServletRequest.getRemoteUser());
-        quizCompletionRepository.save(new QuizCompletion(quiz, user, quiz.getId(), LocalDateTime.now()));
+        LocalDateTime completedAt = LocalDateTime.now();
+        try (PhaseTimer.Phase ignored = PhaseTimer.start("completion")) {
+            int added = completionStore.add(user, Collections.singletonList(quiz), completedAt);
+            listingCounterService.add(ListingCounterService.completions(user.getId()), added);
+            dailyActivityService.addCompletions(user.getId(), completedAt, 1);
+        }
+        Transactions.runAfterCommit(() -> leaderboardService.addCompletion(user.getUsername(), completedAt));
     }
 
     /**
-     * Retrieves one page from all quiz completions stored in DB corresponding to page number.
-     * Page size is 10 records.
+     * Creates records about completion of all specified quizzes and stores them into DB in a single batch along with
+     * user from request and current date/time.
+     *
+     * @param quizzes            Solved quizzes.
+     * @param httpServletRequest HTTP request with which quizzes were solved.
+     */
+    @Transactional
+    public void addQuizCompletions(List<Quiz> quizzes, HttpServletRequest httpServletRequest) {
+        User user = userService.loadUserByUsername(httpServletRequest.getRemoteUser());
+        LocalDateTime completedAt = LocalDateTime.now();
+        try (PhaseTimer.Phase ignored = PhaseTimer.start("completion")) {
+            int added = completionStore.add(user, quizzes, completedAt);
+            listingCounterService.add(ListingCounterService.completions(user.getId()), added);
+            dailyActivityService.addCompletions(user.getId(), completedAt, quizzes.size());
+        }
+        Transactions.runAfterCommit(() -> leaderboardService.addCompletions(user.getUsername(), completedAt,
+                quizzes.size()));
+    }
+
+    /**
+     * Retrieves one page from all quiz completions of the user corresponding to page number. Page size is 10 records.
+     * Recent completions are read from DB, older ones continue from the archive. Total number of completions
+     * is taken from the maintained counter and the archive.
      *
      * @param page               Page number for return.
      * @param httpServletRequest HTTP request with which quiz completions were requested.
@@ -59,16 +202,73 @@ public class QuizCompletionService {
      */
     public Page<QuizCompletion> getQuizCompletions(Integer page, HttpServletRequest httpServletRequest) {
         User user = userService.loadUserByUsername(httpServletRequest.getUserPrincipal().getName());
-        return quizCompletionRepository.findAllByUserOrderByCompletedAtDesc(PageRequest.of(page, 10), user);
+        PageRequest pageRequest = PageRequest.of(page, 10);
+        Long recent = listingCounterService.get(ListingCounterService.completions(user.getId()));
+        if (recent == null) {
+            recent = completionStore.countByUser(user);
+        }
+        List<QuizCompletion> content = new ArrayList<>(pageRequest.getPageSize());
+        if (pageRequest.getOffset() < recent) {
+            content.addAll(completionStore.findByUser(user, pageRequest));
+        }
+        if (content.size() < pageRequest.getPageSize()) {
+            content.addAll(completionArchiveService.getCompletions(user.getId(),
+                    Math.max(0, pageRequest.getOffset() - recent), pageRequest.getPageSize() - content.size()));
+        }
+        return new PageImpl<>(content, pageRequest, recent + completionArchiveService.count(user.getId()));
+    }
+
+    /**
+     * Retrieves IDs of all quizzes solved by the user, including ones with archived completions only.
+     *
+     * @param httpServletRequest HTTP request of the user.
+     * @return IDs of quizzes solved by current user.
+     */
+    public Set<Integer> getSolvedQuizIds(HttpServletRequest httpServletRequest) {
+        User user = userService.loadUserByUsername(httpServletRequest.getUserPrincipal().getName());
+        Set<Integer> quizIds = completionStore.findQuizIdsByUser(user);
+        quizIds.addAll(completionArchiveService.getQuizIds(user.getId()));
+        return quizIds;
+    }
+
+    @Autowired
+    public void setCompletionStore(CompletionStore completionStore) {
+        this.completionStore = completionStore;
+    }
+
+    @Autowired
+    public void setCompletionArchiveService(CompletionArchiveService completionArchiveService) {
+        this.completionArchiveService = completionArchiveService;
+    }
+
+    @Autowired
+    public void setDailyActivityService(DailyActivityService dailyActivityService) {
+        this.dailyActivityService = dailyActivityService;
+    }
+
+    @Autowired
+    public void setListingCounterService(ListingCounterService listingCounterService) {
+        this.listingCounterService = listingCounterService;
     }
 
     @Autowired
-    public void setQuizCompletionRepository(QuizCompletionRepository quizCompletionRepository) {
-        this.quizCompletionRepository = quizCompletionRepository;
+    public void setLeaderboardService(LeaderboardService leaderboardService) {
+        this.leaderboardService = leaderboardService;
     }
 
     @Autowired
     public void setUserService(UserService userService) {
         this.userService = userService;
     }
+
+    @Autowired
+    public void setQuizRepository(QuizRepository quizRepository) {
+        this.quizRepository = quizRepository;
+    }
+
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
 }
@@ -0,0 +1,74 @@
+package engine.service;
+
+import engine.repository.QuizRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * Set of IDs of all quizzes stored in DB, used for rejecting requests for unknown quizzes without reading DB.
+ * Quiz IDs come from the sequence shared by all entities, so they are sparse and kept in a hash set, which takes
+ * memory proportional to the number of quizzes rather than to the largest ID. When other instances share the DB,
+ * quizzes they add are missing from the set until their changes are received, so a miss is not definite then,
+ * see QuizService.getQuizByIdOrThrow.
+ */
+@Service
+public class QuizExistenceFilter implements SmartInitializingSingleton {
+
+    /**
+     * Providing CRUD methods for Quiz objects.
+     */
+    private QuizRepository quizRepository;
+    /**
+     * IDs of stored quizzes, reads don't block each other or writes.
+     */
+    private final Set<Integer> ids = ConcurrentHashMap.newKeySet();
+    /**
+     * False until IDs are loaded from DB, all IDs are considered existing until then.
+     */
+    private volatile boolean loaded;
+
+
+    /**
+     * @param id ID of the quiz.
+     * @return False if there's definitely no quiz with such ID in DB, true if there may be one.
+     */
+    public boolean mayExist(int id) {
+        if (!loaded) {
+            return true;
+        }
+        return ids.contains(id);
+    }
+
+    /**
+     * @param id ID of the quiz that was stored in DB.
+     */
+    public void add(int id) {
+        ids.add(id);
+    }
+
+    /**
+     * @param id ID of the quiz that was removed from DB.
+     */
+    public void remove(int id) {
+        ids.remove(id);
+    }
+
+    /**
+     * Loads IDs of all stored quizzes.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        quizRepository.findAllIds().forEach(this::add);
+        loaded = true;
+    }
+
+    @Autowired
+    public void setQuizRepository(QuizRepository quizRepository) {
+        this.quizRepository = quizRepository;
+    }
+}
@@ -0,0 +1,144 @@
+package engine.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import engine.dataobject.Quiz;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+
+/**
+ * Cache of JSON representations of quizzes. Quizzes are never modified, so once serialized JSON stays valid until
+ * the quiz is deleted. Cached values keep UTF-8 bytes along with the text, so they can be written to response as is
+ * or embedded into larger JSON documents without running serialization again.
+ */
+@Service
+public class QuizJsonCache {
+
+    /**
+     * Serializer configured the same way as the one used for responses.
+     */
+    private ObjectMapper objectMapper;
+    /**
+     * Serialized quizzes by their IDs.
+     */
+    private final Map<Integer, SerializedString> cache = new ConcurrentHashMap<>();
+    /**
+     * Number of removals from cache, used to detect removal of the quiz while it was being loaded.
+     */
+    private final AtomicLong removals = new AtomicLong();
+    /**
+     * Maximum number of cached quizzes. When cache is full, quizzes are serialized on every request.
+     */
+    @Value("${quiz.json-cache.max-entries:10000}")
+    private int maxEntries;
+
+
+    /**
+     * Retrieves JSON of the quiz from the cache or loads and serializes the quiz if it is not cached yet.
+     *
+     * @param id     ID of the quiz.
+     * @param loader Loads quiz by its ID, called only if quiz is not cached.
+     * @return JSON representation of the quiz.
+     */
+    public SerializedString get(int id, IntFunction<Quiz> loader) {
+        SerializedString json = cache.get(id);
+        if (json != null) {
+            return json;
+        }
+        long removalsBefore = removals.get();
+        json = serialize(loader.apply(id));
+        cache(id, json, removalsBefore);
+        return json;
+    }
+
+    /**
+     * @param id ID of the quiz.
+     * @return JSON representation of the quiz if it is cached or null otherwise.
+     */
+    public SerializedString getIfCached(int id) {
+        return cache.get(id);
+    }
+
+    /**
+     * Takes stamp of removals, must be taken before quizzes are loaded from DB for caching them with
+     * {@link #get(Quiz, long)}, so quizzes deleted meanwhile are not cached.
+     *
+     * @return Current stamp of removals.
+     */
+    public long stamp() {
+        return removals.get();
+    }
+
+    /**
+     * Retrieves JSON of already loaded quiz from the cache or serializes and caches it if it is not cached yet.
+     *
+     * @param quiz  Quiz loaded from DB.
+     * @param stamp Stamp of removals taken before the quiz was loaded.
+     * @return JSON representation of the quiz.
+     */
+    public SerializedString get(Quiz quiz, long stamp) {
+        SerializedString json = cache.get(quiz.getId());
+        if (json != null) {
+            return json;
+        }
+        json = serialize(quiz);
+        cache(quiz.getId(), json, stamp);
+        return json;
+    }
+
+    /**
+     * Retrieves JSON of the quiz from the cache or serializes it without caching, for quizzes which were not loaded
+     * under a stamp of removals.
+     *
+     * @param quiz Quiz to serialize.
+     * @return JSON representation of the quiz.
+     */
+    public SerializedString getOrSerialize(Quiz quiz) {
+        SerializedString json = cache.get(quiz.getId());
+        return json != null ? json : serialize(quiz);
+    }
+
+    /**
+     * Removes quiz from the cache. Must be called after deletion of the quiz is committed.
+     *
+     * @param id ID of the deleted quiz.
+     */
+    public void remove(int id) {
+        removals.incrementAndGet();
+        cache.remove(id);
+    }
+
+    private void cache(int id, SerializedString json, long removalsBefore) {
+        if (cache.size() >= maxEntries) {
+            return;
+        }
+        json.asUnquotedUTF8();
+        cache.put(id, json);
+        // Quiz could be deleted after the stamp was taken, its JSON must not stay in cache then.
+        if (removals.get() != removalsBefore) {
+            cache.remove(id);
+        }
+    }
+
+    private SerializedString serialize(Quiz quiz) {
+        try {
+            return new SerializedString(objectMapper.writeValueAsString(quiz));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Autowired
+    public void setObjectMapper(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+}
@@ -0,0 +1,22 @@
+package engine.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+
+/**
+ * Exception resulting in response "404 Not Found" for unknown quiz IDs. It carries no stack trace, so requests for
+ * unknown quizzes are cheap to reject. A new instance is thrown every time, as suppressed exceptions added while
+ * it propagates would pile up in a shared one.
+ */
+public class QuizNotFoundException extends ResponseStatusException {
+
+    public QuizNotFoundException() {
+        super(HttpStatus.NOT_FOUND, "Quiz not found.");
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
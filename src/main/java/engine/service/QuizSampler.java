@@ -0,0 +1,122 @@
+package engine.service;
+
+import engine.repository.QuizRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.StampedLock;
+
+
+/**
+ * Dense array of IDs of all stored quizzes, used for picking random quizzes without reading DB. Added quizzes are
+ * appended, a deleted quiz is replaced by the last one, so the array never has gaps. Positions of IDs in the array
+ * are kept in a map, as IDs share a sequence with other entities and are sparse.
+ */
+@Service
+public class QuizSampler implements SmartInitializingSingleton {
+
+    /**
+     * Providing CRUD methods for Quiz objects.
+     */
+    private QuizRepository quizRepository;
+    /**
+     * IDs of stored quizzes in the first size elements, in no particular order.
+     */
+    private int[] ids = new int[16];
+    /**
+     * Position of every stored ID in the ids array.
+     */
+    private final Map<Integer, Integer> positions = new HashMap<>();
+    /**
+     * Number of stored quizzes.
+     */
+    private int size;
+    /**
+     * Guards IDs and their positions, samples are taken concurrently.
+     */
+    private final StampedLock lock = new StampedLock();
+
+
+    /**
+     * Picks random quizzes without replacement, with partial Fisher-Yates shuffle. Swaps are recorded in a map
+     * instead of the array, so taking a sample doesn't block other samples and takes time proportional to the size
+     * of the sample and the number of skipped IDs, not to the number of quizzes.
+     *
+     * @param n        Maximum number of picked quizzes.
+     * @param excluded IDs of quizzes which are never picked.
+     * @return IDs of picked quizzes, in random order. Contains fewer than n IDs if there are not enough quizzes.
+     */
+    public List<Integer> sample(int n, Set<Integer> excluded) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Integer> sample = new ArrayList<>(n);
+        long stamp = lock.readLock();
+        try {
+            Map<Integer, Integer> swapped = new HashMap<>();
+            for (int i = 0; i < size && sample.size() < n; i++) {
+                int j = i + random.nextInt(size - i);
+                int picked = swapped.getOrDefault(j, ids[j]);
+                swapped.put(j, swapped.getOrDefault(i, ids[i]));
+                if (!excluded.contains(picked)) {
+                    sample.add(picked);
+                }
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        return sample;
+    }
+
+    /**
+     * @param id ID of the quiz that was stored in DB.
+     */
+    public void add(int id) {
+        long stamp = lock.writeLock();
+        try {
+            if (positions.putIfAbsent(id, size) != null) {
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @param id ID of the quiz that was removed from DB.
+     */
+    public void remove(int id) {
+        long stamp = lock.writeLock();
+        try {
+            Integer position = positions.remove(id);
+            if (position == null) {
+                return;
+            }
+            int last = ids[--size];
+            if (last != id) {
+                ids[position] = last;
+                positions.put(last, position);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Loads IDs of all stored quizzes.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        quizRepository.findAllIds().forEach(this::add);
+    }
+
+    @Autowired
+    public void setQuizRepository(QuizRepository quizRepository) {
+        this.quizRepository = quizRepository;
+    }
+}
@@ -0,0 +1,198 @@
+package engine.service;
+
+import engine.dataobject.Quiz;
+import engine.invalidation.InvalidationBus;
+import engine.repository.QuizRepository;
+import engine.search.DocumentTerms;
+import engine.search.InvertedIndex;
+import engine.search.Tokenizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+
+/**
+ * Service class for full-text search over title, text and options of quizzes. Search is served from in-memory
+ * inverted index which is updated on every added or deleted quiz and rebuilt from DB at startup, unless it is
+ * restored from the snapshot of the same version of quizzes.
+ */
+@Service
+public class QuizSearchService implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(QuizSearchService.class);
+    /**
+     * Weight of a term occurrence in the title of a quiz.
+     */
+    private static final int TITLE_WEIGHT = 3;
+    /**
+     * Weight of a term occurrence in the text or options of a quiz.
+     */
+    private static final int BODY_WEIGHT = 1;
+
+    /**
+     * Providing CRUD methods for Quiz objects.
+     */
+    private QuizRepository quizRepository;
+    /**
+     * Numbering changes of quizzes, the number of the last applied change is the version of the index.
+     */
+    private InvalidationBus invalidationBus;
+    /**
+     * Index of all quizzes stored in DB.
+     */
+    private volatile InvertedIndex index = new InvertedIndex();
+    /**
+     * Maximum number of ranked results of a single query.
+     */
+    @Value("${quiz.search.max-results:1000}")
+    private int maxResults;
+    /**
+     * File for storing index snapshot between restarts, snapshot is disabled if empty.
+     */
+    @Value("${quiz.search.snapshot-file:}")
+    private String snapshotFile;
+
+
+    /**
+     * Adds quiz to the search index.
+     *
+     * @param quiz Quiz that was stored in DB.
+     */
+    public void addQuiz(Quiz quiz) {
+        index.add(quiz.getId(), analyze(quiz.getTitle(), quiz.getText(), quiz.getOptions()));
+    }
+
+    /**
+     * Removes quiz from the search index.
+     *
+     * @param id ID of the quiz that was removed from DB.
+     */
+    public void deleteQuiz(int id) {
+        index.remove(id);
+    }
+
+    /**
+     * Searches quizzes by words of their title, text and options. Page size is 10 records.
+     *
+     * @param query Words to search for.
+     * @param page  Page number for return.
+     * @return One page of found quizzes, from the most relevant to the least one.
+     */
+    public Page<Quiz> search(String query, int page) {
+        PageRequest pageRequest = PageRequest.of(page, 10);
+        List<Integer> ranked = index.search(Tokenizer.tokenize(query), maxResults);
+        int from = (int) Math.min(pageRequest.getOffset(), ranked.size());
+        List<Integer> ids = ranked.subList(from, Math.min(from + pageRequest.getPageSize(), ranked.size()));
+        Map<Integer, Quiz> quizzes = quizRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Quiz::getId, Function.identity()));
+        List<Quiz> content = ids.stream().map(quizzes::get).filter(Objects::nonNull).collect(Collectors.toList());
+        return new PageImpl<>(content, pageRequest, ranked.size());
+    }
+
+    /**
+     * Restores index from snapshot if it was written at the number of the last change of quizzes that is applied
+     * now, so no quiz was added or deleted since, by this or another instance. Otherwise rebuilds index from DB:
+     * quizzes are analyzed in parallel and then indexed in order of their IDs. Called once all singletons are
+     * created, before the web server starts accepting requests.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        long start = System.currentTimeMillis();
+        InvertedIndex restored = readSnapshot(invalidationBus.getAppliedSequenceNumber());
+        if (restored != null && restored.size() == quizRepository.count()) {
+            index = restored;
+            log.info("Search index of {} quizzes restored from snapshot in {} ms", restored.size(),
+                    System.currentTimeMillis() - start);
+            return;
+        }
+        List<Object[]> rows = quizRepository.findAllSearchableFields();
+        TreeMap<Integer, List<Object[]>> rowsById = rows.stream()
+                .collect(Collectors.groupingBy(row -> (Integer) row[0], TreeMap::new, Collectors.toList()));
+        Map<Integer, DocumentTerms> analyzed = rowsById.entrySet().parallelStream()
+                .collect(Collectors.toConcurrentMap(Map.Entry::getKey, entry -> analyzeRows(entry.getValue())));
+        InvertedIndex rebuilt = new InvertedIndex();
+        new TreeMap<>(analyzed).forEach(rebuilt::add);
+        index = rebuilt;
+        log.info("Search index of {} quizzes rebuilt in {} ms", rebuilt.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Stores index snapshot on shutdown if snapshot file is configured, along with the number of the last change
+     * of quizzes applied to the index.
+     */
+    @PreDestroy
+    public void writeSnapshot() {
+        if (snapshotFile.isEmpty()) {
+            return;
+        }
+        try {
+            index.writeSnapshot(new File(snapshotFile), invalidationBus.getAppliedSequenceNumber());
+        } catch (IOException e) {
+            log.warn("Failed to write search index snapshot to {}", snapshotFile, e);
+        }
+    }
+
+    /**
+     * @param version Number of the last applied change of quizzes.
+     * @return Index restored from the snapshot of the version, or null if there's no such snapshot.
+     */
+    private InvertedIndex readSnapshot(long version) {
+        if (snapshotFile.isEmpty() || !new File(snapshotFile).isFile()) {
+            return null;
+        }
+        try {
+            return InvertedIndex.readSnapshot(new File(snapshotFile), version);
+        } catch (IOException e) {
+            log.warn("Failed to read search index snapshot from {}", snapshotFile, e);
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private DocumentTerms analyzeRows(List<Object[]> rows) {
+        List<String> options = (List<String>) rows.get(0)[3];
+        if (options == null) {
+            options = new ArrayList<>();
+            for (Object[] row : rows) {
+                if (row[4] != null) {
+                    options.add((String) row[4]);
+                }
+            }
+        }
+        return analyze((String) rows.get(0)[1], (String) rows.get(0)[2], options);
+    }
+
+    private DocumentTerms analyze(String title, String text, List<String> options) {
+        Map<String, Integer> weights = new HashMap<>();
+        Tokenizer.tokenize(title).forEach(term -> weights.merge(term, TITLE_WEIGHT, Integer::sum));
+        Tokenizer.tokenize(text).forEach(term -> weights.merge(term, BODY_WEIGHT, Integer::sum));
+        if (options != null) {
+            options.forEach(option -> Tokenizer.tokenize(option)
+                    .forEach(term -> weights.merge(term, BODY_WEIGHT, Integer::sum)));
+        }
+        return DocumentTerms.of(weights);
+    }
+
+    @Autowired
+    public void setQuizRepository(QuizRepository quizRepository) {
+        this.quizRepository = quizRepository;
+    }
+
+    @Autowired
+    public void setInvalidationBus(InvalidationBus invalidationBus) {
+        this.invalidationBus = invalidationBus;
+    }
+}
@@ -1,9 +1,17 @@
 package engine.service;
 
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.util.RawValue;
 import engine.dataobject.*;
+import engine.invalidation.EntityChange;
+import engine.invalidation.EntityChangeListener;
+import engine.invalidation.InvalidationBus;
 import engine.repository.QuizRepository;
+import engine.timing.PhaseTimer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -12,15 +20,17 @@ import org.springframework.web.server.ResponseStatusException;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.transaction.Transactional;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 
 /**
  * Service class for providing methods for interaction with Quiz objects.
  */
 @Service
-public class QuizService {
+public class QuizService implements EntityChangeListener {
 
     /**
      * Providing methods for interaction with QuizCompletion objects.
@@ -42,6 +52,57 @@ public class QuizService {
      * Interface for providing CRUD methods for Quiz objects.
      */
     private QuizRepository quizRepository;
+    /**
+     * Providing full-text search over quizzes.
+     */
+    private QuizSearchService quizSearchService;
+    /**
+     * Cache of JSON representations of quizzes.
+     */
+    private QuizJsonCache quizJsonCache;
+    /**
+     * Set of IDs of stored quizzes.
+     */
+    private QuizExistenceFilter quizExistenceFilter;
+    /**
+     * Dense array of IDs of stored quizzes for picking random quizzes.
+     */
+    private QuizSampler quizSampler;
+    /**
+     * Streaming created and deleted quizzes to subscribers.
+     */
+    private QuizStreamService quizStreamService;
+    /**
+     * Providing total numbers of records of paged listings.
+     */
+    private ListingCounterService listingCounterService;
+    /**
+     * Providing storage mode of quizzes.
+     */
+    private QuizStorageMigration quizStorageMigration;
+    /**
+     * Recording every attempt to solve a quiz.
+     */
+    private AttemptLogService attemptLogService;
+    /**
+     * Counting solve attempts of quizzes for heavy hitter detection.
+     */
+    private HeavyHitterService heavyHitterService;
+    /**
+     * Publishing changes of quizzes to other instances of the application.
+     */
+    private InvalidationBus invalidationBus;
+    /**
+     * Maximum number of answers or requested quizzes in a single batch.
+     */
+    @Value("${quiz.batch.max-size:100}")
+    private int maxBatchSize;
+    /**
+     * Number of the latest applied deletion in the change sequence shared by all instances, or of the change
+     * sequence at startup. Stored quizzes are never modified, so quiz representation stays valid as long as no quiz
+     * was deleted.
+     */
+    private final AtomicLong deletionVersion = new AtomicLong();
 
     /**
      * Saves quiz submitted by user into DB.
@@ -50,9 +111,22 @@ public class QuizService {
      * @param httpServletRequest HTTP request with which quiz was submitted.
      * @return Same quiz that was submitted but wit generated ID and without answers.
      */
+    @Transactional
     public Quiz addQuiz(Quiz quiz, HttpServletRequest httpServletRequest) {
+        if (quizStorageMigration.isCompactStorage()) {
+            quiz.useCompactStorage();
+        }
         quizRepository.save(quiz);
         userService.addQuizToUser(quiz, httpServletRequest.getRemoteUser());
+        listingCounterService.add(ListingCounterService.QUIZZES, 1);
+        long sequenceNumber = invalidationBus.publish(EntityChange.Type.QUIZ_ADDED, quiz.getId());
+        Transactions.runAfterCommit(() -> {
+            try {
+                quizAdded(quiz);
+            } finally {
+                invalidationBus.applied(sequenceNumber);
+            }
+        });
         return quiz;
     }
 
@@ -71,34 +145,198 @@ public class QuizService {
         if (userService.userHasQuiz(quiz, httpServletRequest)) {
             quizCompletionService.deleteQuizCompletions(quiz);
             userService.deleteQuizFromUser(quiz, httpServletRequest);
+            listingCounterService.add(ListingCounterService.QUIZZES, -1);
+            long sequenceNumber = invalidationBus.publish(EntityChange.Type.QUIZ_DELETED, id);
+            Transactions.runAfterCommit(() -> {
+                try {
+                    quizDeleted(id, sequenceNumber);
+                } finally {
+                    invalidationBus.applied(sequenceNumber);
+                }
+            });
             return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
         }
         return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
     }
 
     /**
-     * Retrieves quiz by its ID from DB.
+     * Retrieves quiz by its ID from DB. IDs of nonexistent quizzes are rejected without reading DB, unless other
+     * instances share the DB: a quiz added by another instance is unknown here until its change is received, so
+     * an unknown ID is looked up in DB and added to the existence filter if found.
      *
      * @param id ID of the quiz that should be returned.
      * @return Quiz from DB if present or response "404 Not Found" if not.
      */
     public Quiz getQuizByIdOrThrow(int id) {
-        Optional<Quiz> optionalQuiz = quizRepository.findById(id);
+        boolean known = quizExistenceFilter.mayExist(id);
+        if (!known && !invalidationBus.isShared()) {
+            throw new QuizNotFoundException();
+        }
+        Optional<Quiz> optionalQuiz;
+        try (PhaseTimer.Phase ignored = PhaseTimer.start("db")) {
+            optionalQuiz = quizRepository.findById(id);
+        }
         if (optionalQuiz.isPresent()) {
+            if (!known) {
+                quizExistenceFilter.add(id);
+            }
             return optionalQuiz.get();
         }
-        throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Quiz not found.");
+        throw new QuizNotFoundException();
+    }
+
+    /**
+     * Retrieves JSON representation of the quiz by its ID. Served from cache if quiz was already requested.
+     *
+     * @param id ID of the quiz that should be returned.
+     * @return UTF-8 encoded JSON of the quiz if present or response "404 Not Found" if not.
+     */
+    public byte[] getQuizJsonByIdOrThrow(int id) {
+        if (!quizExistenceFilter.mayExist(id) && !invalidationBus.isShared()) {
+            throw new QuizNotFoundException();
+        }
+        return quizJsonCache.get(id, this::getQuizByIdOrThrow).asUnquotedUTF8();
+    }
+
+    /**
+     * Builds entity tag of the quiz from its ID and number of the latest deletion in the shared change sequence,
+     * without reading quiz from DB, so every instance which has applied the same deletions issues the same tag.
+     *
+     * @param id ID of the quiz.
+     * @return Entity tag which changes when the quiz may have been deleted.
+     */
+    public String getQuizETag(int id) {
+        return id + "-" + deletionVersion.get();
+    }
+
+    /**
+     * Builds entity tag of the page of quizzes from page number and version of applied changes in the shared
+     * change sequence, without reading DB, so every instance which has applied the same changes issues the same tag.
+     *
+     * @param page Page number.
+     * @return Entity tag which changes when any quiz is added or deleted.
+     */
+    public String getQuizzesETag(int page) {
+        return page + "-" + invalidationBus.getVersion();
     }
 
     /**
      * Retrieves one page from all quizzes stored in DB corresponding to page number.
-     * Page size is 10 records.
+     * Page size is 10 records. Total number of quizzes is taken from the maintained counter.
      *
      * @param page Page number for return.
      * @return One page from all quizzes stored in DB.
      */
     public Page<Quiz> getAllQuizzes(int page) {
-        return quizRepository.findAll(PageRequest.of(page, 10));
+        PageRequest pageRequest = PageRequest.of(page, 10);
+        Long total = listingCounterService.get(ListingCounterService.QUIZZES);
+        if (total == null) {
+            return quizRepository.findAll(pageRequest);
+        }
+        return new PageImpl<>(quizRepository.findSlice(pageRequest).getContent(), pageRequest, total);
+    }
+
+    /**
+     * Retrieves one page from all quizzes stored in DB corresponding to page number, with quizzes represented
+     * by their cached JSON. Page size is 10 records.
+     *
+     * @param page Page number for return.
+     * @return One page from all quizzes stored in DB.
+     */
+    public Page<RawValue> getAllQuizzesJson(int page) {
+        long stamp = quizJsonCache.stamp();
+        return getAllQuizzes(page).map(quiz -> new RawValue(quizJsonCache.get(quiz, stamp)));
+    }
+
+    /**
+     * Retrieves quizzes by list of IDs. Quizzes which were already requested are served from cache, the rest
+     * are loaded from DB at once.
+     *
+     * @param ids IDs of requested quizzes.
+     * @return Found quizzes in requested order and IDs for which no quiz was found.
+     * Returns "400 Bad Request" if too many IDs are requested or IDs are malformed.
+     */
+    public QuizBatch<RawValue> getQuizzesByIds(List<Integer> ids) {
+        checkBatch(ids);
+        Map<Integer, SerializedString> found = new HashMap<>();
+        Set<Integer> notCached = new HashSet<>();
+        for (Integer id : ids) {
+            SerializedString json = quizJsonCache.getIfCached(id);
+            if (json != null) {
+                found.put(id, json);
+            } else {
+                notCached.add(id);
+            }
+        }
+        if (!notCached.isEmpty()) {
+            long stamp = quizJsonCache.stamp();
+            quizRepository.findAllById(notCached)
+                    .forEach(quiz -> found.put(quiz.getId(), quizJsonCache.get(quiz, stamp)));
+        }
+        List<RawValue> quizzes = new ArrayList<>(found.size());
+        List<Integer> missing = new ArrayList<>();
+        for (Integer id : ids) {
+            SerializedString json = found.get(id);
+            if (json != null) {
+                quizzes.add(new RawValue(json));
+            } else {
+                missing.add(id);
+            }
+        }
+        return new QuizBatch<>(quizzes, missing);
+    }
+
+    /**
+     * Retrieves quizzes by list of IDs from DB, for serialization into formats other than JSON.
+     *
+     * @param ids IDs of requested quizzes.
+     * @return Found quizzes in requested order and IDs for which no quiz was found.
+     * Returns "400 Bad Request" if too many IDs are requested or IDs are malformed.
+     */
+    public QuizBatch<Quiz> getQuizObjectsByIds(List<Integer> ids) {
+        checkBatch(ids);
+        Map<Integer, Quiz> found = new HashMap<>();
+        quizRepository.findAllById(new HashSet<>(ids)).forEach(quiz -> found.put(quiz.getId(), quiz));
+        List<Quiz> quizzes = new ArrayList<>(found.size());
+        List<Integer> missing = new ArrayList<>();
+        for (Integer id : ids) {
+            Quiz quiz = found.get(id);
+            if (quiz != null) {
+                quizzes.add(quiz);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new QuizBatch<>(quizzes, missing);
+    }
+
+    private void checkBatch(List<Integer> ids) {
+        if (ids.size() > maxBatchSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    String.format("At most %d quizzes can be requested at once.", maxBatchSize));
+        }
+        if (ids.contains(null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Quiz IDs should be integers.");
+        }
+    }
+
+    /**
+     * Picks random quizzes without replacement from IDs of stored quizzes kept in memory, so DB isn't read.
+     *
+     * @param n                  Number of requested quizzes.
+     * @param excludeSolved      True if quizzes solved by the user are never picked.
+     * @param httpServletRequest HTTP request of the user.
+     * @return IDs of picked quizzes, fewer than requested if there are not enough quizzes.
+     * Returns "400 Bad Request" if number of quizzes is not positive or too large.
+     */
+    public List<Integer> getRandomQuizIds(int n, boolean excludeSolved, HttpServletRequest httpServletRequest) {
+        if (n < 1 || n > maxBatchSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    String.format("Between 1 and %d quizzes can be requested at once.", maxBatchSize));
+        }
+        Set<Integer> excluded = excludeSolved ? quizCompletionService.getSolvedQuizIds(httpServletRequest)
+                : Collections.emptySet();
+        return quizSampler.sample(n, excluded);
     }
 
     /**
@@ -111,25 +349,209 @@ public class QuizService {
      * Returns "404 Not Found" if there's no quiz with provided ID.
      */
     public QuizResult answerQuiz(Answer answer, int id, HttpServletRequest httpServletRequest) {
-        QuizResult quizResult;
         Quiz quiz = getQuizByIdOrThrow(id);
-        List<Integer> savedAnswer = quiz.getAnswer();
-        if (savedAnswer == null || answer.getAnswer() == null) {
-            quizResult = savedAnswer == answer.getAnswer() ? resultCorrect : resultWrong;
-        } else {
-            quizResult = answer.getAnswer().equals(savedAnswer) ? resultCorrect : resultWrong;
-        }
+        QuizResult quizResult = checkAnswer(quiz, answer);
+        attemptLogService.record(id, answer.getAnswer(), quizResult.isSuccess(), httpServletRequest);
+        heavyHitterService.recordAttempt(id);
         if (quizResult.isSuccess()) {
             quizCompletionService.addQuizCompletion(quiz, httpServletRequest);
         }
         return quizResult;
     }
 
+    /**
+     * Accepts batch of answers for quizzes from user. All quizzes are loaded from DB at once and completions
+     * of all correctly solved quizzes are stored together.
+     *
+     * @param answers            Answers that were submitted, each one with ID of the quiz to which it is submitted.
+     * @param httpServletRequest HTTP request with which answers were submitted.
+     * @return Results of answers in the same order as answers were submitted.
+     * Returns "400 Bad Request" if batch is too large or malformed
+     * and "404 Not Found" if there's no quiz for any of provided IDs.
+     */
+    public List<QuizResult> answerQuizzes(List<QuizAnswer> answers, HttpServletRequest httpServletRequest) {
+        Map<Integer, Quiz> quizzes = loadAnsweredQuizzes(answers);
+        List<QuizResult> results = new ArrayList<>(answers.size());
+        List<Quiz> solved = new ArrayList<>();
+        for (QuizAnswer answer : answers) {
+            Quiz quiz = quizzes.get(answer.getQuizId());
+            QuizResult quizResult = checkAnswer(quiz, answer);
+            attemptLogService.record(quiz.getId(), answer.getAnswer(), quizResult.isSuccess(), httpServletRequest);
+            heavyHitterService.recordAttempt(quiz.getId());
+            if (quizResult.isSuccess()) {
+                solved.add(quiz);
+            }
+            results.add(quizResult);
+        }
+        if (!solved.isEmpty()) {
+            quizCompletionService.addQuizCompletions(solved, httpServletRequest);
+        }
+        return results;
+    }
+
+    /**
+     * Checks answer for quiz as answerQuiz does, but neither records the attempt nor stores completion. Used
+     * for warm-up of the solving code path.
+     *
+     * @param answer Answer to check.
+     * @param id     ID of the quiz to which answer is checked.
+     * @return If answer is correct QuizResultCorrect object and QuizResultWrong otherwise.
+     * Returns "404 Not Found" if there's no quiz with provided ID.
+     */
+    public QuizResult checkAnswer(Answer answer, int id) {
+        return checkAnswer(getQuizByIdOrThrow(id), answer);
+    }
+
+    /**
+     * Checks batch of answers as answerQuizzes does, but neither records attempts nor stores completions. Used
+     * for warm-up of the batch solving code path.
+     *
+     * @param answers Answers to check, each one with ID of the quiz to which it is checked.
+     * @return Results of answers in the same order as answers were passed.
+     * Returns "400 Bad Request" if batch is too large or malformed
+     * and "404 Not Found" if there's no quiz for any of provided IDs.
+     */
+    public List<QuizResult> checkAnswers(List<QuizAnswer> answers) {
+        Map<Integer, Quiz> quizzes = loadAnsweredQuizzes(answers);
+        return answers.stream()
+                .map(answer -> checkAnswer(quizzes.get(answer.getQuizId()), answer))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Loads all quizzes of the batch of answers from DB at once.
+     *
+     * @param answers Answers with IDs of quizzes to which they are submitted.
+     * @return Answered quizzes by their IDs.
+     * Returns "400 Bad Request" if batch is too large or malformed
+     * and "404 Not Found" if there's no quiz for any of provided IDs.
+     */
+    private Map<Integer, Quiz> loadAnsweredQuizzes(List<QuizAnswer> answers) {
+        if (answers.size() > maxBatchSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    String.format("Batch should contain at most %d answers.", maxBatchSize));
+        }
+        if (answers.stream().anyMatch(answer -> answer == null || answer.getQuizId() == null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Every answer should contain quiz ID.");
+        }
+        Set<Integer> ids = answers.stream().map(QuizAnswer::getQuizId).collect(Collectors.toSet());
+        Map<Integer, Quiz> quizzes = quizRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Quiz::getId, Function.identity()));
+        if (quizzes.size() < ids.size()) {
+            ids.removeAll(quizzes.keySet());
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Quizzes not found: " + ids);
+        }
+        return quizzes;
+    }
+
+    /**
+     * Compares answer with correct answer of the quiz.
+     *
+     * @param quiz   Quiz to which answer was submitted.
+     * @param answer Answer that was submitted.
+     * @return QuizResultCorrect object if answer is correct and QuizResultWrong otherwise.
+     */
+    private QuizResult checkAnswer(Quiz quiz, Answer answer) {
+        List<Integer> savedAnswer = quiz.getAnswer();
+        if (savedAnswer == null || answer.getAnswer() == null) {
+            return savedAnswer == answer.getAnswer() ? resultCorrect : resultWrong;
+        }
+        return answer.getAnswer().equals(savedAnswer) ? resultCorrect : resultWrong;
+    }
+
+    /**
+     * Applies quiz added or deleted by another instance of the application to in-memory state.
+     *
+     * @param change Change made by another instance.
+     */
+    @Override
+    @Transactional
+    public void onEntityChange(EntityChange change) {
+        if (change.getType() == EntityChange.Type.QUIZ_ADDED) {
+            quizRepository.findById(change.getEntityId()).ifPresent(this::quizAdded);
+        } else if (change.getType() == EntityChange.Type.QUIZ_DELETED) {
+            quizDeleted(change.getEntityId(), change.getSequenceNumber());
+        }
+    }
+
+    /**
+     * Updates in-memory state after quiz was stored.
+     */
+    private void quizAdded(Quiz quiz) {
+        quizExistenceFilter.add(quiz.getId());
+        quizSampler.add(quiz.getId());
+        quizStreamService.quizAdded(quiz);
+        quizSearchService.addQuiz(quiz);
+    }
+
+    /**
+     * Updates in-memory state after quiz was deleted.
+     */
+    private void quizDeleted(int id, long sequenceNumber) {
+        quizExistenceFilter.remove(id);
+        quizSampler.remove(id);
+        quizStreamService.quizDeleted(id);
+        quizSearchService.deleteQuiz(id);
+        quizJsonCache.remove(id);
+        deletionVersion.accumulateAndGet(sequenceNumber, Math::max);
+    }
+
     @Autowired
     public void setQuizRepository(QuizRepository quizRepository) {
         this.quizRepository = quizRepository;
     }
 
+    @Autowired
+    public void setInvalidationBus(InvalidationBus invalidationBus) {
+        this.invalidationBus = invalidationBus;
+        deletionVersion.set(invalidationBus.getAppliedSequenceNumber());
+    }
+
+    @Autowired
+    public void setAttemptLogService(AttemptLogService attemptLogService) {
+        this.attemptLogService = attemptLogService;
+    }
+
+    @Autowired
+    public void setHeavyHitterService(HeavyHitterService heavyHitterService) {
+        this.heavyHitterService = heavyHitterService;
+    }
+
+    @Autowired
+    public void setQuizStorageMigration(QuizStorageMigration quizStorageMigration) {
+        this.quizStorageMigration = quizStorageMigration;
+    }
+
+    @Autowired
+    public void setListingCounterService(ListingCounterService listingCounterService) {
+        this.listingCounterService = listingCounterService;
+    }
+
+    @Autowired
+    public void setQuizExistenceFilter(QuizExistenceFilter quizExistenceFilter) {
+        this.quizExistenceFilter = quizExistenceFilter;
+    }
+
+    @Autowired
+    public void setQuizSampler(QuizSampler quizSampler) {
+        this.quizSampler = quizSampler;
+    }
+
+    @Autowired
+    public void setQuizStreamService(QuizStreamService quizStreamService) {
+        this.quizStreamService = quizStreamService;
+    }
+
+    @Autowired
+    public void setQuizJsonCache(QuizJsonCache quizJsonCache) {
+        this.quizJsonCache = quizJsonCache;
+    }
+
+    @Autowired
+    public void setQuizSearchService(QuizSearchService quizSearchService) {
+        this.quizSearchService = quizSearchService;
+    }
+
     @Autowired
     public void setUserService(UserService userService) {
         this.userService = userService;
@@ -0,0 +1,97 @@
+package engine.service;
+
+import engine.dataobject.Quiz;
+import engine.repository.QuizRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+
+/**
+ * Service class for online migration of quizzes stored one row per option and answer index into compact storage.
+ * Runs in background while compact storage is enabled, converting small batches of quizzes in separate
+ * transactions, so quizzes stay available during migration. Quizzes are never modified, so their cached
+ * representations stay valid.
+ */
+@Service
+public class QuizStorageMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(QuizStorageMigration.class);
+
+    /**
+     * Providing CRUD methods for Quiz objects.
+     */
+    private QuizRepository quizRepository;
+    /**
+     * Runs every batch in a separate transaction.
+     */
+    private TransactionTemplate transactionTemplate;
+    /**
+     * True if new quizzes are stored in compact storage and old ones are migrated into it.
+     */
+    @Value("${quiz.storage.compact:false}")
+    private boolean compactStorage;
+    /**
+     * Number of quizzes migrated in a single transaction.
+     */
+    @Value("${quiz.storage.migration-batch-size:100}")
+    private int batchSize;
+    /**
+     * False once there's nothing left to migrate.
+     */
+    private volatile boolean pending = true;
+
+
+    /**
+     * Migrates all quizzes which are still stored in rows, batch by batch.
+     */
+    @Scheduled(initialDelayString = "${quiz.storage.migration-delay-ms:10000}",
+            fixedDelayString = "${quiz.storage.migration-delay-ms:10000}")
+    public void migrate() {
+        if (!compactStorage || !pending) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        int migrated = 0;
+        int batch;
+        do {
+            batch = transactionTemplate.execute(status -> {
+                List<Integer> ids = quizRepository.findRowStorageIds(PageRequest.of(0, batchSize));
+                List<Quiz> quizzes = quizRepository.findAllById(ids);
+                quizzes.forEach(Quiz::useCompactStorage);
+                return quizzes.size();
+            });
+            migrated += batch;
+        } while (batch == batchSize);
+        pending = false;
+        if (migrated > 0) {
+            log.info("Migrated {} quizzes into compact storage in {} ms", migrated,
+                    System.currentTimeMillis() - start);
+        }
+    }
+
+    /**
+     * @return True if new quizzes should be stored in compact storage.
+     */
+    public boolean isCompactStorage() {
+        return compactStorage;
+    }
+
+    @Autowired
+    public void setQuizRepository(QuizRepository quizRepository) {
+        this.quizRepository = quizRepository;
+    }
+
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+}
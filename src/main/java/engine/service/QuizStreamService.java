@@ -0,0 +1,216 @@
+package engine.service;
+
+import com.fasterxml.jackson.databind.util.RawValue;
+import engine.dataobject.Quiz;
+import engine.stream.QuizEventJournal;
+import engine.stream.QuizStreamEvent;
+import engine.stream.StreamSubscriber;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+
+/**
+ * Service class for streaming created and deleted quizzes to subscribers as server-sent events. Events are
+ * journaled, so subscribers resume from their last received event after reconnecting. Connections are processed
+ * asynchronously and events are sent by a small shared pool of threads, so idle subscribers hold no threads.
+ */
+@Service
+public class QuizStreamService {
+
+    /**
+     * Path of the stream endpoint. Its connections are long-lived, so request limits and response buffering
+     * don't apply to it.
+     */
+    public static final String PATH = "/api/quizzes/stream";
+
+    /**
+     * Cache of JSON representations of quizzes.
+     */
+    private QuizJsonCache quizJsonCache;
+    /**
+     * Registry of application metrics.
+     */
+    private MeterRegistry meterRegistry;
+    /**
+     * Maximum number of journaled events available for resuming.
+     */
+    @Value("${quiz.stream.journal-size:1000}")
+    private int journalSize;
+    /**
+     * Maximum number of events queued for a single subscriber, slower subscribers are disconnected.
+     */
+    @Value("${quiz.stream.subscriber-queue:256}")
+    private int subscriberQueue;
+    /**
+     * Number of threads sending events to subscribers.
+     */
+    @Value("${quiz.stream.threads:4}")
+    private int threads;
+    /**
+     * Time in milliseconds after which connection is closed, clients reconnect and resume then.
+     */
+    @Value("${quiz.stream.timeout-ms:1800000}")
+    private long timeout;
+    /**
+     * Time in milliseconds a single event may take to send, a subscriber not receiving it in time is disconnected.
+     */
+    @Value("${quiz.stream.send-timeout-ms:10000}")
+    private long sendTimeout;
+    /**
+     * Journal of the latest events, guarded by itself along with publishing, so a new subscriber gets every event
+     * exactly once, either replayed or published.
+     */
+    private QuizEventJournal journal;
+    /**
+     * Connected subscribers.
+     */
+    private final Set<StreamSubscriber> subscribers = ConcurrentHashMap.newKeySet();
+    /**
+     * Threads sending events to subscribers.
+     */
+    private ExecutorService executor;
+    /**
+     * Thread enforcing deadlines of sends.
+     */
+    private ScheduledThreadPoolExecutor watchdog;
+
+
+    /**
+     * Subscribes to the stream of quiz changes.
+     *
+     * @param lastEventId ID of the last event received by the client before reconnecting, or null for a new
+     *                    subscription.
+     * @return Emitter of events, starting after the last received event. Event "reset" is sent first if that event
+     * is no longer journaled or the ID is unknown, so the client must list quizzes again.
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeout);
+        StreamSubscriber subscriber = new StreamSubscriber(emitter, executor, subscriberQueue, watchdog,
+                sendTimeout);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        synchronized (journal) {
+            List<QuizStreamEvent> missed = lastEventId == null ? Collections.emptyList()
+                    : journal.after(lastEventId);
+            if (missed == null) {
+                missed = Collections.singletonList(new QuizStreamEvent(journal.getLastEventId(),
+                        QuizStreamEvent.RESET, Collections.singletonMap("lastEventId", lastEventId)));
+            }
+            subscriber.replay(missed.stream().map(QuizStreamEvent::toSse).collect(Collectors.toList()));
+            subscribers.add(subscriber);
+        }
+        return emitter;
+    }
+
+    /**
+     * Publishes event of the created quiz, called after the quiz is stored.
+     *
+     * @param quiz Created quiz.
+     */
+    public void quizAdded(Quiz quiz) {
+        publish(QuizStreamEvent.CREATED, new RawValue(quizJsonCache.getOrSerialize(quiz)));
+    }
+
+    /**
+     * Publishes event of the deleted quiz, called after the quiz is removed.
+     *
+     * @param id ID of the deleted quiz.
+     */
+    public void quizDeleted(int id) {
+        publish(QuizStreamEvent.DELETED, Collections.singletonMap("id", id));
+    }
+
+    /**
+     * Periodically sends a comment to every subscriber, so closed connections are noticed and proxies don't close
+     * idle ones.
+     */
+    @Scheduled(fixedDelayString = "${quiz.stream.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        for (StreamSubscriber subscriber : subscribers) {
+            if (!subscriber.offer(SseEmitter.event().comment("heartbeat"))) {
+                subscribers.remove(subscriber);
+            }
+        }
+    }
+
+    /**
+     * Creates the journal, threads sending events and the thread enforcing their deadlines. IDs of events start
+     * with a random epoch, so IDs issued before restart or by another node are never taken for IDs of this journal
+     * and clients resuming with them are reset.
+     */
+    @PostConstruct
+    public void start() {
+        journal = new QuizEventJournal(journalSize, UUID.randomUUID().toString());
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "quiz-stream-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        watchdog = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "quiz-stream-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watchdog.setRemoveOnCancelPolicy(true);
+        Gauge.builder("quiz.stream.subscribers", subscribers, Set::size)
+                .description("Connected subscribers of the stream of quiz changes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Stops sending events to subscribers and stops threads sending them.
+     */
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+        watchdog.shutdown();
+        subscribers.forEach(StreamSubscriber::close);
+        subscribers.clear();
+    }
+
+    private void publish(String name, Object data) {
+        synchronized (journal) {
+            QuizStreamEvent event = journal.append(name, data);
+            for (StreamSubscriber subscriber : subscribers) {
+                if (!subscriber.offer(event.toSse())) {
+                    subscribers.remove(subscriber);
+                }
+            }
+        }
+    }
+
+    private void remove(StreamSubscriber subscriber) {
+        subscriber.close();
+        subscribers.remove(subscriber);
+    }
+
+    @Autowired
+    public void setQuizJsonCache(QuizJsonCache quizJsonCache) {
+        this.quizJsonCache = quizJsonCache;
+    }
+
+    @Autowired
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+}
@@ -0,0 +1,100 @@
+package engine.service;
+
+import engine.dataobject.Role;
+import engine.repository.RoleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * Service class for providing canonical Role objects. Every role is stored in DB once and shared by all users
+ * having it. Roles are loaded at startup and then looked up in memory.
+ */
+@Service
+public class RoleService implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(RoleService.class);
+    /**
+     * Name of the role of every registered user.
+     */
+    public static final String ROLE_USER = "ROLE_USER";
+
+    /**
+     * Providing CRUD methods for Role objects.
+     */
+    private RoleRepository roleRepository;
+    /**
+     * Used for deduplication of roles stored before roles became shared.
+     */
+    private JdbcTemplate jdbcTemplate;
+    /**
+     * Runs deduplication in a single transaction.
+     */
+    private TransactionTemplate transactionTemplate;
+    /**
+     * Roles stored in DB by their names.
+     */
+    private final Map<String, Role> roles = new ConcurrentHashMap<>();
+
+
+    /**
+     * Retrieves role by its name, storing it into DB if there's no such role yet.
+     *
+     * @param roleName Name of the role, such as ROLE_USER.
+     * @return Role shared by all users having it.
+     */
+    public Role getRole(String roleName) {
+        return roles.computeIfAbsent(roleName, name -> roleRepository.save(new Role(name)));
+    }
+
+    /**
+     * Removes duplicate roles from DB and loads remaining ones.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        transactionTemplate.executeWithoutResult(status -> deduplicateRoles());
+        roleRepository.findAll().forEach(role -> roles.putIfAbsent(role.getRoleName(), role));
+        getRole(ROLE_USER);
+    }
+
+    /**
+     * Migrates users to the first stored role of every name and removes the rest of roles with the same name.
+     * Earlier every registered user got own copy of the role.
+     */
+    private void deduplicateRoles() {
+        Integer duplicates = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) - COUNT(DISTINCT role_name) FROM role", Integer.class);
+        if (duplicates == null || duplicates == 0) {
+            return;
+        }
+        jdbcTemplate.update("UPDATE user_roles SET roles_id = (SELECT MIN(r.id) FROM role r WHERE r.role_name = " +
+                "(SELECT d.role_name FROM role d WHERE d.id = user_roles.roles_id))");
+        int removed = jdbcTemplate.update("DELETE FROM role WHERE id NOT IN " +
+                "(SELECT MIN(id) FROM role GROUP BY role_name)");
+        log.info("Removed {} duplicate roles", removed);
+    }
+
+    @Autowired
+    public void setRoleRepository(RoleRepository roleRepository) {
+        this.roleRepository = roleRepository;
+    }
+
+    @Autowired
+    public void setJdbcTemplate(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+}
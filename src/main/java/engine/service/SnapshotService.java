@@ -0,0 +1,160 @@
+package engine.service;
+
+import engine.snapshot.H2DatabaseFile;
+import engine.snapshot.Snapshot;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+
+/**
+ * Service class for taking online snapshots of the database. H2 BACKUP command copies the database file into
+ * a compressed file while the database stays open for reading and writing, new changes are appended to the database
+ * file until the copy is finished. Snapshots are restored at startup by engine.snapshot.SnapshotRestorer.
+ */
+@Service
+public class SnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshotService.class);
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    /**
+     * Suffix of names of snapshot files.
+     */
+    private static final String SNAPSHOT_SUFFIX = ".zip";
+
+    /**
+     * Runs BACKUP command against the main DB.
+     */
+    private JdbcTemplate jdbcTemplate;
+    /**
+     * Timer of taking snapshots.
+     */
+    private Timer timer;
+    /**
+     * True while a snapshot is being taken.
+     */
+    private final AtomicBoolean running = new AtomicBoolean();
+    /**
+     * JDBC URL of the main DB.
+     */
+    @Value("${spring.datasource.url}")
+    private String url;
+    /**
+     * Directory of snapshot files.
+     */
+    @Value("${quiz.snapshot.directory:quiz-snapshots}")
+    private String directory;
+    /**
+     * Number of the most recent snapshots kept, older ones are removed.
+     */
+    @Value("${quiz.snapshot.keep:5}")
+    private int keep;
+
+
+    /**
+     * Takes a snapshot of the database into a new file of the snapshot directory.
+     *
+     * @return Taken snapshot with its duration and throughput, or null if another snapshot is being taken.
+     */
+    public Snapshot takeSnapshot() {
+        if (!running.compareAndSet(false, true)) {
+            return null;
+        }
+        try {
+            H2DatabaseFile database = H2DatabaseFile.of(url);
+            Path dir = Paths.get(directory);
+            Files.createDirectories(dir);
+            LocalDateTime createdAt = LocalDateTime.now();
+            Path file = dir.resolve(database.getName() + "-" + createdAt.format(NAME_FORMAT) + SNAPSHOT_SUFFIX);
+            Path temporary = dir.resolve(file.getFileName() + ".tmp");
+            long start = System.nanoTime();
+            jdbcTemplate.execute("BACKUP TO '" + temporary.toAbsolutePath().toString().replace("'", "''") + "'");
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+            long duration = System.nanoTime() - start;
+            timer.record(duration, TimeUnit.NANOSECONDS);
+            long databaseBytes = Files.size(database.getMvStoreFile());
+            long durationMs = TimeUnit.NANOSECONDS.toMillis(duration);
+            double megabytesPerSecond = databaseBytes / 1_048_576.0 / Math.max(duration / 1e9, 1e-3);
+            Snapshot snapshot = new Snapshot(file.getFileName().toString(), createdAt, Files.size(file),
+                    databaseBytes, durationMs, megabytesPerSecond);
+            log.info("Took snapshot {} of {} bytes in {} ms, {} MB/s", file, databaseBytes, durationMs,
+                    String.format("%.1f", megabytesPerSecond));
+            removeOldSnapshots();
+            return snapshot;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * @return All snapshots of the snapshot directory, from the newest one.
+     */
+    public List<Snapshot> getSnapshots() {
+        Path dir = Paths.get(directory);
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(SNAPSHOT_SUFFIX))
+                    .sorted(Comparator.reverseOrder())
+                    .map(this::toSnapshot)
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Snapshot toSnapshot(Path file) {
+        try {
+            FileTime modified = Files.getLastModifiedTime(file);
+            return new Snapshot(file.getFileName().toString(),
+                    LocalDateTime.ofInstant(modified.toInstant(), ZoneId.systemDefault()), Files.size(file),
+                    null, null, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void removeOldSnapshots() throws IOException {
+        if (keep <= 0) {
+            return;
+        }
+        List<Snapshot> snapshots = getSnapshots();
+        for (Snapshot snapshot : snapshots.subList(Math.min(keep, snapshots.size()), snapshots.size())) {
+            Files.deleteIfExists(Paths.get(directory, snapshot.getFile()));
+        }
+    }
+
+    @Autowired
+    public void setJdbcTemplate(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Autowired
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.timer = Timer.builder("quiz.snapshot.duration")
+                .description("Time of taking database snapshots")
+                .register(meterRegistry);
+    }
+}
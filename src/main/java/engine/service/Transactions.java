@@ -0,0 +1,33 @@
+package engine.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+
+/**
+ * Helpers for changes of in-memory state which should follow changes of DB, so they are never applied when the
+ * transaction rolls back.
+ */
+public final class Transactions {
+
+    private Transactions() {
+    }
+
+    /**
+     * Runs action after commit of the current transaction, or immediately if there's no transaction.
+     *
+     * @param action Action changing in-memory state.
+     */
+    public static void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -1,14 +1,16 @@
 package engine.service;
 
 import engine.dataobject.Quiz;
-import engine.dataobject.Role;
 import engine.dataobject.User;
 import engine.repository.UserRepository;
+import engine.timing.PhaseTimer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.transaction.Transactional;
@@ -29,6 +31,18 @@ public class UserService implements UserDetailsService {
      * Encoder for storing users password securely.
      */
     private BCryptPasswordEncoder bCryptPasswordEncoder;
+    /**
+     * Providing roles shared by users.
+     */
+    private RoleService roleService;
+    /**
+     * Providing total numbers of records of paged listings.
+     */
+    private ListingCounterService listingCounterService;
+    /**
+     * Runs registration of a user in a transaction after the password is hashed.
+     */
+    private TransactionTemplate transactionTemplate;
 
     /**
      * Retrieves User from DB by its name.
@@ -37,7 +51,10 @@ public class UserService implements UserDetailsService {
      */
     @Override
     public User loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username);
+        User user;
+        try (PhaseTimer.Phase ignored = PhaseTimer.start("user")) {
+            user = userRepository.findByUsername(username);
+        }
         if (user == null) {
             throw new UsernameNotFoundException("User not found");
         }
@@ -45,21 +62,26 @@ public class UserService implements UserDetailsService {
     }
 
     /**
-     * Stores into DB newly registered user with its password and role.
+     * Stores into DB newly registered user with its password and role. Password is hashed before the transaction
+     * is started, so a DB connection isn't held while hashing runs.
      *
      * @param user User to be stored into DB.
      * @return True if stored successfully and false if this user already exist.
      */
     public boolean addUser(User user) {
-        User userFromDB = userRepository.findByUsername(user.getUsername());
-        if (userFromDB != null) {
-            return false;
-        }
-        user.setId(0);
-        user.setRoles(Collections.singleton(new Role("ROLE_USER")));
-        user.setPassword(bCryptPasswordEncoder.encode(user.getPassword()));
-        userRepository.save(user);
-        return true;
+        String encodedPassword = bCryptPasswordEncoder.encode(user.getPassword());
+        return transactionTemplate.execute(status -> {
+            User userFromDB = userRepository.findByUsername(user.getUsername());
+            if (userFromDB != null) {
+                return false;
+            }
+            user.setId(0);
+            user.setRoles(Collections.singleton(roleService.getRole(RoleService.ROLE_USER)));
+            user.setPassword(encodedPassword);
+            User savedUser = userRepository.save(user);
+            listingCounterService.create(ListingCounterService.completions(savedUser.getId()));
+            return true;
+        });
     }
 
     /**
@@ -106,6 +128,21 @@ public class UserService implements UserDetailsService {
         this.userRepository = userRepository;
     }
 
+    @Autowired
+    public void setListingCounterService(ListingCounterService listingCounterService) {
+        this.listingCounterService = listingCounterService;
+    }
+
+    @Autowired
+    public void setRoleService(RoleService roleService) {
+        this.roleService = roleService;
+    }
+
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
     @Autowired
     public void setbCryptPasswordEncoder(BCryptPasswordEncoder bCryptPasswordEncoder) {
         this.bCryptPasswordEncoder = bCryptPasswordEncoder;
@@ -0,0 +1,93 @@
+package engine.snapshot;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+
+/**
+ * Location of a file-based H2 database, resolved from its JDBC URL.
+ */
+public class H2DatabaseFile {
+
+    private static final String FILE_PREFIX = "jdbc:h2:file:";
+    private static final String PREFIX = "jdbc:h2:";
+    /**
+     * Extension of MVStore database files.
+     */
+    private static final String MV_STORE_SUFFIX = ".mv.db";
+
+    /**
+     * Directory of database files.
+     */
+    private final Path directory;
+    /**
+     * Name of the database, prefix of names of its files.
+     */
+    private final String name;
+
+
+    private H2DatabaseFile(Path directory, String name) {
+        this.directory = directory;
+        this.name = name;
+    }
+
+    /**
+     * @param url JDBC URL of the database.
+     * @return Location of the database.
+     * @throws IllegalArgumentException If the URL is not a URL of an embedded file-based H2 database.
+     */
+    public static H2DatabaseFile of(String url) {
+        String path;
+        if (url.startsWith(FILE_PREFIX)) {
+            path = url.substring(FILE_PREFIX.length());
+        } else if (url.startsWith(PREFIX) && isPath(url.substring(PREFIX.length()))) {
+            path = url.substring(PREFIX.length());
+        } else {
+            throw new IllegalArgumentException("Not an embedded file-based H2 database: " + url);
+        }
+        int parameters = path.indexOf(';');
+        if (parameters >= 0) {
+            path = path.substring(0, parameters);
+        }
+        if (path.startsWith("~")) {
+            path = System.getProperty("user.home") + path.substring(1);
+        }
+        Path file = Paths.get(path).toAbsolutePath().normalize();
+        return new H2DatabaseFile(file.getParent(), file.getFileName().toString());
+    }
+
+    private static boolean isPath(String path) {
+        return path.startsWith(".") || path.startsWith("/") || path.startsWith("~")
+                || path.length() > 1 && path.charAt(1) == ':';
+    }
+
+    /**
+     * @return Directory of database files.
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * @return Name of the database, prefix of names of its files.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return Main file of the database.
+     */
+    public Path getMvStoreFile() {
+        return directory.resolve(name + MV_STORE_SUFFIX);
+    }
+
+    /**
+     * @param fileName Name of a file.
+     * @return True if the file belongs to the database, names with directories never do.
+     */
+    public boolean owns(String fileName) {
+        return fileName.startsWith(name + ".") && fileName.endsWith(".db")
+                && fileName.indexOf('/') < 0 && fileName.indexOf('\\') < 0;
+    }
+}
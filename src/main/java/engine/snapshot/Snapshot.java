@@ -0,0 +1,93 @@
+package engine.snapshot;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+
+/**
+ * Class represents a snapshot file of the database. Duration and throughput are only known for the snapshot
+ * which was just taken.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class Snapshot {
+
+    /**
+     * Name of the snapshot file.
+     */
+    private final String file;
+    /**
+     * Date and time when the snapshot was taken.
+     */
+    private final LocalDateTime createdAt;
+    /**
+     * Size of the compressed snapshot file in bytes.
+     */
+    private final long snapshotBytes;
+    /**
+     * Size of the database file in bytes at the time of the snapshot.
+     */
+    private final Long databaseBytes;
+    /**
+     * Duration of taking the snapshot in milliseconds.
+     */
+    private final Long durationMs;
+    /**
+     * Megabytes of the database file copied per second.
+     */
+    private final Double megabytesPerSecond;
+
+
+    public Snapshot(String file, LocalDateTime createdAt, long snapshotBytes, Long databaseBytes, Long durationMs,
+                    Double megabytesPerSecond) {
+        this.file = file;
+        this.createdAt = createdAt;
+        this.snapshotBytes = snapshotBytes;
+        this.databaseBytes = databaseBytes;
+        this.durationMs = durationMs;
+        this.megabytesPerSecond = megabytesPerSecond;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public long getSnapshotBytes() {
+        return snapshotBytes;
+    }
+
+    public Long getDatabaseBytes() {
+        return databaseBytes;
+    }
+
+    public Long getDurationMs() {
+        return durationMs;
+    }
+
+    public Double getMegabytesPerSecond() {
+        return megabytesPerSecond;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Snapshot)) return false;
+        Snapshot that = (Snapshot) o;
+        return snapshotBytes == that.snapshotBytes &&
+                Objects.equals(file, that.file) &&
+                Objects.equals(createdAt, that.createdAt) &&
+                Objects.equals(databaseBytes, that.databaseBytes) &&
+                Objects.equals(durationMs, that.durationMs) &&
+                Objects.equals(megabytesPerSecond, that.megabytesPerSecond);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(file, createdAt, snapshotBytes, databaseBytes, durationMs, megabytesPerSecond);
+    }
+}
@@ -0,0 +1,55 @@
+package engine.snapshot;
+
+import engine.service.SnapshotService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+
+/**
+ * Actuator endpoint /actuator/snapshot: GET lists snapshots of the database, POST takes a new one.
+ */
+@Component
+@WebEndpoint(id = "snapshot")
+public class SnapshotEndpoint {
+
+    /**
+     * Providing snapshots of the database.
+     */
+    private SnapshotService snapshotService;
+
+
+    /**
+     * @return All snapshots, from the newest one.
+     */
+    @ReadOperation
+    public List<Snapshot> snapshots() {
+        return snapshotService.getSnapshots();
+    }
+
+    /**
+     * Takes a snapshot of the database without stopping the application.
+     *
+     * @return Taken snapshot with its duration and throughput, or response "409 Conflict" if another snapshot
+     * is being taken.
+     */
+    @WriteOperation
+    public WebEndpointResponse<Snapshot> takeSnapshot() {
+        Snapshot snapshot = snapshotService.takeSnapshot();
+        if (snapshot == null) {
+            return new WebEndpointResponse<>(HttpStatus.CONFLICT.value());
+        }
+        return new WebEndpointResponse<>(snapshot);
+    }
+
+    @Autowired
+    public void setSnapshotService(SnapshotService snapshotService) {
+        this.snapshotService = snapshotService;
+    }
+}
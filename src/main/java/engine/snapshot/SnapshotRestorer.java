@@ -0,0 +1,140 @@
+package engine.snapshot;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.env.ConfigurableEnvironment;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+
+/**
+ * Restores the database from a snapshot at startup, before the database is opened, when the snapshot is given with
+ * quiz.snapshot.restore property, for example as --quiz.snapshot.restore=quiz-snapshots/quizdb-....zip argument.
+ * Files of the current database are moved aside into a directory next to them, then files of the snapshot
+ * are extracted in their place, so restoring takes as long as copying the files. A restored snapshot is recorded in
+ * a marker file next to the database files, so restarts with the property still set do not restore it again and
+ * discard changes made since.
+ */
+public class SnapshotRestorer implements ApplicationListener<ApplicationEnvironmentPreparedEvent> {
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshotRestorer.class);
+    private static final DateTimeFormatter SUFFIX_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    /**
+     * Extension of the marker file naming the last restored snapshot.
+     */
+    private static final String MARKER_SUFFIX = ".restored";
+
+    @Override
+    public void onApplicationEvent(ApplicationEnvironmentPreparedEvent event) {
+        ConfigurableEnvironment environment = event.getEnvironment();
+        String snapshot = environment.getProperty("quiz.snapshot.restore");
+        if (snapshot == null || snapshot.isEmpty()) {
+            return;
+        }
+        H2DatabaseFile database = H2DatabaseFile.of(environment.getRequiredProperty("spring.datasource.url"));
+        try {
+            restore(Paths.get(snapshot), database);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot restore database from " + snapshot, e);
+        }
+    }
+
+    /**
+     * Replaces files of the database with files of the snapshot, unless the snapshot is the last one restored.
+     *
+     * @param snapshot Snapshot made by H2 BACKUP command.
+     * @param database Location of the database.
+     * @return True if the snapshot was restored, false if it had already been restored.
+     * @throws IOException If files cannot be read or written.
+     */
+    public static boolean restore(Path snapshot, H2DatabaseFile database) throws IOException {
+        if (!Files.isRegularFile(snapshot)) {
+            throw new IllegalStateException("Snapshot " + snapshot + " does not exist");
+        }
+        Path marker = marker(database);
+        String restored = describe(snapshot);
+        if (Files.isRegularFile(marker) && Files.readAllLines(marker).contains(restored)) {
+            log.info("Snapshot {} has already been restored into database {}, delete {} to restore it again",
+                    snapshot, database.getName(), marker);
+            return false;
+        }
+        long start = System.currentTimeMillis();
+        Files.createDirectories(database.getDirectory());
+        checkNotInUse(database.getMvStoreFile());
+        Path aside = database.getDirectory().resolve(database.getName() + "-before-restore-"
+                + LocalDateTime.now().format(SUFFIX_FORMAT));
+        try (Stream<Path> files = Files.list(database.getDirectory())) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (Files.isRegularFile(file) && database.owns(file.getFileName().toString())) {
+                    Files.createDirectories(aside);
+                    Files.move(file, aside.resolve(file.getFileName()));
+                }
+            }
+        }
+        long bytes = 0;
+        try (ZipInputStream zip = new ZipInputStream(Files.newInputStream(snapshot))) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                if (entry.isDirectory() || !database.owns(entry.getName())) {
+                    log.warn("Skipped {} of snapshot {}, it does not belong to database {}", entry.getName(),
+                            snapshot, database.getName());
+                    continue;
+                }
+                bytes += Files.copy(zip, database.getDirectory().resolve(entry.getName()),
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        if (bytes == 0) {
+            throw new IllegalStateException("Snapshot " + snapshot + " has no files of database " + database.getName()
+                    + ", previous files are kept in " + aside);
+        }
+        Path written = Files.write(database.getDirectory().resolve(marker.getFileName() + ".tmp"),
+                Collections.singletonList(restored));
+        Files.move(written, marker, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.info("Restored {} bytes of database {} from {} in {} ms, previous files are kept in {}", bytes,
+                database.getName(), snapshot, System.currentTimeMillis() - start, aside);
+        return true;
+    }
+
+    /**
+     * @param database Location of the database.
+     * @return Marker file naming the last snapshot restored into the database, it is not a file of the database.
+     */
+    static Path marker(H2DatabaseFile database) {
+        return database.getDirectory().resolve(database.getName() + MARKER_SUFFIX);
+    }
+
+    /**
+     * @return Name and size of the snapshot, which identify it since names of snapshots contain the time they were
+     * taken.
+     */
+    private static String describe(Path snapshot) throws IOException {
+        return snapshot.getFileName() + " " + Files.size(snapshot);
+    }
+
+    private static void checkNotInUse(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+             FileLock lock = channel.tryLock()) {
+            if (lock == null) {
+                throw new IllegalStateException("Database " + file + " is in use, it cannot be restored");
+            }
+        } catch (OverlappingFileLockException e) {
+            throw new IllegalStateException("Database " + file + " is in use, it cannot be restored", e);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package engine.startup;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Configuration of startup: beans which must be created eagerly under lazy initialization of the fast-boot profile,
+ * and measurement of time to readiness, time to the first served request and latency of that request. Requests
+ * to actuator endpoints, such as readiness probes, are not counted as the first request.
+ */
+@Configuration
+public class StartupConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupConfig.class);
+
+    /**
+     * Time in milliseconds from JVM start until the first request was served, or -1 before that.
+     */
+    private final AtomicLong firstRequestMillis = new AtomicLong(-1);
+    /**
+     * Time in milliseconds the first served request took, or -1 before it was served.
+     */
+    private final AtomicLong firstRequestLatencyMillis = new AtomicLong(-1);
+    /**
+     * Time in milliseconds from JVM start until the application was ready to serve requests, or -1 before that.
+     */
+    private final AtomicLong readyMillis = new AtomicLong(-1);
+    /**
+     * Base path of actuator endpoints, which requests are not counted.
+     */
+    @Value("${management.endpoints.web.base-path:/actuator}")
+    private String actuatorPath;
+
+
+    /**
+     * Keeps eager beans which load state at startup, run scheduled tasks or release resources on shutdown. Lazy
+     * initialization would skip their startup callbacks and scheduling, so only the rest of beans is created lazily.
+     *
+     * @return Filter excluding such beans from lazy initialization.
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter eagerStartupBeans() {
+        return (beanName, beanDefinition, beanType) -> SmartInitializingSingleton.class.isAssignableFrom(beanType)
+                || hasLifecycleMethods(beanType);
+    }
+
+    /**
+     * @return Registration of the filter recording time and latency of the first served request.
+     */
+    @Bean
+    public FilterRegistrationBean<OncePerRequestFilter> firstRequestFilter(MeterRegistry meterRegistry) {
+        Gauge.builder("quiz.startup.first-request", firstRequestMillis, AtomicLong::get)
+                .description("Milliseconds from JVM start until the first request was served")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("quiz.startup.first-request.latency", firstRequestLatencyMillis, AtomicLong::get)
+                .description("Milliseconds the first served request took")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("quiz.startup.ready", readyMillis, AtomicLong::get)
+                .description("Milliseconds from JVM start until the application was ready to serve requests")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        FilterRegistrationBean<OncePerRequestFilter> registration =
+                new FilterRegistrationBean<>(new OncePerRequestFilter() {
+                    @Override
+                    protected boolean shouldNotFilter(HttpServletRequest request) {
+                        return firstRequestMillis.get() >= 0 || request.getRequestURI()
+                                .startsWith(request.getContextPath() + actuatorPath + "/");
+                    }
+
+                    @Override
+                    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                                    FilterChain chain) throws ServletException, IOException {
+                        long start = System.nanoTime();
+                        chain.doFilter(request, response);
+                        if (firstRequestMillis.get() < 0 && firstRequestMillis.compareAndSet(-1, sinceJvmStart())) {
+                            firstRequestLatencyMillis.set((System.nanoTime() - start) / 1_000_000);
+                            log.info("First request {} served {} ms after JVM start in {} ms",
+                                    request.getRequestURI(), firstRequestMillis.get(),
+                                    firstRequestLatencyMillis.get());
+                        }
+                    }
+                });
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    /**
+     * Logs time from JVM start until the application is ready to serve requests, including warm-up.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void logReady() {
+        readyMillis.set(sinceJvmStart());
+        log.info("Ready to serve requests {} ms after JVM start", readyMillis.get());
+    }
+
+    private static long sinceJvmStart() {
+        return System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+    }
+
+    private static boolean hasLifecycleMethods(Class<?> beanType) {
+        boolean[] found = {false};
+        ReflectionUtils.doWithMethods(beanType, method -> found[0] = true, (Method method) ->
+                method.isAnnotationPresent(Scheduled.class) || method.isAnnotationPresent(PostConstruct.class)
+                        || method.isAnnotationPresent(PreDestroy.class));
+        return found[0];
+    }
+}
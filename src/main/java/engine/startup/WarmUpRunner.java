@@ -0,0 +1,239 @@
+package engine.startup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import engine.completion.CompletionStore;
+import engine.dataobject.Answer;
+import engine.dataobject.Quiz;
+import engine.dataobject.QuizAnswer;
+import engine.leaderboard.LeaderboardWindow;
+import engine.service.LeaderboardService;
+import engine.service.QuizSearchService;
+import engine.service.QuizService;
+import engine.service.UserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Optional warm-up before the application reports readiness. Runners are called before readiness state changes
+ * to accepting traffic, so load balancers don't route requests to the instance until warm-up is finished.
+ * Warm-up preloads the most solved quizzes into the JSON cache and runs the code paths of hot endpoints, including
+ * parsing and checking of single and batch answers, in rounds until time of a round settles, so JPA query plans
+ * are cached and the code is compiled by JIT before the first real request. Warm-up never records attempts or stores
+ * completions.
+ */
+@Component
+public class WarmUpRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmUpRunner.class);
+
+    /**
+     * Providing methods for interaction with Quiz objects.
+     */
+    private QuizService quizService;
+    /**
+     * Providing full-text search over quizzes.
+     */
+    private QuizSearchService quizSearchService;
+    /**
+     * Providing leaderboards of users by number of solved quizzes.
+     */
+    private LeaderboardService leaderboardService;
+    /**
+     * Providing methods for interaction with User objects.
+     */
+    private UserService userService;
+    /**
+     * Storage of records about solved quizzes.
+     */
+    private CompletionStore completionStore;
+    /**
+     * Object mapper configured by Spring Boot, parsing submitted answers.
+     */
+    private ObjectMapper objectMapper;
+    /**
+     * Runs warm-up with open persistence context, as requests have, so lazy collections of quizzes are loaded.
+     */
+    private TransactionTemplate transactionTemplate;
+    /**
+     * Context of the application, closed on exit.
+     */
+    private ConfigurableApplicationContext applicationContext;
+    /**
+     * True if warm-up runs at startup.
+     */
+    @Value("${quiz.warm-up.enabled:false}")
+    private boolean enabled;
+    /**
+     * Number of the most solved quizzes preloaded into the cache.
+     */
+    @Value("${quiz.warm-up.quizzes:1000}")
+    private int quizzes;
+    /**
+     * Number of times hot code paths are run in a single measured round.
+     */
+    @Value("${quiz.warm-up.round-iterations:50}")
+    private int roundIterations;
+    /**
+     * Maximum number of rounds, warm-up ends after them even if time of a round hasn't settled.
+     */
+    @Value("${quiz.warm-up.max-rounds:40}")
+    private int maxRounds;
+    /**
+     * Relative difference of times of two consecutive rounds below which warm-up is finished.
+     */
+    @Value("${quiz.warm-up.tolerance:0.1}")
+    private double tolerance;
+    /**
+     * True if the application exits once warm-up is finished, used for recording classes loaded at startup.
+     */
+    @Value("${quiz.warm-up.exit:false}")
+    private boolean exit;
+
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) {
+            long start = System.currentTimeMillis();
+            List<Integer> ids = completionStore.findMostSolvedQuizIds(quizzes);
+            List<Integer> loaded = new ArrayList<>();
+            transactionTemplate.executeWithoutResult(status -> ids.forEach(id -> loadQuiz(id, loaded)));
+            int iteration = 0;
+            int rounds = 0;
+            long first = 0;
+            long previous = 0;
+            long current = 0;
+            while (rounds < maxRounds) {
+                long roundStart = System.nanoTime();
+                for (int i = 0; i < roundIterations; i++) {
+                    int next = iteration++;
+                    transactionTemplate.executeWithoutResult(status -> exerciseHotPaths(loaded, next));
+                }
+                current = (System.nanoTime() - roundStart) / Math.max(1, roundIterations);
+                if (rounds++ == 0) {
+                    first = current;
+                } else if (Math.abs(current - previous) <= tolerance * previous) {
+                    break;
+                }
+                previous = current;
+            }
+            log.info("Warmed up {} most solved quizzes and hot endpoints in {} ms: {} rounds of {} iterations, " +
+                            "iteration took {} us in the first round and {} us in the last one", loaded.size(),
+                    System.currentTimeMillis() - start, rounds, roundIterations, first / 1000, current / 1000);
+        }
+        if (exit) {
+            System.exit(SpringApplication.exit(applicationContext));
+        }
+    }
+
+    private void exerciseHotPaths(List<Integer> loaded, int iteration) {
+        if (!loaded.isEmpty()) {
+            int id = loaded.get(iteration % loaded.size());
+            Quiz quiz = quizService.getQuizByIdOrThrow(id);
+            quizService.getQuizETag(id);
+            List<Integer> batchIds = loaded.subList(0, Math.min(10, loaded.size()));
+            quizService.getQuizzesByIds(batchIds);
+            List<QuizAnswer> batch = new ArrayList<>(batchIds.size());
+            for (int batchId : batchIds) {
+                batch.add(new QuizAnswer(batchId, answer(quizService.getQuizByIdOrThrow(batchId), iteration)));
+            }
+            try {
+                Answer answer = objectMapper.readValue(
+                        objectMapper.writeValueAsString(new Answer(answer(quiz, iteration))), Answer.class);
+                quizService.checkAnswer(answer, id);
+                quizService.checkAnswers(objectMapper.readValue(objectMapper.writeValueAsString(batch),
+                        new TypeReference<List<QuizAnswer>>() {
+                        }));
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        quizService.getAllQuizzesJson(iteration % 3);
+        quizService.getQuizzesETag(0);
+        quizSearchService.search("quiz", 0);
+        leaderboardService.getTop(LeaderboardWindow.values()[iteration % LeaderboardWindow.values().length], 10);
+        try {
+            userService.loadUserByUsername("warm-up@localhost");
+        } catch (UsernameNotFoundException ignored) {
+            // only the lookup itself is exercised
+        }
+    }
+
+    /**
+     * @return Correct answer of the quiz on even iterations and a wrong one on odd iterations, so both results
+     * are exercised.
+     */
+    private static ArrayList<Integer> answer(Quiz quiz, int iteration) {
+        ArrayList<Integer> answer = quiz.getAnswer() == null ? new ArrayList<>() : new ArrayList<>(quiz.getAnswer());
+        if (iteration % 2 == 1) {
+            answer.add(-1);
+        }
+        return answer;
+    }
+
+    private void loadQuiz(int id, List<Integer> loaded) {
+        try {
+            quizService.getQuizJsonByIdOrThrow(id);
+            loaded.add(id);
+        } catch (RuntimeException e) {
+            log.debug("Quiz {} was not preloaded", id, e);
+        }
+    }
+
+    @Autowired
+    public void setQuizService(QuizService quizService) {
+        this.quizService = quizService;
+    }
+
+    @Autowired
+    public void setQuizSearchService(QuizSearchService quizSearchService) {
+        this.quizSearchService = quizSearchService;
+    }
+
+    @Autowired
+    public void setLeaderboardService(LeaderboardService leaderboardService) {
+        this.leaderboardService = leaderboardService;
+    }
+
+    @Autowired
+    public void setUserService(UserService userService) {
+        this.userService = userService;
+    }
+
+    @Autowired
+    public void setCompletionStore(CompletionStore completionStore) {
+        this.completionStore = completionStore;
+    }
+
+    @Autowired
+    public void setObjectMapper(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @Autowired
+    public void setApplicationContext(ConfigurableApplicationContext applicationContext) {
+        this.applicationContext = applicationContext;
+    }
+}
@@ -0,0 +1,87 @@
+package engine.stream;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Bounded journal of the latest events of the stream of quiz changes, used for resuming subscriptions. Events are
+ * kept in a ring, the oldest event is overwritten by a new one once the journal is full. Event IDs start with the
+ * epoch of the journal, which differs on every node and after every restart, so IDs issued by another journal are
+ * never mistaken for IDs of this one. Not thread-safe.
+ */
+public class QuizEventJournal {
+
+    /**
+     * Ring of events, event with sequence number n is stored at index n modulo length.
+     */
+    private final QuizStreamEvent[] events;
+    /**
+     * Prefix of IDs of events of this journal.
+     */
+    private final String epoch;
+    /**
+     * Sequence number of the last appended event, zero before the first one.
+     */
+    private long lastId;
+    /**
+     * Number of events in the journal.
+     */
+    private int size;
+
+
+    /**
+     * @param capacity Maximum number of journaled events.
+     * @param epoch    Prefix of IDs of events, unique to this journal.
+     */
+    public QuizEventJournal(int capacity, String epoch) {
+        this.events = new QuizStreamEvent[capacity];
+        this.epoch = epoch + "-";
+    }
+
+    /**
+     * Appends new event, overwriting the oldest one if the journal is full.
+     *
+     * @param name Name of the event.
+     * @param data Data of the event.
+     * @return Appended event with the next sequence number.
+     */
+    public QuizStreamEvent append(String name, Object data) {
+        QuizStreamEvent event = new QuizStreamEvent(epoch + ++lastId, name, data);
+        events[(int) Long.remainderUnsigned(lastId, events.length)] = event;
+        size = Math.min(size + 1, events.length);
+        return event;
+    }
+
+    /**
+     * @param lastEventId ID of the last event received by the subscriber.
+     * @return Events following the provided one, from the oldest, or null if some of them are no longer journaled
+     * or the ID was not issued by this journal.
+     */
+    public List<QuizStreamEvent> after(String lastEventId) {
+        if (!lastEventId.startsWith(epoch)) {
+            return null;
+        }
+        long afterId;
+        try {
+            afterId = Long.parseLong(lastEventId.substring(epoch.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (afterId > lastId || afterId < lastId - size) {
+            return null;
+        }
+        List<QuizStreamEvent> result = new ArrayList<>((int) (lastId - afterId));
+        for (long id = afterId + 1; id <= lastId; id++) {
+            result.add(events[(int) Long.remainderUnsigned(id, events.length)]);
+        }
+        return result;
+    }
+
+    /**
+     * @return ID of the last appended event.
+     */
+    public String getLastEventId() {
+        return epoch + lastId;
+    }
+}
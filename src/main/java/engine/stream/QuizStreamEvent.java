@@ -0,0 +1,86 @@
+package engine.stream;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Objects;
+
+
+/**
+ * Event of the stream of quiz changes, sent to subscribers as a server-sent event.
+ */
+public class QuizStreamEvent {
+
+    /**
+     * Name of the event sent when a quiz was created, data is the quiz.
+     */
+    public static final String CREATED = "created";
+    /**
+     * Name of the event sent when a quiz was deleted, data is an object with ID of the quiz.
+     */
+    public static final String DELETED = "deleted";
+    /**
+     * Name of the event sent when events after the last received one are no longer journaled, so the subscriber
+     * must list quizzes again.
+     */
+    public static final String RESET = "reset";
+
+    /**
+     * ID of the event, the epoch of the journal and the sequence number of the event in it, sent as event ID,
+     * so subscribers resume after it.
+     */
+    private final String id;
+    /**
+     * Name of the event.
+     */
+    private final String name;
+    /**
+     * Data of the event serialized into JSON.
+     */
+    private final Object data;
+
+
+    public QuizStreamEvent(String id, String name, Object data) {
+        this.id = id;
+        this.name = name;
+        this.data = data;
+    }
+
+    /**
+     * @return Server-sent event of this event. Builder is written into the connection, so every subscriber
+     * needs its own one.
+     */
+    public SseEmitter.SseEventBuilder toSse() {
+        return SseEmitter.event()
+                .id(id)
+                .name(name)
+                .data(data, MediaType.APPLICATION_JSON);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Object getData() {
+        return data;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof QuizStreamEvent)) return false;
+        QuizStreamEvent that = (QuizStreamEvent) o;
+        return Objects.equals(id, that.id) &&
+                Objects.equals(name, that.name) &&
+                Objects.equals(data, that.data);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, name, data);
+    }
+}
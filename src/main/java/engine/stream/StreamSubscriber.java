@@ -0,0 +1,191 @@
+package engine.stream;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Subscriber of the stream of quiz changes. Events are queued by publishers without blocking and sent by a shared
+ * executor, at most one task per subscriber at a time, so events are sent in order and no thread is held by an idle
+ * connection. A subscriber which doesn't keep up and lets its queue overflow is disconnected and resumes later
+ * from its last received event. Sending is blocking, so a single send which doesn't finish within the deadline
+ * disconnects the subscriber and interrupts the sending thread, which is then free to serve other subscribers.
+ */
+public class StreamSubscriber {
+
+    /**
+     * Emitter of server-sent events of the connection.
+     */
+    private final SseEmitter emitter;
+    /**
+     * Executor sending queued events.
+     */
+    private final Executor executor;
+    /**
+     * Maximum number of queued events.
+     */
+    private final int capacity;
+    /**
+     * Executor enforcing deadlines of sends.
+     */
+    private final ScheduledExecutorService watchdog;
+    /**
+     * Time in milliseconds a single send may take.
+     */
+    private final long sendTimeout;
+    /**
+     * Events not sent yet, guarded by this subscriber.
+     */
+    private final Deque<SseEmitter.SseEventBuilder> pending = new ArrayDeque<>();
+    /**
+     * True if a task sending queued events is submitted, guarded by this subscriber.
+     */
+    private boolean scheduled;
+    /**
+     * True once the connection is closed, no more events are sent.
+     */
+    private volatile boolean closed;
+    /**
+     * Thread sending an event, or null if no event is being sent, guarded by this subscriber.
+     */
+    private Thread sender;
+    /**
+     * Number of started sends, so a deadline expires only the send it was set for, guarded by this subscriber.
+     */
+    private long sends;
+
+
+    public StreamSubscriber(SseEmitter emitter, Executor executor, int capacity, ScheduledExecutorService watchdog,
+                            long sendTimeout) {
+        this.emitter = emitter;
+        this.executor = executor;
+        this.capacity = capacity;
+        this.watchdog = watchdog;
+        this.sendTimeout = sendTimeout;
+    }
+
+    /**
+     * Queues events replayed from the journal, regardless of the capacity of the queue.
+     *
+     * @param events Events to send.
+     */
+    public void replay(List<SseEmitter.SseEventBuilder> events) {
+        boolean schedule;
+        synchronized (this) {
+            pending.addAll(events);
+            schedule = !events.isEmpty() && !scheduled;
+            scheduled |= schedule;
+        }
+        if (schedule) {
+            schedule();
+        }
+    }
+
+    /**
+     * Queues event for sending without blocking.
+     *
+     * @param event Event to send.
+     * @return False if the subscriber is closed, or was closed because its queue overflowed.
+     */
+    public boolean offer(SseEmitter.SseEventBuilder event) {
+        boolean overflow;
+        boolean schedule;
+        synchronized (this) {
+            if (closed) {
+                return false;
+            }
+            overflow = pending.size() >= capacity;
+            if (overflow) {
+                pending.clear();
+                closed = true;
+            } else {
+                pending.add(event);
+            }
+            schedule = !overflow && !scheduled;
+            scheduled |= schedule;
+        }
+        if (overflow) {
+            emitter.complete();
+            return false;
+        }
+        if (schedule) {
+            schedule();
+        }
+        return true;
+    }
+
+    /**
+     * Marks the subscriber closed after its connection was closed.
+     */
+    public void close() {
+        closed = true;
+    }
+
+    /**
+     * @return True if the connection is closed.
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    private void schedule() {
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            closed = true;
+            emitter.complete();
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            SseEmitter.SseEventBuilder event;
+            long send;
+            synchronized (this) {
+                event = closed ? null : pending.poll();
+                if (event == null) {
+                    scheduled = false;
+                    return;
+                }
+                sender = Thread.currentThread();
+                send = ++sends;
+            }
+            ScheduledFuture<?> deadline = watchdog.schedule(() -> expire(send), sendTimeout, TimeUnit.MILLISECONDS);
+            try {
+                emitter.send(event);
+            } catch (IOException | IllegalStateException e) {
+                closed = true;
+            } finally {
+                deadline.cancel(false);
+                synchronized (this) {
+                    sender = null;
+                }
+                // Clears the interrupt of an expired send, so it doesn't abort sends to other subscribers.
+                Thread.interrupted();
+            }
+        }
+    }
+
+    /**
+     * Disconnects the subscriber if the send is still in progress after its deadline.
+     *
+     * @param send Number of the send.
+     */
+    private synchronized void expire(long send) {
+        if (sender == null || sends != send) {
+            return;
+        }
+        closed = true;
+        pending.clear();
+        sender.interrupt();
+    }
+}
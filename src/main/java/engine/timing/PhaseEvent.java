@@ -0,0 +1,31 @@
+package engine.timing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+
+/**
+ * Java Flight Recorder event of a single phase of request processing.
+ */
+@Name("engine.Phase")
+@Label("Request Phase")
+@Category({"WebQuizEngine", "Requests"})
+@Description("Duration of a phase of HTTP request processing")
+@StackTrace(false)
+class PhaseEvent extends Event {
+
+    /**
+     * Name of the phase.
+     */
+    @Label("Phase")
+    String phase;
+    /**
+     * Path of the request, if the request is timed.
+     */
+    @Label("Path")
+    String path;
+}
@@ -0,0 +1,163 @@
+package engine.timing;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+
+/**
+ * Per-request timer of processing phases, such as authentication or DB access. The timer of the current request
+ * is bound to the request thread, so phases are timed anywhere down the call stack without passing it around.
+ * Every phase is also recorded as a Java Flight Recorder event, which costs next to nothing while JFR is off.
+ * Phases with the same name are summed up. A request processed asynchronously hands its timer to other threads,
+ * which may still time phases after the request timed out, so phases are added and read under the lock of the timer.
+ */
+public final class PhaseTimer {
+
+    /**
+     * Timer of the request processed by the current thread, if timing of the request is requested.
+     */
+    private static final ThreadLocal<PhaseTimer> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Path of the timed request.
+     */
+    private final String path;
+    /**
+     * Time in nanoseconds when the request started.
+     */
+    private final long start = System.nanoTime();
+    /**
+     * Names of timed phases, first size elements are used.
+     */
+    private String[] names = new String[8];
+    /**
+     * Total duration of every phase in nanoseconds, aligned with names array.
+     */
+    private long[] durations = new long[8];
+    /**
+     * Number of timed phases.
+     */
+    private int size;
+
+
+    private PhaseTimer(String path) {
+        this.path = path;
+    }
+
+    /**
+     * Starts timing of the request processed by the current thread.
+     *
+     * @param path Path of the request.
+     * @return Timer of the request.
+     */
+    public static PhaseTimer begin(String path) {
+        PhaseTimer timer = new PhaseTimer(path);
+        CURRENT.set(timer);
+        return timer;
+    }
+
+    /**
+     * Binds timer of a request to the current thread, when processing of the request continues on another thread.
+     *
+     * @param timer Timer of the request.
+     */
+    public static void attach(PhaseTimer timer) {
+        CURRENT.set(timer);
+    }
+
+    /**
+     * Stops timing of the request processed by the current thread.
+     */
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return Timer of the request processed by the current thread or null if the request is not timed.
+     */
+    public static PhaseTimer current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Starts a phase of the request processed by the current thread. Must be closed when the phase ends.
+     *
+     * @param name Name of the phase.
+     * @return The running phase.
+     */
+    public static Phase start(String name) {
+        PhaseTimer timer = CURRENT.get();
+        return new Phase(timer, name, timer != null ? timer.path : null);
+    }
+
+    /**
+     * Adds duration to the phase.
+     *
+     * @param name     Name of the phase.
+     * @param duration Duration in nanoseconds.
+     */
+    synchronized void add(String name, long duration) {
+        for (int i = 0; i < size; i++) {
+            if (names[i].equals(name)) {
+                durations[i] += duration;
+                return;
+            }
+        }
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size * 2);
+            durations = Arrays.copyOf(durations, size * 2);
+        }
+        names[size] = name;
+        durations[size++] = duration;
+    }
+
+    /**
+     * @return Value of Server-Timing header listing every phase and total time of the request so far,
+     * in milliseconds.
+     */
+    public synchronized String toServerTiming() {
+        StringBuilder header = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            appendMetric(header, names[i], durations[i]);
+            header.append(", ");
+        }
+        appendMetric(header, "total", System.nanoTime() - start);
+        return header.toString();
+    }
+
+    private static void appendMetric(StringBuilder header, String name, long nanos) {
+        header.append(name).append(";dur=").append(String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0));
+    }
+
+    /**
+     * Running phase of a request.
+     */
+    public static final class Phase implements AutoCloseable {
+
+        private final PhaseTimer timer;
+        private final String name;
+        private final long start = System.nanoTime();
+        private final PhaseEvent event = new PhaseEvent();
+
+        private Phase(PhaseTimer timer, String name, String path) {
+            this.timer = timer;
+            this.name = name;
+            event.begin();
+            if (event.isEnabled()) {
+                event.phase = name;
+                event.path = path;
+            }
+        }
+
+        /**
+         * Ends the phase.
+         */
+        @Override
+        public void close() {
+            event.commit();
+            if (timer != null) {
+                timer.add(name, System.nanoTime() - start);
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package engine.timing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+
+/**
+ * Java Flight Recorder event of a whole HTTP request.
+ */
+@Name("engine.Request")
+@Label("HTTP Request")
+@Category({"WebQuizEngine", "Requests"})
+@Description("Duration of HTTP request processing")
+@StackTrace(false)
+class RequestEvent extends Event {
+
+    /**
+     * HTTP method of the request.
+     */
+    @Label("Method")
+    String method;
+    /**
+     * Path of the request.
+     */
+    @Label("Path")
+    String path;
+    /**
+     * Status code of the response.
+     */
+    @Label("Status")
+    int status;
+}
@@ -0,0 +1,59 @@
+package engine.timing;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import javax.servlet.http.HttpServletRequest;
+
+
+/**
+ * Starts "serialize" phase right before a response body is written by whichever message converter was selected,
+ * so message converters of Spring Boot stay untouched. The phase is ended by {@link ServerTimingFilter} when
+ * the request leaves the filter chain.
+ */
+@ControllerAdvice
+public class SerializationTimingAdvice implements ResponseBodyAdvice<Object> {
+
+    /**
+     * Name of the request attribute keeping the running "serialize" phase.
+     */
+    static final String PHASE_ATTRIBUTE = SerializationTimingAdvice.class.getName() + ".PHASE";
+
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest) {
+            HttpServletRequest servletRequest = ((ServletServerHttpRequest) request).getServletRequest();
+            if (servletRequest.getAttribute(PHASE_ATTRIBUTE) == null) {
+                servletRequest.setAttribute(PHASE_ATTRIBUTE, PhaseTimer.start("serialize"));
+            }
+        }
+        return body;
+    }
+
+    /**
+     * Ends "serialize" phase of the request if it was started.
+     *
+     * @param request The request.
+     */
+    static void endPhase(HttpServletRequest request) {
+        PhaseTimer.Phase phase = (PhaseTimer.Phase) request.getAttribute(PHASE_ATTRIBUTE);
+        if (phase != null) {
+            request.removeAttribute(PHASE_ATTRIBUTE);
+            phase.close();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package engine.timing;
+
+import engine.service.QuizStreamService;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+
+/**
+ * Filter recording every request as a Java Flight Recorder event and timing phases of requests which ask for it
+ * or are sampled. Response of a timed request is buffered, so Server-Timing header includes writing of the body.
+ * Asynchronously processed requests are finished on their async dispatch, which writes the response.
+ * Events of the quiz stream are written as they come, so its requests are never buffered and timed.
+ * Writing of the response body, started by {@link SerializationTimingAdvice}, is timed up to the end of the chain.
+ */
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    /**
+     * Name of the request header asking for timing of the request.
+     */
+    public static final String OPT_IN_HEADER = "X-Server-Timing";
+    /**
+     * Name of the response header with timings of phases.
+     */
+    private static final String SERVER_TIMING_HEADER = "Server-Timing";
+    /**
+     * Name of the request attribute keeping the event of an asynchronously processed request.
+     */
+    private static final String EVENT_ATTRIBUTE = ServerTimingFilter.class.getName() + ".EVENT";
+    /**
+     * Name of the request attribute keeping the timer of an asynchronously processed request.
+     */
+    private static final String TIMER_ATTRIBUTE = ServerTimingFilter.class.getName() + ".TIMER";
+
+    /**
+     * Fraction of requests timed without asking, from 0 to 1.
+     */
+    private final double sampleRate;
+    /**
+     * True if clients can ask for timing of their requests.
+     */
+    private final boolean optInAllowed;
+
+
+    public ServerTimingFilter(double sampleRate, boolean optInAllowed) {
+        this.sampleRate = sampleRate;
+        this.optInAllowed = optInAllowed;
+    }
+
+    /**
+     * Async dispatch of a request processed by a bulkhead writes the response, so the filter finishes timing there.
+     */
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestEvent event = (RequestEvent) request.getAttribute(EVENT_ATTRIBUTE);
+        PhaseTimer timer = (PhaseTimer) request.getAttribute(TIMER_ATTRIBUTE);
+        HttpServletResponse target = response;
+        if (!isAsyncDispatch(request)) {
+            event = new RequestEvent();
+            event.begin();
+            if (isTimed(request)) {
+                timer = PhaseTimer.begin(request.getRequestURI());
+                target = new ContentCachingResponseWrapper(response);
+            }
+        } else if (timer != null) {
+            PhaseTimer.attach(timer);
+        }
+        try {
+            chain.doFilter(request, target);
+        } finally {
+            SerializationTimingAdvice.endPhase(request);
+            PhaseTimer.end();
+            if (request.isAsyncStarted()) {
+                request.setAttribute(EVENT_ATTRIBUTE, event);
+                if (timer != null) {
+                    request.setAttribute(TIMER_ATTRIBUTE, timer);
+                }
+            } else {
+                finish(request, target, event, timer);
+            }
+        }
+    }
+
+    private void finish(HttpServletRequest request, HttpServletResponse response, RequestEvent event,
+                        PhaseTimer timer) throws IOException {
+        if (timer != null) {
+            ContentCachingResponseWrapper wrapper =
+                    WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+            if (wrapper != null) {
+                if (!wrapper.getResponse().isCommitted()) {
+                    wrapper.getResponse().setHeader(SERVER_TIMING_HEADER, timer.toServerTiming());
+                }
+                wrapper.copyBodyToResponse();
+            }
+        }
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.method = request.getMethod();
+                event.path = request.getRequestURI();
+                event.status = response.getStatus();
+                event.commit();
+            }
+        }
+    }
+
+    private boolean isTimed(HttpServletRequest request) {
+        if (request.getRequestURI().equals(request.getContextPath() + QuizStreamService.PATH)) {
+            return false;
+        }
+        return optInAllowed && request.getHeader(OPT_IN_HEADER) != null
+                || sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+}
@@ -0,0 +1,31 @@
+package engine.timing;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+
+/**
+ * Configuration of per-request latency breakdown: Server-Timing header for sampled requests or requests asking
+ * for it with X-Server-Timing header, and Java Flight Recorder events of every request and phase.
+ */
+@Configuration
+public class TimingConfig {
+
+    /**
+     * @return Registration of the filter timing requests, placed before all other filters, so the total time
+     * includes request limits and authentication. The header is honoured only if allowed, as it runs before
+     * authentication and would disclose internal timings to any client.
+     */
+    @Bean
+    public FilterRegistrationBean<ServerTimingFilter> serverTimingFilter(
+            @Value("${quiz.timing.sample-rate:0.0}") double sampleRate,
+            @Value("${quiz.timing.allow-opt-in:false}") boolean optInAllowed) {
+        FilterRegistrationBean<ServerTimingFilter> registration =
+                new FilterRegistrationBean<>(new ServerTimingFilter(sampleRate, optInAllowed));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 2);
+        return registration;
+    }
+}
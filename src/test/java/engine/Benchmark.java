@@ -0,0 +1,101 @@
+package engine;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+
+
+/**
+ * Minimal harness of benchmarks run by the benchmark Gradle task: measures time and bytes allocated by the current
+ * thread per operation after warm-up, and prints them.
+ */
+public final class Benchmark {
+
+    /**
+     * Number of operations run before measurement, so the measured code is compiled by JIT.
+     */
+    private static final int WARM_UP = 20_000;
+    /**
+     * Number of measured operations.
+     */
+    private static final int ITERATIONS = 100_000;
+    /**
+     * Allocation counters of threads.
+     */
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /**
+     * Keeps results of operations reachable, so JIT doesn't eliminate them.
+     */
+    private static volatile Object sink;
+
+
+    private Benchmark() {
+    }
+
+    /**
+     * Measures the operation and prints its time and allocation per operation.
+     *
+     * @param name      Name of the operation.
+     * @param operation Measured operation.
+     * @return Result with time and allocation per operation.
+     */
+    public static Result run(String name, Supplier<?> operation) {
+        return run(name, WARM_UP, ITERATIONS, operation);
+    }
+
+    /**
+     * Measures the operation and prints its time and allocation per operation.
+     *
+     * @param name       Name of the operation.
+     * @param warmUp     Number of operations run before measurement.
+     * @param iterations Number of measured operations.
+     * @param operation  Measured operation.
+     * @return Result with time and allocation per operation.
+     */
+    public static Result run(String name, int warmUp, int iterations, Supplier<?> operation) {
+        for (int i = 0; i < warmUp; i++) {
+            sink = operation.get();
+        }
+        long threadId = Thread.currentThread().getId();
+        long bytesBefore = THREADS.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink = operation.get();
+        }
+        long nanos = System.nanoTime() - start;
+        long bytes = THREADS.getThreadAllocatedBytes(threadId) - bytesBefore;
+        Result result = new Result(name, (double) nanos / iterations, (double) bytes / iterations);
+        System.out.println(result);
+        return result;
+    }
+
+    /**
+     * Time and allocation per operation.
+     */
+    public static final class Result {
+
+        private final String name;
+        private final double nanosPerOp;
+        private final double bytesPerOp;
+
+        private Result(String name, double nanosPerOp, double bytesPerOp) {
+            this.name = name;
+            this.nanosPerOp = nanosPerOp;
+            this.bytesPerOp = bytesPerOp;
+        }
+
+        public double getNanosPerOp() {
+            return nanosPerOp;
+        }
+
+        public double getBytesPerOp() {
+            return bytesPerOp;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-50s %12.1f ns/op %12.1f B/op", name, nanosPerOp, bytesPerOp);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package engine.attempt;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+class AttemptLogFormatTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysWrittenAttempts() throws IOException {
+        write(3);
+
+        List<Integer> quizIds = new ArrayList<>();
+        AttemptLogFormat.replay(directory, 0, Long.MAX_VALUE, (quizId, userId, timestamp, answerMask, flags) -> {
+            assertThat(userId).isEqualTo(quizId * 10);
+            assertThat(timestamp).isEqualTo(1000L * quizId);
+            assertThat(answerMask).isEqualTo(1L << quizId);
+            assertThat(flags).isEqualTo(AttemptVisitor.CORRECT);
+            quizIds.add(quizId);
+        });
+
+        assertThat(quizIds).containsExactly(1, 2, 3);
+        assertThat(replayedQuizIds(2000, 3000)).containsExactly(2);
+    }
+
+    @Test
+    void stopsAtTornLastRecord() throws IOException {
+        Path segment = write(3);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            ByteBuffer userId = ByteBuffer.allocate(Integer.BYTES).putInt(0, 0);
+            channel.write(userId, AttemptLogFormat.HEADER_SIZE + 2 * AttemptLogFormat.RECORD_SIZE + 20);
+        }
+
+        assertThat(replayedQuizIds(0, Long.MAX_VALUE)).containsExactly(1, 2);
+    }
+
+    @Test
+    void stopsAtTruncatedLastRecord() throws IOException {
+        Path segment = write(3);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(AttemptLogFormat.HEADER_SIZE + 2 * AttemptLogFormat.RECORD_SIZE + 12);
+        }
+
+        assertThat(replayedQuizIds(0, Long.MAX_VALUE)).containsExactly(1, 2);
+    }
+
+    /**
+     * Writes attempts to quizzes 1 to count into a single segment.
+     *
+     * @param count Number of attempts.
+     * @return File of the segment.
+     */
+    private Path write(int count) throws IOException {
+        AttemptRingBuffer ringBuffer = new AttemptRingBuffer(16);
+        for (int quizId = 1; quizId <= count; quizId++) {
+            ringBuffer.offer(quizId, quizId * 10, 1000L * quizId, 1L << quizId, AttemptVisitor.CORRECT);
+        }
+        AttemptLogWriter writer = new AttemptLogWriter(directory, 4096, ringBuffer);
+        writer.close();
+        return writer.getCurrentFile();
+    }
+
+    private List<Integer> replayedQuizIds(long from, long to) throws IOException {
+        List<Integer> quizIds = new ArrayList<>();
+        AttemptLogFormat.replay(directory, from, to,
+                (quizId, userId, timestamp, answerMask, flags) -> quizIds.add(quizId));
+        return quizIds;
+    }
+}
@@ -0,0 +1,65 @@
+package engine.attempt;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+class AttemptLogWriterTest {
+
+    /**
+     * Size of a segment holding a single attempt, so every attempt rolls over to a new segment.
+     */
+    private static final int SEGMENT_SIZE = AttemptLogFormat.HEADER_SIZE + AttemptLogFormat.RECORD_SIZE;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void keepsWritingAfterSegmentCannotBeCreated() throws Exception {
+        Path segments = directory.resolve("attempts");
+        AttemptRingBuffer ringBuffer = new AttemptRingBuffer(16);
+        try (AttemptLogWriter writer = new AttemptLogWriter(segments, SEGMENT_SIZE, ringBuffer)) {
+            ringBuffer.offer(1, 1, 1000, 0, 0);
+            await(() -> replayedQuizIds(segments).size() == 1);
+
+            Files.delete(writer.getCurrentFile());
+            Files.delete(segments);
+            ringBuffer.offer(2, 1, 2000, 0, 0);
+            await(() -> writer.getFailures() > 0);
+
+            Files.createDirectories(segments);
+            await(() -> replayedQuizIds(segments).contains(2));
+            ringBuffer.offer(3, 1, 3000, 0, 0);
+            await(() -> replayedQuizIds(segments).contains(3));
+        }
+        assertThat(replayedQuizIds(segments)).containsExactly(2, 3);
+    }
+
+    private static List<Integer> replayedQuizIds(Path segments) {
+        List<Integer> quizIds = new ArrayList<>();
+        try {
+            AttemptLogFormat.replay(segments, 0, Long.MAX_VALUE,
+                    (quizId, userId, timestamp, answerMask, flags) -> quizIds.add(quizId));
+        } catch (IOException e) {
+            return new ArrayList<>();
+        }
+        return quizIds;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("Time of waiting for the condition").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package engine.attempt;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+
+class AttemptRingBufferTest {
+
+    private static final int PRODUCERS = 4;
+    private static final int ATTEMPTS = 20000;
+
+    @Test
+    void passesAttemptsOfAllProducersInTheirOrder() throws InterruptedException {
+        AttemptRingBuffer ringBuffer = new AttemptRingBuffer(1024);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> producers = new ArrayList<>();
+        for (int producer = 0; producer < PRODUCERS; producer++) {
+            int quizId = producer;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int userId = 1; userId <= ATTEMPTS; userId++) {
+                    while (!ringBuffer.offer(quizId, userId, userId, quizId, 0)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            thread.start();
+            producers.add(thread);
+        }
+        int[] lastUserIds = new int[PRODUCERS];
+        boolean[] ordered = {true};
+        int consumed = 0;
+        start.countDown();
+        long deadline = System.currentTimeMillis() + 10000;
+        while (consumed < PRODUCERS * ATTEMPTS && System.currentTimeMillis() < deadline) {
+            consumed += ringBuffer.drain((quizId, userId, timestamp, answerMask, flags) -> {
+                ordered[0] &= userId == lastUserIds[quizId] + 1 && timestamp == userId && answerMask == quizId;
+                lastUserIds[quizId] = userId;
+            }, 256);
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        assertThat(consumed).isEqualTo(PRODUCERS * ATTEMPTS);
+        assertThat(ordered[0]).isTrue();
+        assertThat(lastUserIds).containsOnly(ATTEMPTS);
+    }
+
+    @Test
+    void dropsAttemptsWhileFull() {
+        AttemptRingBuffer ringBuffer = new AttemptRingBuffer(4);
+        for (int i = 1; i <= 4; i++) {
+            assertThat(ringBuffer.offer(i, 1, i, 0, 0)).isTrue();
+        }
+
+        assertThat(ringBuffer.offer(5, 1, 5, 0, 0)).isFalse();
+        assertThat(ringBuffer.getDropped()).isEqualTo(1);
+
+        List<Integer> quizIds = new ArrayList<>();
+        assertThat(ringBuffer.drain((quizId, userId, timestamp, answerMask, flags) -> quizIds.add(quizId), 2))
+                .isEqualTo(2);
+        assertThat(ringBuffer.offer(6, 1, 6, 0, 0)).isTrue();
+        ringBuffer.drain((quizId, userId, timestamp, answerMask, flags) -> quizIds.add(quizId), 10);
+
+        assertThat(quizIds).containsExactly(1, 2, 3, 4, 6);
+        assertThat(ringBuffer.getDropped()).isEqualTo(1);
+    }
+
+    @Test
+    void passesAttemptAgainIfConsumerFails() {
+        AttemptRingBuffer ringBuffer = new AttemptRingBuffer(4);
+        ringBuffer.offer(1, 1, 1, 0, 0);
+
+        assertThatThrownBy(() -> ringBuffer.drain((quizId, userId, timestamp, answerMask, flags) -> {
+            throw new IllegalStateException("Not written");
+        }, 10)).isInstanceOf(IllegalStateException.class);
+        List<Integer> quizIds = new ArrayList<>();
+        ringBuffer.drain((quizId, userId, timestamp, answerMask, flags) -> quizIds.add(quizId), 10);
+
+        assertThat(quizIds).containsExactly(1);
+    }
+}
@@ -0,0 +1,46 @@
+package engine.completion;
+
+import engine.repository.QuizCompletionRepository;
+import engine.repository.QuizSolveSummaryRepository;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+
+class CompletionStoreConfigTest {
+
+    private final QuizCompletionRepository quizCompletionRepository = mock(QuizCompletionRepository.class);
+    private final QuizSolveSummaryRepository quizSolveSummaryRepository = mock(QuizSolveSummaryRepository.class);
+
+    @Test
+    void refusesFullHistoryWhileSummariesExist() {
+        when(quizSolveSummaryRepository.count()).thenReturn(3L);
+
+        assertThatThrownBy(() -> completionStore(true, false)).isInstanceOf(IllegalStateException.class);
+        verify(quizSolveSummaryRepository, never()).deleteAllInBatch();
+    }
+
+    @Test
+    void discardsSummariesWhenAsked() {
+        when(quizSolveSummaryRepository.count()).thenReturn(3L);
+
+        assertThat(completionStore(true, true)).isInstanceOf(JpaCompletionStore.class);
+        verify(quizSolveSummaryRepository).deleteAllInBatch();
+    }
+
+    @Test
+    void keepsSummariesWithoutFullHistory() {
+        when(quizSolveSummaryRepository.count()).thenReturn(3L);
+
+        assertThat(completionStore(false, false)).isInstanceOf(SummaryCompletionStore.class);
+        verify(quizSolveSummaryRepository, never()).insertFromCompletions();
+        verify(quizSolveSummaryRepository, never()).deleteAllInBatch();
+    }
+
+    private CompletionStore completionStore(boolean fullHistory, boolean discardSummaries) {
+        return new CompletionStoreConfig().completionStore(quizCompletionRepository, quizSolveSummaryRepository,
+                fullHistory, discardSummaries, new String[0], new String[0], "sa", "", false, 1000);
+    }
+}
@@ -0,0 +1,157 @@
+package engine.completion;
+
+import engine.dataobject.Quiz;
+import engine.dataobject.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+
+class ShardedCompletionStoreTest {
+
+    private static final int USERS = 50;
+
+    /**
+     * Prefix of names of in-memory DBs of the test, so every test has its own DBs.
+     */
+    private String prefix;
+
+
+    @BeforeEach
+    void setUp(TestInfo testInfo) {
+        prefix = "shard-" + testInfo.getDisplayName().replaceAll("\\W", "") + "-" + System.nanoTime() + "-";
+    }
+
+    @Test
+    void routesCompletionsOfUserToItsShard() {
+        List<CompletionShard> shards = shards("a", "b", "c");
+        ShardedCompletionStore store = store(shards, Collections.emptyList(), false);
+
+        fill(store);
+
+        assertFilled(store, shards);
+        assertThat(store.countByUserId()).hasSize(USERS);
+    }
+
+    @Test
+    void refusesChangedNumberOfShardsUntilRebalanced() {
+        fill(store(shards("a", "b"), Collections.emptyList(), false));
+
+        assertThatThrownBy(() -> store(shards("a", "b", "c"), Collections.emptyList(), false))
+                .isInstanceOf(IllegalStateException.class);
+        List<CompletionShard> shards = shards("a", "b", "c");
+        ShardedCompletionStore store = store(shards, Collections.emptyList(), true);
+
+        assertFilled(store, shards);
+        assertThat(shards.get(2).countByUserId()).isNotEmpty();
+        assertThat(store(shards("a", "b", "c"), Collections.emptyList(), false).countByUserId()).hasSize(USERS);
+    }
+
+    @Test
+    void movesCompletionsOutOfRetiredShard() {
+        fill(store(shards("a", "b", "c"), Collections.emptyList(), false));
+
+        List<CompletionShard> shards = shards("a", "c");
+        List<CompletionShard> retired = Collections.singletonList(shard(2, "b"));
+        ShardedCompletionStore store = store(shards, retired, true);
+
+        assertFilled(store, shards);
+        assertThat(retired.get(0).countByUserId()).isEmpty();
+        assertThat(store(shards("a", "c"), Collections.emptyList(), false).countByUserId()).hasSize(USERS);
+    }
+
+    @Test
+    void refusesReorderedShards() {
+        fill(store(shards("a", "b"), Collections.emptyList(), false));
+
+        assertThatThrownBy(() -> store(shards("b", "a"), Collections.emptyList(), false))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("order");
+    }
+
+    @Test
+    void refusesDroppedShardEvenIfRebalancingIsAllowed() {
+        fill(store(shards("a", "b", "c"), Collections.emptyList(), false));
+
+        assertThatThrownBy(() -> store(shards("a", "c"), Collections.emptyList(), true))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("[1]");
+        assertThatThrownBy(() -> store(shards("a", "d", "c"), Collections.emptyList(), true))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("[1]");
+    }
+
+    @Test
+    void deletesCompletionsOfQuizFromAllShardsOnce() {
+        ShardedCompletionStore store = store(shards("a", "b", "c"), Collections.emptyList(), false);
+        fill(store);
+        assertThat(store.findQuizIds()).hasSize(USERS);
+
+        assertThat(store.deleteByQuiz(1)).hasSize(USERS);
+        assertThat(store.deleteByQuiz(1)).isEmpty();
+        assertThat(store.deleteByQuiz(USERS)).hasSize(1);
+        assertThat(store.findQuizIds()).hasSize(USERS - 2).doesNotContain(1, USERS);
+    }
+
+    private ShardedCompletionStore store(List<CompletionShard> shards, List<CompletionShard> retired,
+                                         boolean rebalanceOnStartup) {
+        return new ShardedCompletionStore(shards, retired, rebalanceOnStartup, new ShardRebalancer(7));
+    }
+
+    private List<CompletionShard> shards(String... names) {
+        List<CompletionShard> shards = new ArrayList<>();
+        for (String name : names) {
+            shards.add(shard(shards.size(), name));
+        }
+        return shards;
+    }
+
+    private CompletionShard shard(int index, String name) {
+        return new CompletionShard(index, new DriverManagerDataSource(
+                "jdbc:h2:mem:" + prefix + name + ";DB_CLOSE_DELAY=-1", "sa", ""));
+    }
+
+    /**
+     * Stores user number i as having solved quizzes 1 to i.
+     */
+    private static void fill(ShardedCompletionStore store) {
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 1; i <= USERS; i++) {
+            List<Quiz> quizzes = new ArrayList<>();
+            for (int quizId = 1; quizId <= i; quizId++) {
+                Quiz quiz = new Quiz();
+                quiz.setId(quizId);
+                quizzes.add(quiz);
+            }
+            store.add(user(i), quizzes, now);
+        }
+    }
+
+    private static void assertFilled(ShardedCompletionStore store, List<CompletionShard> shards) {
+        for (int i = 1; i <= USERS; i++) {
+            assertThat(store.countByUser(user(i))).isEqualTo(i);
+            assertThat(store.findByUser(user(i), PageRequest.of(0, USERS))).hasSize(i);
+            assertThat(store.findQuizIdsByUser(user(i))).hasSize(i);
+        }
+        for (CompletionShard shard : shards) {
+            for (int userId : shard.countByUserId().keySet()) {
+                assertThat(ShardedCompletionStore.shardOf(userId, shards.size())).isEqualTo(shard.getIndex());
+            }
+        }
+    }
+
+    private static User user(int id) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername("user" + id + "@example.com");
+        return user;
+    }
+}
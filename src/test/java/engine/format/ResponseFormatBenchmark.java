@@ -0,0 +1,59 @@
+package engine.format;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import engine.Benchmark;
+import engine.dataobject.Quiz;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * Bytes on the wire and serialization time of a page of quizzes in JSON, CBOR and Smile, with the full Spring Data
+ * page against the slim envelope.
+ */
+@Tag("benchmark")
+class ResponseFormatBenchmark {
+
+    @Test
+    void servePage() throws Exception {
+        List<Quiz> quizzes = new ArrayList<>();
+        for (int id = 1; id <= 10; id++) {
+            Quiz quiz = new Quiz("Title " + id, "Text of quiz " + id,
+                    new ArrayList<>(Arrays.asList("first", "second", "third", "fourth")),
+                    new ArrayList<>(Arrays.asList(0, 2)));
+            quiz.setId(id);
+            quizzes.add(quiz);
+        }
+        Page<Quiz> page = new PageImpl<>(quizzes, PageRequest.of(0, 10), 1000);
+        SlimPage<Quiz> slim = new SlimPage<>(page);
+
+        measure("JSON", Jackson2ObjectMapperBuilder.json().build(), page, slim);
+        measure("CBOR", Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build(), page, slim);
+        measure("Smile", Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build(), page, slim);
+    }
+
+    private static void measure(String format, ObjectMapper objectMapper, Object page, Object slim)
+            throws Exception {
+        for (Object body : Arrays.asList(page, slim)) {
+            String name = format + (body == page ? " page" : " slim page");
+            System.out.printf("%-50s %12d bytes%n", name, objectMapper.writeValueAsBytes(body).length);
+            Benchmark.run(name, () -> {
+                try {
+                    return objectMapper.writeValueAsBytes(body);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+    }
+}
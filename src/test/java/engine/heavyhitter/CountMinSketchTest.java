@@ -0,0 +1,47 @@
+package engine.heavyhitter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+class CountMinSketchTest {
+
+    @Test
+    void overestimatesWithinErrorBound() {
+        CountMinSketch sketch = new CountMinSketch(256, 4);
+        Map<String, Long> counts = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            String key = "key-" + (int) Math.pow(5_000, random.nextDouble());
+            sketch.add(key, 1);
+            counts.merge(key, 1L, Long::sum);
+        }
+
+        assertThat(sketch.getTotal()).isEqualTo(100_000);
+        int overBound = 0;
+        for (Map.Entry<String, Long> entry : counts.entrySet()) {
+            long estimate = sketch.estimate(entry.getKey());
+            assertThat(estimate).isGreaterThanOrEqualTo(entry.getValue());
+            if (estimate - entry.getValue() > sketch.getErrorBound()) {
+                overBound++;
+            }
+        }
+        assertThat(overBound).isLessThanOrEqualTo(counts.size() / 16);
+    }
+
+    @Test
+    void clearsCounts() {
+        CountMinSketch sketch = new CountMinSketch(16, 2);
+        sketch.add("a", 5);
+        sketch.clear();
+
+        assertThat(sketch.estimate("a")).isZero();
+        assertThat(sketch.getTotal()).isZero();
+        assertThat(sketch.getErrorBound()).isZero();
+    }
+}
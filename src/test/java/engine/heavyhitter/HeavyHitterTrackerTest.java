@@ -0,0 +1,48 @@
+package engine.heavyhitter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+class HeavyHitterTrackerTest {
+
+    @Test
+    void ranksKeysRecordedByConcurrentThreads() throws InterruptedException {
+        HeavyHitterTracker tracker = new HeavyHitterTracker(10_000, 6, 4, 256, 4, 16);
+        long now = 1_000_000;
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int thread = t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    tracker.record(i % 2 == 0 ? "hot" : i % 10 == 1 ? "warm" : "cold-" + thread + "-" + i, now);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        HeavyHitterReport report = tracker.top(10_000, 2, now);
+        assertThat(report.getTotal()).isEqualTo(80_000);
+        assertThat(report.getHitters()).extracting(HeavyHitter::getKey).containsExactly("hot", "warm");
+        assertThat(report.getHitters().get(0).getCount()).isBetween(40_000L, 40_000 + report.getErrorBound());
+        assertThat(report.getHitters().get(1).getCount()).isBetween(8_000L, 8_000 + report.getErrorBound());
+    }
+
+    @Test
+    void forgetsBucketsOutsideWindow() {
+        HeavyHitterTracker tracker = new HeavyHitterTracker(1_000, 3, 2, 64, 2, 4);
+        tracker.record("old", 0);
+        tracker.record("new", 5_000);
+
+        HeavyHitterReport report = tracker.top(3_000, 10, 5_000);
+        assertThat(report.getTotal()).isEqualTo(1);
+        assertThat(report.getHitters()).extracting(HeavyHitter::getKey).containsExactly("new");
+    }
+}
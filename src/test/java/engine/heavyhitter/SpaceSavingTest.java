@@ -0,0 +1,63 @@
+package engine.heavyhitter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+class SpaceSavingTest {
+
+    @Test
+    void keepsKeysMoreFrequentThanTotalOverCapacity() {
+        SpaceSaving summary = new SpaceSaving(20);
+        Map<String, Long> counts = new HashMap<>();
+        Random random = new Random(7);
+        int total = 100_000;
+        for (int i = 0; i < total; i++) {
+            String key = "key-" + (int) Math.pow(10_000, random.nextDouble() * random.nextDouble());
+            summary.add(key, 1);
+            counts.merge(key, 1L, Long::sum);
+        }
+
+        assertThat(summary.getKeys()).hasSize(20);
+        counts.forEach((key, count) -> {
+            if (count > total / 20) {
+                assertThat(summary.getKeys()).contains(key);
+            }
+        });
+        for (String key : summary.getKeys()) {
+            assertThat(summary.getCount(key)).isGreaterThanOrEqualTo(counts.get(key));
+        }
+    }
+
+    @Test
+    void replacesLeastCountedKey() {
+        SpaceSaving summary = new SpaceSaving(3);
+        summary.add("a", 5);
+        summary.add("b", 1);
+        summary.add("c", 3);
+        summary.add("d", 1);
+
+        assertThat(summary.getKeys()).containsExactlyInAnyOrder("a", "c", "d");
+        assertThat(summary.getCount("d")).isEqualTo(2);
+        summary.add("e", 1);
+        assertThat(summary.getKeys()).containsExactlyInAnyOrder("a", "c", "e");
+        assertThat(summary.getCount("e")).isEqualTo(3);
+    }
+
+    @Test
+    void clearsKeys() {
+        SpaceSaving summary = new SpaceSaving(2);
+        summary.add("a", 1);
+        summary.add("b", 1);
+        summary.clear();
+        summary.add("c", 1);
+
+        assertThat(summary.getKeys()).containsExactly("c");
+        assertThat(summary.getCount("a")).isZero();
+    }
+}
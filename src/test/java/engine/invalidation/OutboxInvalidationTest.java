@@ -0,0 +1,161 @@
+package engine.invalidation;
+
+import engine.WebQuizEngine;
+import engine.dataobject.Quiz;
+import engine.dataobject.User;
+import engine.service.QuizNotFoundException;
+import engine.service.QuizService;
+import engine.service.UserService;
+import org.h2.tools.Server;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+
+/**
+ * Two instances of the application sharing a DB served by an H2 server, changes of one instance are received
+ * by the other one through the outbox. Polling is triggered by tests.
+ */
+class OutboxInvalidationTest {
+
+    private static Server server;
+    private static String url;
+    private static ConfigurableApplicationContext first;
+    private static ConfigurableApplicationContext second;
+    private static MockHttpServletRequest request;
+
+    @BeforeAll
+    static void setUp() throws SQLException {
+        server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+        url = "jdbc:h2:tcp://localhost:" + server.getPort() + "/mem:invalidation;DB_CLOSE_DELAY=-1";
+        first = start("first", 0);
+        second = start("second", 0);
+        User user = new User();
+        user.setEmail("author@example.com");
+        user.setUsername(user.getEmail());
+        user.setPassword("secret");
+        first.getBean(UserService.class).addUser(user);
+        request = new MockHttpServletRequest();
+        request.setRemoteUser(user.getUsername());
+    }
+
+    @AfterAll
+    static void tearDown() {
+        second.close();
+        first.close();
+        server.stop();
+    }
+
+    @Test
+    void appliesQuizzesAddedAndDeletedByAnotherInstance() {
+        Quiz quiz = addQuiz(first, "Added on the first instance");
+        assertThat(quizJson(second, quiz.getId())).isNotEmpty();
+
+        poll();
+
+        assertThat(quizJson(second, quiz.getId())).isNotEmpty();
+        assertThat(quizService(second).getQuizzesETag(0)).isEqualTo(quizService(first).getQuizzesETag(0));
+        assertThat(quizService(second).getQuizETag(quiz.getId()))
+                .isEqualTo(quizService(first).getQuizETag(quiz.getId()));
+
+        quizService(first).deleteQuiz(quiz.getId(), request);
+        poll();
+
+        assertThatThrownBy(() -> quizJson(second, quiz.getId()))
+                .isInstanceOf(QuizNotFoundException.class);
+        assertThat(quizService(second).getQuizzesETag(0)).isEqualTo(quizService(first).getQuizzesETag(0));
+        assertThat(quizService(second).getQuizETag(quiz.getId()))
+                .isEqualTo(quizService(first).getQuizETag(quiz.getId()));
+    }
+
+    @Test
+    void issuesSameETagsOnceSameChangesAreApplied() {
+        poll();
+        String before = quizService(first).getQuizzesETag(0);
+        assertThat(quizService(second).getQuizzesETag(0)).isEqualTo(before);
+
+        addQuiz(first, "Not yet received by the second instance");
+        addQuiz(second, "Added after it on the second instance");
+
+        assertThat(quizService(second).getQuizzesETag(0)).isNotEqualTo(before)
+                .isNotEqualTo(quizService(first).getQuizzesETag(0))
+                .contains("+");
+
+        poll();
+
+        assertThat(quizService(second).getQuizzesETag(0)).isEqualTo(quizService(first).getQuizzesETag(0))
+                .doesNotContain("+");
+    }
+
+    @Test
+    void receivesAllChangesMadeSinceThePreviousPoll() {
+        poll();
+        int[] ids = new int[5];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = addQuiz(i % 2 == 0 ? first : second, "Quiz " + i).getId();
+        }
+
+        poll();
+
+        for (int id : ids) {
+            assertThat(quizJson(first, id)).isNotEmpty();
+            assertThat(quizJson(second, id)).isNotEmpty();
+        }
+        assertThat(quizService(second).getQuizzesETag(0)).isEqualTo(quizService(first).getQuizzesETag(0));
+    }
+
+    @Test
+    void refusesToStartWithLocalArchive() {
+        assertThatThrownBy(() -> start("archiving", 90))
+                .hasRootCauseInstanceOf(IllegalStateException.class)
+                .hasStackTraceContaining("quiz.archive.max-age-days");
+    }
+
+    private static ConfigurableApplicationContext start(String node, int archiveMaxAgeDays) {
+        String directory = "build/test/invalidation/" + node;
+        return new SpringApplicationBuilder(WebQuizEngine.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=" + url,
+                "--spring.jmx.enabled=false",
+                "--spring.h2.console.enabled=false",
+                "--quiz.invalidation.transport=outbox",
+                "--quiz.invalidation.poll-interval-ms=3600000",
+                "--quiz.archive.max-age-days=" + archiveMaxAgeDays,
+                "--quiz.archive.directory=" + directory + "/archive",
+                "--quiz.attempts.directory=" + directory + "/attempts",
+                "--quiz.snapshot.directory=" + directory + "/snapshots");
+    }
+
+    private static Quiz addQuiz(ConfigurableApplicationContext instance, String title) {
+        Quiz quiz = new Quiz(title, "Which options are correct?", new ArrayList<>(Arrays.asList("a", "b", "c")),
+                new ArrayList<>(Arrays.asList(0, 2)));
+        return quizService(instance).addQuiz(quiz, request);
+    }
+
+    private static byte[] quizJson(ConfigurableApplicationContext instance, int id) {
+        TransactionTemplate transactionTemplate =
+                new TransactionTemplate(instance.getBean(PlatformTransactionManager.class));
+        return transactionTemplate.execute(status -> quizService(instance).getQuizJsonByIdOrThrow(id));
+    }
+
+    private static QuizService quizService(ConfigurableApplicationContext instance) {
+        return instance.getBean(QuizService.class);
+    }
+
+    private static void poll() {
+        first.getBean(OutboxInvalidationTransport.class).poll();
+        second.getBean(OutboxInvalidationTransport.class).poll();
+    }
+}
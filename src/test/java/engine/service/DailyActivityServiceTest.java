@@ -0,0 +1,116 @@
+package engine.service;
+
+import engine.completion.StoredCompletion;
+import engine.dataobject.DailyActivity;
+import engine.dataobject.User;
+import engine.repository.DailyActivityRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DailyActivityServiceTest {
+
+    private static final int THREADS = 4;
+    private static final int DAYS = 30;
+
+    @Autowired
+    private DailyActivityRepository dailyActivityRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void countsConcurrentFirstSolvesOfTheDay() throws Exception {
+        DailyActivityService service = new DailyActivityService();
+        service.setDailyActivityRepository(dailyActivityRepository);
+        service.setTransactionManager(transactionManager);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        LocalDate first = LocalDate.of(2026, 1, 1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int day = 0; day < DAYS; day++) {
+                LocalDate date = first.plusDays(day);
+                CyclicBarrier barrier = new CyclicBarrier(THREADS);
+                List<Future<?>> solves = new ArrayList<>();
+                for (int thread = 0; thread < THREADS; thread++) {
+                    solves.add(executor.submit(() -> {
+                        barrier.await();
+                        transactionTemplate.executeWithoutResult(status ->
+                                service.addCompletions(1, date.atTime(12, 0), 1));
+                        return null;
+                    }));
+                }
+                for (Future<?> solve : solves) {
+                    solve.get(30, TimeUnit.SECONDS);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        User user = new User();
+        user.setId(1);
+        List<DailyActivity> activity = service.getActivity(user, first, first.plusDays(DAYS), false);
+        assertThat(activity).hasSize(DAYS).allSatisfy(day -> assertThat(day.getSolves()).isEqualTo(THREADS));
+    }
+
+    @Test
+    void skipsRollupsLeftEmptyByRolledBackSolves() {
+        DailyActivityService service = new DailyActivityService();
+        service.setDailyActivityRepository(dailyActivityRepository);
+        service.setTransactionManager(transactionManager);
+        LocalDate day = LocalDate.of(2026, 2, 1);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            service.addCompletions(2, day.atStartOfDay(), 3);
+            status.setRollbackOnly();
+        });
+
+        User user = new User();
+        user.setId(2);
+        assertThat(service.getActivity(user, day, day, false)).isEmpty();
+    }
+
+    @Test
+    void keepsRollupsOfDeduplicatedCompletionsOfDeletedQuiz() {
+        DailyActivityService service = new DailyActivityService();
+        service.setDailyActivityRepository(dailyActivityRepository);
+        service.setTransactionManager(transactionManager);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        LocalDate monday = LocalDate.of(2026, 3, 2);
+        LocalDate tuesday = monday.plusDays(1);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            service.addCompletions(3, monday.atTime(9, 0), 1);
+            service.addCompletions(3, tuesday.atTime(9, 0), 1);
+            service.addCompletions(3, tuesday.atTime(10, 0), 1);
+        });
+        transactionTemplate.executeWithoutResult(status -> service.deleteCompletions(Arrays.asList(
+                new StoredCompletion(3, "user", 7, tuesday.atTime(9, 0), 2),
+                new StoredCompletion(3, "user", 8, tuesday.atTime(10, 0), 1)), Collections.emptyMap()));
+
+        assertThat(dailyActivityRepository.findAll())
+                .filteredOn(activity -> activity.getUserId() == 3)
+                .allSatisfy(activity -> assertThat(activity.getSolves()).isNotNegative());
+        User user = new User();
+        user.setId(3);
+        assertThat(service.getActivity(user, monday, tuesday, false))
+                .extracting(DailyActivity::getSolves)
+                .containsExactly(1L, 1L);
+    }
+}
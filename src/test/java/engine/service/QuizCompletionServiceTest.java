@@ -0,0 +1,120 @@
+package engine.service;
+
+import engine.completion.CompletionStore;
+import engine.completion.StoredCompletion;
+import engine.dataobject.Quiz;
+import engine.repository.QuizRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+
+class QuizCompletionServiceTest {
+
+    private final CompletionStore completionStore = mock(CompletionStore.class);
+    private final LeaderboardService leaderboardService = mock(LeaderboardService.class);
+    private final CompletionArchiveService completionArchiveService = mock(CompletionArchiveService.class);
+    private final QuizRepository quizRepository = mock(QuizRepository.class);
+    private final QuizCompletionService service = new QuizCompletionService();
+    private final Quiz quiz = new Quiz("Title", "Text", new ArrayList<>(Arrays.asList("a", "b")),
+            new ArrayList<>(Collections.singletonList(0)));
+    private final List<StoredCompletion> removed = Collections.singletonList(
+            new StoredCompletion(1, "user", 5, LocalDateTime.of(2026, 1, 1, 12, 0)));
+
+    @BeforeEach
+    void setUp() {
+        service.setCompletionStore(completionStore);
+        service.setLeaderboardService(leaderboardService);
+        service.setCompletionArchiveService(completionArchiveService);
+        service.setDailyActivityService(mock(DailyActivityService.class));
+        service.setListingCounterService(mock(ListingCounterService.class));
+        service.setQuizRepository(quizRepository);
+        service.setTransactionManager(mock(PlatformTransactionManager.class));
+        quiz.setId(5);
+        when(completionStore.isInMainTransaction()).thenReturn(true);
+        when(completionStore.deleteByQuiz(5)).thenReturn(removed);
+        when(completionArchiveService.getQuizCompletions(5)).thenReturn(new HashMap<>());
+        when(completionArchiveService.deleteQuiz(5)).thenReturn(new HashMap<>());
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void changesLeaderboardsAndArchiveAfterCommit() {
+        service.deleteQuizCompletions(quiz);
+        verify(leaderboardService, never()).deleteCompletions(anyList());
+        verify(completionArchiveService, never()).deleteQuiz(5);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(leaderboardService).deleteCompletions(removed);
+        verify(leaderboardService).deleteArchivedCompletions(anyMap());
+        verify(completionArchiveService).deleteQuiz(5);
+    }
+
+    @Test
+    void keepsLeaderboardsAndArchiveWhenRolledBack() {
+        service.deleteQuizCompletions(quiz);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(synchronization ->
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        verifyNoInteractions(leaderboardService);
+        verify(completionArchiveService, never()).deleteQuiz(5);
+    }
+
+    @Test
+    void removesCompletionsOutsideMainDbOnlyAfterCommit() {
+        when(completionStore.isInMainTransaction()).thenReturn(false);
+
+        service.deleteQuizCompletions(quiz);
+        verify(completionStore, never()).deleteByQuiz(anyInt());
+
+        List<TransactionSynchronization> quizRemoval = TransactionSynchronizationManager.getSynchronizations();
+        quizRemoval.forEach(TransactionSynchronization::afterCommit);
+        verify(completionStore).deleteByQuiz(5);
+        verifyNoInteractions(leaderboardService);
+
+        TransactionSynchronizationManager.getSynchronizations().stream()
+                .filter(synchronization -> !quizRemoval.contains(synchronization))
+                .forEach(TransactionSynchronization::afterCommit);
+        verify(leaderboardService).deleteCompletions(removed);
+    }
+
+    @Test
+    void keepsCompletionsOutsideMainDbWhenRolledBack() {
+        when(completionStore.isInMainTransaction()).thenReturn(false);
+
+        service.deleteQuizCompletions(quiz);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(synchronization ->
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        verify(completionStore, never()).deleteByQuiz(anyInt());
+    }
+
+    @Test
+    void sweepsCompletionsOfDeletedQuizzes() {
+        when(completionStore.isInMainTransaction()).thenReturn(false);
+        when(completionStore.findQuizIds()).thenReturn(new HashSet<>(Arrays.asList(5, 6)));
+        when(quizRepository.findAllIds()).thenReturn(Collections.singletonList(6));
+
+        service.deleteOrphanCompletions();
+
+        verify(completionStore).deleteByQuiz(5);
+        verify(completionStore, never()).deleteByQuiz(6);
+    }
+}
@@ -0,0 +1,32 @@
+package engine.service;
+
+import engine.repository.QuizRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+class QuizExistenceFilterTest {
+
+    @Test
+    void tracksSparseIds() {
+        QuizRepository quizRepository = mock(QuizRepository.class);
+        when(quizRepository.findAllIds()).thenReturn(Arrays.asList(3, 1_000_000_007));
+        QuizExistenceFilter filter = new QuizExistenceFilter();
+        filter.setQuizRepository(quizRepository);
+        assertThat(filter.mayExist(42)).isTrue();
+
+        filter.afterSingletonsInstantiated();
+        filter.add(Integer.MAX_VALUE);
+        filter.remove(3);
+
+        assertThat(filter.mayExist(1_000_000_007)).isTrue();
+        assertThat(filter.mayExist(Integer.MAX_VALUE)).isTrue();
+        assertThat(filter.mayExist(3)).isFalse();
+        assertThat(filter.mayExist(-1)).isFalse();
+    }
+}
@@ -0,0 +1,50 @@
+package engine.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import engine.Benchmark;
+import engine.dataobject.Quiz;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+
+/**
+ * Allocation of serving a quiz: serializing the entity on every request against writing cached UTF-8 bytes. Both
+ * paths write the response body through the message converter the controller uses for them, into a buffer.
+ */
+@Tag("benchmark")
+class QuizJsonCacheBenchmark {
+
+    @Test
+    void serveQuiz() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        QuizJsonCache cache = new QuizJsonCache();
+        cache.setObjectMapper(objectMapper);
+        ReflectionTestUtils.setField(cache, "maxEntries", 100);
+        Quiz quiz = QuizJsonCacheTest.quiz(1);
+        MappingJackson2HttpMessageConverter entityConverter = new MappingJackson2HttpMessageConverter(objectMapper);
+        ByteArrayHttpMessageConverter bytesConverter = new ByteArrayHttpMessageConverter();
+
+        Benchmark.run("serialize entity per request", () -> write(entityConverter, quiz));
+        Benchmark.run("cached UTF-8 JSON", () -> write(bytesConverter, cache.get(1, id -> quiz).asUnquotedUTF8()));
+    }
+
+    private static <T> HttpOutputMessage write(HttpMessageConverter<T> converter, T body) {
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        try {
+            converter.write(body, MediaType.APPLICATION_JSON, message);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return message;
+    }
+}
@@ -0,0 +1,81 @@
+package engine.service;
+
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import engine.dataobject.Quiz;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+class QuizJsonCacheTest {
+
+    private QuizJsonCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new QuizJsonCache();
+        cache.setObjectMapper(new ObjectMapper());
+        ReflectionTestUtils.setField(cache, "maxEntries", 100);
+    }
+
+    static Quiz quiz(int id) {
+        Quiz quiz = new Quiz("Title " + id, "Text " + id, new ArrayList<>(Arrays.asList("a", "b", "c")),
+                new ArrayList<>(Arrays.asList(0, 2)));
+        quiz.setId(id);
+        return quiz;
+    }
+
+    @Test
+    void servesCachedJsonWithoutLoadingAgain() {
+        AtomicInteger loads = new AtomicInteger();
+        SerializedString first = cache.get(1, id -> {
+            loads.incrementAndGet();
+            return quiz(id);
+        });
+        SerializedString second = cache.get(1, id -> {
+            loads.incrementAndGet();
+            return quiz(id);
+        });
+        assertThat(second).isSameAs(first);
+        assertThat(loads).hasValue(1);
+        assertThat(first.getValue()).contains("\"title\":\"Title 1\"").doesNotContain("answer");
+    }
+
+    @Test
+    void doesNotCacheQuizDeletedAfterItWasLoaded() {
+        long stamp = cache.stamp();
+        Quiz loaded = quiz(2);
+        cache.remove(2);
+        cache.get(loaded, stamp);
+        assertThat(cache.getIfCached(2)).isNull();
+    }
+
+    @Test
+    void doesNotCacheQuizDeletedWhileLoaderRuns() {
+        cache.get(3, id -> {
+            cache.remove(id);
+            return quiz(id);
+        });
+        assertThat(cache.getIfCached(3)).isNull();
+    }
+
+    @Test
+    void cachesQuizLoadedUnderCurrentStamp() {
+        long stamp = cache.stamp();
+        SerializedString json = cache.get(quiz(4), stamp);
+        assertThat(cache.getIfCached(4)).isSameAs(json);
+    }
+
+    @Test
+    void serializesWithoutCachingQuizNotLoadedUnderStamp() {
+        cache.getOrSerialize(quiz(5));
+        assertThat(cache.getIfCached(5)).isNull();
+    }
+}
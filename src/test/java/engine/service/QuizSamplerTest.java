@@ -0,0 +1,54 @@
+package engine.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+class QuizSamplerTest {
+
+    private final QuizSampler sampler = new QuizSampler();
+
+    @Test
+    void samplesSparseIdsWithoutReplacement() {
+        List<Integer> ids = Arrays.asList(3, 1_000_000, 42, 7_000_001, 9);
+        ids.forEach(sampler::add);
+
+        for (int round = 0; round < 100; round++) {
+            List<Integer> sample = sampler.sample(3, Collections.emptySet());
+            assertThat(sample).hasSize(3).doesNotHaveDuplicates();
+            assertThat(ids).containsAll(sample);
+        }
+        assertThat(sampler.sample(10, Collections.emptySet())).containsExactlyInAnyOrderElementsOf(ids);
+    }
+
+    @Test
+    void skipsExcludedAndRemovedIds() {
+        for (int id = 1; id <= 20; id++) {
+            sampler.add(id * 1000);
+        }
+        sampler.add(5000);
+        sampler.remove(20_000);
+        sampler.remove(1000);
+        sampler.remove(1000);
+        sampler.remove(123);
+
+        List<Integer> sample = sampler.sample(20, new HashSet<>(Arrays.asList(2000, 3000)));
+        assertThat(sample).hasSize(16).doesNotHaveDuplicates().doesNotContain(1000, 2000, 3000, 20_000);
+    }
+
+    @Test
+    void picksEveryIdEvenly() {
+        for (int id = 1; id <= 10; id++) {
+            sampler.add(id * 7);
+        }
+        Map<Integer, Integer> picks = new HashMap<>();
+        for (int round = 0; round < 10_000; round++) {
+            sampler.sample(2, Collections.emptySet()).forEach(id -> picks.merge(id, 1, Integer::sum));
+        }
+        assertThat(picks).hasSize(10);
+        assertThat(picks.values()).allSatisfy(count -> assertThat(count).isBetween(1_600, 2_400));
+    }
+}
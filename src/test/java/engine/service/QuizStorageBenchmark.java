@@ -0,0 +1,91 @@
+package engine.service;
+
+import engine.Benchmark;
+import engine.dataobject.Quiz;
+import engine.repository.QuizRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Insert and load cost and storage size of quizzes in row storage (options and answer in join tables) against
+ * compact storage (options and answer in columns of the quiz row).
+ */
+@Tag("benchmark")
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:file:./build/benchmark/quiz-storage")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class QuizStorageBenchmark {
+
+    private static final int QUIZZES = 2000;
+
+    @Autowired
+    private QuizRepository quizRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        quizRepository.deleteAll();
+    }
+
+    @Test
+    void rowStorage() {
+        measure("row", false);
+    }
+
+    @Test
+    void compactStorage() {
+        measure("compact", true);
+    }
+
+    private void measure(String name, boolean compact) {
+        AtomicInteger number = new AtomicInteger();
+        List<Integer> ids = new ArrayList<>();
+        Benchmark.run(name + " storage: insert", QUIZZES / 10, QUIZZES, () -> {
+            Quiz quiz = new Quiz("Quiz " + number.get(), "Which options are correct in quiz " + number.get() + "?",
+                    new ArrayList<>(Arrays.asList("First option", "Second option", "Third option", "Fourth option")),
+                    new ArrayList<>(Arrays.asList(0, 2)));
+            number.incrementAndGet();
+            if (compact) {
+                quiz.useCompactStorage();
+            }
+            ids.add(quizRepository.save(quiz).getId());
+            return quiz;
+        });
+        AtomicInteger next = new AtomicInteger();
+        Benchmark.run(name + " storage: load", QUIZZES / 10, QUIZZES, () -> {
+            EntityManager entityManager = entityManagerFactory.createEntityManager();
+            try {
+                Quiz quiz = entityManager.find(Quiz.class, ids.get(next.getAndIncrement() % ids.size()));
+                quiz.getOptions().size();
+                quiz.getAnswer().size();
+                return quiz;
+            } finally {
+                entityManager.close();
+            }
+        });
+        long bytes = 0;
+        for (String table : Arrays.asList("QUIZ", "QUIZ_OPTIONS", "QUIZ_ANSWER")) {
+            bytes += jdbcTemplate.queryForObject("call disk_space_used(?)", Long.class, table);
+        }
+        System.out.printf("%s storage: %d bytes on disk for %d quizzes (%.1f bytes/quiz)%n", name, bytes, ids.size(),
+                (double) bytes / ids.size());
+    }
+}
@@ -0,0 +1,57 @@
+package engine.snapshot;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+class SnapshotRestorerTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void restoresSnapshotOnce() throws IOException {
+        H2DatabaseFile database = H2DatabaseFile.of("jdbc:h2:file:" + directory.resolve("db/quizdb"));
+        Path snapshot = snapshot("quizdb-20260101-120000.zip", "snapshot");
+
+        assertThat(SnapshotRestorer.restore(snapshot, database)).isTrue();
+        assertThat(read(database.getMvStoreFile())).isEqualTo("snapshot");
+
+        Files.write(database.getMvStoreFile(), "changed since".getBytes(StandardCharsets.UTF_8));
+        assertThat(SnapshotRestorer.restore(snapshot, database)).isFalse();
+        assertThat(read(database.getMvStoreFile())).isEqualTo("changed since");
+    }
+
+    @Test
+    void restoresAnotherSnapshot() throws IOException {
+        H2DatabaseFile database = H2DatabaseFile.of("jdbc:h2:file:" + directory.resolve("db/quizdb"));
+        SnapshotRestorer.restore(snapshot("quizdb-20260101-120000.zip", "first"), database);
+
+        assertThat(SnapshotRestorer.restore(snapshot("quizdb-20260102-120000.zip", "second"), database)).isTrue();
+        assertThat(read(database.getMvStoreFile())).isEqualTo("second");
+        assertThat(Files.exists(SnapshotRestorer.marker(database))).isTrue();
+    }
+
+    private Path snapshot(String name, String content) throws IOException {
+        Path snapshot = directory.resolve(name);
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(snapshot))) {
+            zip.putNextEntry(new ZipEntry("quizdb.mv.db"));
+            zip.write(content.getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        return snapshot;
+    }
+
+    private static String read(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+}
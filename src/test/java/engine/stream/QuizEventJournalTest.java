@@ -0,0 +1,46 @@
+package engine.stream;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+class QuizEventJournalTest {
+
+    private final QuizEventJournal journal = new QuizEventJournal(3, "node-a");
+
+    @Test
+    void replaysEventsAfterLastReceived() {
+        QuizStreamEvent first = journal.append(QuizStreamEvent.CREATED, 1);
+        QuizStreamEvent second = journal.append(QuizStreamEvent.CREATED, 2);
+        QuizStreamEvent third = journal.append(QuizStreamEvent.DELETED, 1);
+
+        assertThat(journal.after(first.getId())).containsExactly(second, third);
+        assertThat(journal.after(third.getId())).isEmpty();
+        assertThat(journal.getLastEventId()).isEqualTo(third.getId());
+    }
+
+    @Test
+    void resetsOverwrittenEvents() {
+        QuizStreamEvent first = journal.append(QuizStreamEvent.CREATED, 1);
+        for (int i = 2; i <= 4; i++) {
+            journal.append(QuizStreamEvent.CREATED, i);
+        }
+
+        assertThat(journal.after(first.getId())).isNull();
+    }
+
+    @Test
+    void resetsIdsOfOtherJournals() {
+        QuizEventJournal other = new QuizEventJournal(3, "node-b");
+        QuizStreamEvent foreign = other.append(QuizStreamEvent.CREATED, 1);
+        other.append(QuizStreamEvent.CREATED, 2);
+        journal.append(QuizStreamEvent.CREATED, 3);
+        journal.append(QuizStreamEvent.CREATED, 4);
+
+        assertThat(journal.after(foreign.getId())).isNull();
+        assertThat(journal.after("1")).isNull();
+        assertThat(journal.after("node-a-x")).isNull();
+        assertThat(journal.after("node-a-5")).isNull();
+    }
+}
@@ -0,0 +1,96 @@
+package engine.stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+class StreamSubscriberTest {
+
+    /**
+     * Single sending thread, so a send which never finishes would hold back every other subscriber.
+     */
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        watchdog.shutdownNow();
+    }
+
+    @Test
+    void disconnectsStalledSubscriberWithoutDelayingOthers() throws InterruptedException {
+        StalledEmitter stalledEmitter = new StalledEmitter();
+        RecordingEmitter recordingEmitter = new RecordingEmitter(3);
+        StreamSubscriber stalled = new StreamSubscriber(stalledEmitter, executor, 16, watchdog, 100);
+        StreamSubscriber live = new StreamSubscriber(recordingEmitter, executor, 16, watchdog, 100);
+
+        for (int i = 1; i <= 3; i++) {
+            assertThat(stalled.offer(event(i))).isTrue();
+            assertThat(live.offer(event(i))).isTrue();
+        }
+
+        assertThat(recordingEmitter.received.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(stalledEmitter.sends).hasValue(1);
+        assertThat(stalled.isClosed()).isTrue();
+        assertThat(stalled.offer(event(4))).isFalse();
+        assertThat(live.isClosed()).isFalse();
+    }
+
+    @Test
+    void keepsSubscriberSendingInTime() throws InterruptedException {
+        RecordingEmitter recordingEmitter = new RecordingEmitter(100);
+        StreamSubscriber subscriber = new StreamSubscriber(recordingEmitter, executor, 256, watchdog, 1000);
+
+        for (int i = 1; i <= 100; i++) {
+            subscriber.offer(event(i));
+        }
+
+        assertThat(recordingEmitter.received.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(subscriber.isClosed()).isFalse();
+    }
+
+    private static SseEmitter.SseEventBuilder event(int id) {
+        return SseEmitter.event().id(String.valueOf(id)).data(id);
+    }
+
+    /**
+     * Emitter of a client which stopped reading, every send blocks until the sending thread is interrupted.
+     */
+    private static class StalledEmitter extends SseEmitter {
+
+        private final AtomicInteger sends = new AtomicInteger();
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sends.incrementAndGet();
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException();
+            }
+        }
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final CountDownLatch received;
+
+        RecordingEmitter(int events) {
+            this.received = new CountDownLatch(events);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            received.countDown();
+        }
+    }
+}